@@ -41,7 +41,7 @@ if [ $? -eq 0 ]; then
     echo "  docker-compose up"
     echo ""
     echo "Or run standalone:"
-    echo "  docker run -p 8080:8080 $IMAGE_NAME:$IMAGE_TAG"
+    echo "  docker run -p 8080:8080 -e WALLET_TRANSACTION_ID_NODE_ID=0 $IMAGE_NAME:$IMAGE_TAG"
 else
     echo ""
     echo "❌ Build failed!"
@@ -0,0 +1,36 @@
+#!/bin/bash
+
+# Bulk import benchmark
+# Generates ROWS wallets as csv (owner names quoted, every 7th with a comma in it) and posts
+# them to a running application's /api/v1/wallets/import, then prints the summary line the
+# import ends with: imported, failed and elapsed milliseconds as measured by the server.
+# Run it against the PostgreSQL setup from compose.yaml to time the COPY path.
+
+PORT=${PORT:-8080}
+ROWS=${ROWS:-1000000}
+PREFIX=${PREFIX:-bench-$(date +%s)}
+URL="http://localhost:$PORT/api/v1/wallets/import"
+FILE=/tmp/import-benchmark-$ROWS.csv
+
+echo "=========================================="
+echo "Bulk Import Benchmark"
+echo "=========================================="
+echo "Rows: $ROWS  walletId prefix: $PREFIX"
+echo "=========================================="
+
+awk -v rows="$ROWS" -v prefix="$PREFIX" 'BEGIN {
+    print "walletId,ownerName,balance"
+    for (i = 1; i <= rows; i++) {
+        owner = (i % 7 == 0) ? "Kumar, Nitin " i : "Nitin " i
+        printf "%s-%d,\"%s\",%d\n", prefix, i, owner, i % 10000
+    }
+}' > "$FILE"
+echo "input: $(du -h "$FILE" | cut -f1)"
+
+start=$(date +%s%N)
+summary=$(curl -s -X POST -H "Content-Type: text/csv" --data-binary @"$FILE" "$URL" | tail -1)
+end=$(date +%s%N)
+
+echo "summary: $summary"
+echo "wall time including upload: $(( (end - start) / 1000000 )) ms"
+rm -f "$FILE"
@@ -3,4 +3,8 @@
 
 echo "Starting Wallet App with PostgreSQL..."
 echo "Make sure PostgreSQL is running on localhost:5432"
+# transaction id node id, 0-1023 and unique per running instance
+export WALLET_TRANSACTION_ID_NODE_ID=${WALLET_TRANSACTION_ID_NODE_ID:-0}
+# the schema comes from the Flyway scripts, Hibernate does no DDL
+./gradlew bootRun --args='--spring.profiles.active=migrate' || exit 1
 ./gradlew bootRun
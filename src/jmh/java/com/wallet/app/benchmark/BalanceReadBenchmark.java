@@ -0,0 +1,93 @@
+package com.wallet.app.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wallet.app.dto.WalletRequest;
+import com.wallet.app.repository.WalletReader;
+import com.wallet.app.repository.WalletRepository;
+import com.wallet.app.service.UserServiceImpl;
+
+/**
+ * Uncached balance lookups: the managed entity load getBalance used to do against the scalar
+ * JDBC read it does now. Run with the gc profiler (on by default) to compare bytes per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BalanceReadBenchmark {
+
+    @Param({"1000"})
+    private int wallets;
+
+    private ConfigurableApplicationContext context;
+    private WalletRepository walletRepository;
+    private WalletReader walletReader;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = WalletContext.start("readbench");
+        UserServiceImpl userService = context.getBean(UserServiceImpl.class);
+        for (int i = 0; i < wallets; i++) {
+            WalletRequest request = new WalletRequest();
+            request.setWalletId("bench-" + i);
+            request.setOwnerName("Benchmark");
+            request.setBalance(i);
+            userService.create(request);
+        }
+        walletRepository = context.getBean(WalletRepository.class);
+        walletReader = context.getBean(WalletReader.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int entityInReadOnlyTransaction() {
+        String walletId = randomWallet();
+        return readOnlyTransaction.execute(status -> walletRepository.findByWalletId(walletId).orElseThrow().getBalance());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int entity() {
+        return walletRepository.findByWalletId(randomWallet()).orElseThrow().getBalance();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int scalarJdbc() {
+        return walletReader.findBalance(randomWallet()).orElseThrow();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int scalarJdbcSpread() {
+        return walletReader.findBalance(randomWallet()).orElseThrow();
+    }
+
+    private String randomWallet() {
+        return "bench-" + ThreadLocalRandom.current().nextInt(wallets);
+    }
+}
@@ -0,0 +1,66 @@
+package com.wallet.app.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.WalletRequest;
+import com.wallet.app.service.HotWalletService;
+import com.wallet.app.service.UserServiceImpl;
+
+/**
+ * Eight threads writing to one wallet. slots=0 is the plain single row; with slots the
+ * deposits spread over that many sub-balance rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HotWalletBenchmark {
+
+    @Param({"0", "1", "4", "16"})
+    private int slots;
+
+    private ConfigurableApplicationContext context;
+    private UserServiceImpl userService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = WalletContext.start("hotbench");
+        userService = context.getBean(UserServiceImpl.class);
+        WalletRequest request = new WalletRequest();
+        request.setWalletId("hot");
+        request.setOwnerName("Benchmark");
+        request.setBalance(1_000_000_000);
+        userService.create(request);
+        context.getBean(HotWalletService.class).configure("hot", slots);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResponse depositHot() {
+        return userService.deposit("hot", 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResponse withdrawHot() {
+        return userService.withdraw("hot", 1);
+    }
+}
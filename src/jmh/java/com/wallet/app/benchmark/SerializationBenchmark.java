@@ -0,0 +1,72 @@
+package com.wallet.app.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wallet.app.dto.ErrorResponse;
+import com.wallet.app.dto.Status;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.WalletResponse;
+import com.wallet.app.model.TransactionType;
+import com.wallet.app.wire.WalletBinaryCodec;
+
+//response bodies as the controller writes them, json with pre-resolved writers like Spring's converter and the binary codec
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ObjectWriter transactionWriter = objectMapper.writerFor(TransactionResponse.class);
+    private final ObjectWriter walletWriter = objectMapper.writerFor(WalletResponse.class);
+    private final ObjectWriter errorWriter = objectMapper.writerFor(ErrorResponse.class);
+
+    private final TransactionResponse transaction =
+            new TransactionResponse("01J9Z3K4M5N6P", "snitin6528", TransactionType.DEPOSIT, 500, 1500);
+    private final WalletResponse wallet = WalletResponse.builder()
+                                                        .walletId("snitin6528")
+                                                        .ownerName("Nitin")
+                                                        .balance(1500)
+                                                        .status(Status.ACTIVE)
+                                                        .build();
+
+    @Benchmark
+    public byte[] transactionResponse() throws JsonProcessingException {
+        return transactionWriter.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] walletResponse() throws JsonProcessingException {
+        return walletWriter.writeValueAsBytes(wallet);
+    }
+
+    @Benchmark
+    public byte[] transactionResponseBinary() {
+        return WalletBinaryCodec.encode(transaction);
+    }
+
+    @Benchmark
+    public byte[] walletResponseBinary() {
+        return WalletBinaryCodec.encode(wallet);
+    }
+
+    @Benchmark
+    public byte[] errorResponse() throws JsonProcessingException {
+        return errorWriter.writeValueAsBytes(ErrorResponse.of(HttpStatus.NOT_FOUND, "Wallet Id not found!"));
+    }
+
+    @Benchmark
+    public byte[] errorResponseBinary() {
+        return WalletBinaryCodec.encode(ErrorResponse.of(HttpStatus.NOT_FOUND, "Wallet Id not found!"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.wallet.app.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.wallet.app.service.TimeOrderedTransactionIdGenerator;
+import com.wallet.app.service.UuidTransactionIdGenerator;
+
+//id generation alone, contended variants share one generator across threads
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionIdBenchmark {
+
+    private final TimeOrderedTransactionIdGenerator timeOrdered = new TimeOrderedTransactionIdGenerator(1);
+    private final UuidTransactionIdGenerator uuid = new UuidTransactionIdGenerator();
+
+    @Benchmark
+    @Threads(1)
+    public String timeOrdered() {
+        return timeOrdered.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String timeOrderedContended() {
+        return timeOrdered.nextId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String uuid() {
+        return uuid.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidContended() {
+        return uuid.nextId();
+    }
+}
@@ -0,0 +1,105 @@
+package com.wallet.app.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.wallet.app.dto.TransferResponse;
+import com.wallet.app.dto.WalletRequest;
+import com.wallet.app.service.UserServiceImpl;
+
+/**
+ * Transfers under contention. The pair variants have half the threads sending A to B and
+ * half B to A, the case that deadlocks without ordered locking; the spread variants pick
+ * random pairs out of {@code wallets}. withdrawThenDeposit is the old two-call way to
+ * move money, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransferBenchmark {
+
+    @Param({"1000"})
+    private int wallets;
+
+    private ConfigurableApplicationContext context;
+    private UserServiceImpl userService;
+
+    @State(Scope.Thread)
+    public static class Direction {
+        boolean forward;
+
+        @Setup(Level.Trial)
+        public void pick() {
+            forward = ThreadLocalRandom.current().nextBoolean();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = WalletContext.start("transferbench");
+        userService = context.getBean(UserServiceImpl.class);
+        create("pair-a");
+        create("pair-b");
+        for (int i = 0; i < wallets; i++) {
+            create("bench-" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransferResponse transferPairOpposite(Direction direction) {
+        return direction.forward
+                ? userService.transfer("pair-a", "pair-b", 1)
+                : userService.transfer("pair-b", "pair-a", 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransferResponse transferSpread() {
+        int from = ThreadLocalRandom.current().nextInt(wallets);
+        int to = (from + 1 + ThreadLocalRandom.current().nextInt(wallets - 1)) % wallets;
+        return userService.transfer("bench-" + from, "bench-" + to, 1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransferResponse transferSingle() {
+        return userService.transfer("pair-a", "pair-b", 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void withdrawThenDepositSpread(Blackhole blackhole) {
+        int from = ThreadLocalRandom.current().nextInt(wallets);
+        int to = (from + 1 + ThreadLocalRandom.current().nextInt(wallets - 1)) % wallets;
+        blackhole.consume(userService.withdraw("bench-" + from, 1));
+        blackhole.consume(userService.deposit("bench-" + to, 1));
+    }
+
+    private void create(String walletId) {
+        WalletRequest request = new WalletRequest();
+        request.setWalletId(walletId);
+        request.setOwnerName("Benchmark");
+        request.setBalance(1_000_000_000);
+        userService.create(request);
+    }
+}
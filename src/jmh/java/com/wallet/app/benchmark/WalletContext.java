@@ -0,0 +1,32 @@
+package com.wallet.app.benchmark;
+
+import java.util.Map;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.wallet.app.WalletAppApplication;
+
+//the real application context on an embedded H2, without the web layer
+final class WalletContext {
+
+    private WalletContext() {
+    }
+
+    static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(WalletAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(Map.of(
+                        "spring.datasource.url", "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name", "org.h2.Driver",
+                        "spring.datasource.username", "sa",
+                        "spring.datasource.password", "",
+                        "spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.hibernate.ddl-auto", "create-drop",
+                        "spring.jpa.show-sql", "false",
+                        "spring.jpa.properties.hibernate.format_sql", "false",
+                        "logging.level.root", "WARN"))
+                .run();
+    }
+}
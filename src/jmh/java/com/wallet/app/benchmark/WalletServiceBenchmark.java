@@ -0,0 +1,125 @@
+package com.wallet.app.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.WalletRequest;
+import com.wallet.app.model.Transaction;
+import com.wallet.app.model.TransactionType;
+import com.wallet.app.model.Wallet;
+import com.wallet.app.service.UserServiceImpl;
+
+/**
+ * Deposit, withdraw and balance reads through UserServiceImpl against an embedded H2.
+ *
+ * The hot variants have every thread writing the same wallet row, so they measure lock
+ * contention; the spread variants pick a random wallet out of {@code wallets} per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WalletServiceBenchmark {
+
+    private static final String HOT_WALLET = "bench-hot";
+
+    @Param({"1000"})
+    private int wallets;
+
+    private ConfigurableApplicationContext context;
+    private UserServiceImpl userService;
+    private Transaction transaction;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = WalletContext.start("walletbench");
+        userService = context.getBean(UserServiceImpl.class);
+        create(HOT_WALLET);
+        for (int i = 0; i < wallets; i++) {
+            create("bench-" + i);
+        }
+        Wallet wallet = Wallet.builder().id(1L).walletId(HOT_WALLET).balance(100).owner("Benchmark").build();
+        transaction = Transaction.builder().transactionId("0000000000000").amount(100).balanceAfter(100)
+                                 .type(TransactionType.DEPOSIT).wallet(wallet).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResponse deposit() {
+        return userService.deposit(randomWallet(), 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResponse depositSpread() {
+        return userService.deposit(randomWallet(), 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResponse depositHot() {
+        return userService.deposit(HOT_WALLET, 1);
+    }
+
+    //wallets start with a balance far larger than any run can withdraw
+    @Benchmark
+    @Threads(1)
+    public TransactionResponse withdraw() {
+        return userService.withdraw(randomWallet(), 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResponse withdrawHot() {
+        return userService.withdraw(HOT_WALLET, 1);
+    }
+
+    //mostly served by the balance cache
+    @Benchmark
+    @Threads(1)
+    public int getBalance() {
+        return userService.getBalance(randomWallet());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int getBalanceSpread() {
+        return userService.getBalance(randomWallet());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResponse maptoDto() {
+        return userService.maptoDto(transaction);
+    }
+
+    private String randomWallet() {
+        return "bench-" + ThreadLocalRandom.current().nextInt(wallets);
+    }
+
+    private void create(String walletId) {
+        WalletRequest request = new WalletRequest();
+        request.setWalletId(walletId);
+        request.setOwnerName("Benchmark");
+        request.setBalance(1_000_000_000);
+        userService.create(request);
+    }
+}
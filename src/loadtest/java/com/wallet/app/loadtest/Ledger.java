@@ -0,0 +1,49 @@
+package com.wallet.app.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What every wallet's balance must be, from the responses the server gave. A 2xx moved money,
+ * a 4xx (insufficient balance, shed by admission control) did not. A 5xx or a timeout may or may
+ * not have been applied, so that wallet can only be checked for existence afterwards.
+ */
+final class Ledger {
+
+    private final Map<String, LongAdder> expected = new ConcurrentHashMap<>();
+    private final Set<String> uncertain = ConcurrentHashMap.newKeySet();
+
+    void opened(String walletId, long balance) {
+        LongAdder adder = new LongAdder();
+        adder.add(balance);
+        expected.put(walletId, adder);
+    }
+
+    void applied(String walletId, long delta) {
+        expected.get(walletId).add(delta);
+    }
+
+    void unknownOutcome(String walletId) {
+        uncertain.add(walletId);
+    }
+
+    boolean isCertain(String walletId) {
+        return !uncertain.contains(walletId);
+    }
+
+    long expectedBalance(String walletId) {
+        return expected.get(walletId).sum();
+    }
+
+    List<String> walletIds() {
+        return new ArrayList<>(expected.keySet());
+    }
+
+    int uncertainCount() {
+        return uncertain.size();
+    }
+}
@@ -0,0 +1,278 @@
+package com.wallet.app.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.wallet.app.WalletAppApplication;
+import com.wallet.app.loadtest.OperationStats.Outcome;
+
+/**
+ * Open-model load against the wallet api, then a ledger check.
+ *
+ * Requests are started at a constant arrival rate, each on its own virtual thread, whether or not
+ * earlier ones have returned, so a stalled server shows up as latency instead of as a lower
+ * request rate. After the run every wallet's balance is read back and compared with the sum of
+ * the writes the server acknowledged; the run fails on any difference.
+ *
+ *   ./gradlew loadTest -PloadTestArgs="--database=h2 --rate=2000 --duration=60s"
+ *   ./gradlew loadTest -PloadTestArgs="--url=http://localhost:8080 --hot-wallets=5 --hot-share=0.8"
+ */
+public final class LoadTest {
+
+    private final LoadTestOptions options;
+    private final WalletClient client;
+    private final Ledger ledger = new Ledger();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong createdWallets = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private String[] walletIds;
+
+    private LoadTest(LoadTestOptions options, String baseUrl) {
+        this.options = options;
+        this.client = new WalletClient(baseUrl, options.timeout);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats(operation));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = options.url == null ? startApplication(options) : null;
+        boolean passed;
+        try {
+            String baseUrl = context == null ? options.url
+                    : "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            passed = new LoadTest(options, baseUrl).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        System.out.printf("run %s: %d req/s for %s after %s warmup, %d wallets (%d hot, %.0f%% of traffic)%n", runId,
+                options.rate, options.duration, options.warmup, options.wallets, options.hotWallets, options.hotShare * 100);
+        openWallets();
+        drive();
+        Thread.sleep(options.settle.toMillis());
+        boolean consistent = verify();
+        report();
+        return consistent && dropped.get() == 0;
+    }
+
+    //wallets are opened before the clock starts, only their balances matter later
+    private void openWallets() throws InterruptedException {
+        walletIds = new String[options.wallets];
+        Semaphore concurrency = new Semaphore(64);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < walletIds.length; i++) {
+                String walletId = "lt-" + runId + "-" + i;
+                walletIds[i] = walletId;
+                concurrency.acquire();
+                executor.execute(() -> {
+                    try {
+                        int status = client.create(walletId, options.initialBalance);
+                        if (status / 100 != 2) {
+                            throw new IllegalStateException("creating " + walletId + " returned " + status);
+                        }
+                        ledger.opened(walletId, options.initialBalance);
+                    } catch (IOException ex) {
+                        throw new IllegalStateException("creating " + walletId + " failed", ex);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        concurrency.release();
+                    }
+                });
+            }
+        }
+        if (ledger.walletIds().size() != walletIds.length) {
+            throw new IllegalStateException("only " + ledger.walletIds().size() + " of " + walletIds.length + " wallets were created");
+        }
+    }
+
+    private void drive() throws InterruptedException {
+        Operation[] schedule = weightedOperations();
+        long warmupNanos = options.warmup.toNanos();
+        long total = (options.warmup.toNanos() + options.duration.toNanos()) / 1_000_000 * options.rate / 1000;
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long i = 0; i < total; i++) {
+            //computed from the start, not from the previous send, so a late loop catches up instead of drifting
+            long due = start + i * 1_000_000_000L / options.rate;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= options.maxInFlight) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            Operation operation = schedule[random.nextInt(schedule.length)];
+            String walletId = operation == Operation.CREATE ? "lt-" + runId + "-c" + createdWallets.incrementAndGet() : pickWallet(random);
+            int amount = 1 + random.nextInt(options.maxAmount);
+            boolean measured = due - start >= warmupNanos;
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    execute(operation, walletId, amount, due, measured);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(options.timeout.toMillis() + 10_000, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException(inFlight.get() + " requests still running after the timeout");
+        }
+    }
+
+    private void execute(Operation operation, String walletId, int amount, long due, boolean measured) {
+        long sent = System.nanoTime();
+        Outcome outcome;
+        try {
+            outcome = switch (operation) {
+                case CREATE -> {
+                    Outcome created = Outcome.of(client.create(walletId, options.initialBalance));
+                    if (created == Outcome.OK) {
+                        ledger.opened(walletId, options.initialBalance);
+                    }
+                    yield created;
+                }
+                case DEPOSIT -> applied(walletId, amount, Outcome.of(client.deposit(walletId, amount)));
+                case WITHDRAW -> applied(walletId, -amount, Outcome.of(client.withdraw(walletId, amount)));
+                case BALANCE -> client.balance(walletId) != null ? Outcome.OK : Outcome.ERROR;
+            };
+        } catch (IOException ex) {
+            outcome = Outcome.ERROR;
+            if (operation != Operation.CREATE && operation != Operation.BALANCE) {
+                ledger.unknownOutcome(walletId);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (measured) {
+            stats.get(operation).record(due, sent, System.nanoTime(), outcome);
+        }
+    }
+
+    private Outcome applied(String walletId, long delta, Outcome outcome) {
+        if (outcome == Outcome.OK) {
+            ledger.applied(walletId, delta);
+        } else if (outcome == Outcome.ERROR) {
+            ledger.unknownOutcome(walletId);
+        }
+        return outcome;
+    }
+
+    //hot-share of the traffic goes to the first hot-wallets wallets, the rest is spread evenly
+    private String pickWallet(ThreadLocalRandom random) {
+        if (options.hotWallets == walletIds.length || options.hotWallets > 0 && random.nextDouble() < options.hotShare) {
+            return walletIds[random.nextInt(options.hotWallets)];
+        }
+        return walletIds[options.hotWallets + random.nextInt(walletIds.length - options.hotWallets)];
+    }
+
+    private Operation[] weightedOperations() {
+        List<Operation> schedule = new ArrayList<>();
+        options.mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                schedule.add(operation);
+            }
+        });
+        if (schedule.isEmpty()) {
+            throw new IllegalArgumentException("the operation mix has no weight");
+        }
+        return schedule.toArray(Operation[]::new);
+    }
+
+    private boolean verify() throws InterruptedException {
+        List<String> wallets = ledger.walletIds();
+        AtomicLong checked = new AtomicLong();
+        AtomicLong mismatches = new AtomicLong();
+        Semaphore concurrency = new Semaphore(64);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String walletId : wallets) {
+                concurrency.acquire();
+                executor.execute(() -> {
+                    try {
+                        Long actual = client.balance(walletId);
+                        if (actual == null) {
+                            mismatch(mismatches, walletId + ": could not be read back");
+                        } else if (ledger.isCertain(walletId)) {
+                            checked.incrementAndGet();
+                            long expected = ledger.expectedBalance(walletId);
+                            if (actual != expected) {
+                                mismatch(mismatches, walletId + ": expected " + expected + ", server has " + actual);
+                            }
+                        }
+                    } catch (IOException ex) {
+                        mismatch(mismatches, walletId + ": " + ex);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        concurrency.release();
+                    }
+                });
+            }
+        }
+        System.out.printf("ledger: %d wallets checked, %d skipped after an unknown outcome, %d mismatched%n",
+                checked.get(), ledger.uncertainCount(), mismatches.get());
+        return mismatches.get() == 0;
+    }
+
+    private static void mismatch(AtomicLong mismatches, String line) {
+        if (mismatches.incrementAndGet() <= 20) {
+            System.out.println("  MISMATCH " + line);
+        }
+    }
+
+    private void report() throws IOException {
+        Files.createDirectories(options.reportDir);
+        for (OperationStats operation : stats.values()) {
+            operation.printSummary(System.out);
+            operation.writeHistograms(options.reportDir);
+        }
+        if (dropped.get() > 0) {
+            System.out.printf("%d requests were not sent, more than %d were in flight; latencies above understate the overload%n",
+                    dropped.get(), options.maxInFlight);
+        }
+        System.out.println("histograms in " + options.reportDir.toAbsolutePath());
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestOptions options) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(WalletAppApplication.class)
+                .properties(Map.of("server.port", "0", "logging.level.root", "WARN"));
+        if ("h2".equals(options.database)) {
+            builder.properties(Map.of(
+                    "spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.driver-class-name", "org.h2.Driver",
+                    "spring.datasource.username", "sa",
+                    "spring.datasource.password", "",
+                    "spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect",
+                    "spring.jpa.hibernate.ddl-auto", "create-drop"));
+        }
+        return builder.run(options.applicationArgs.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,91 @@
+package com.wallet.app.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * --key=value arguments. Keys listed here configure the load, every other argument (--spring.*,
+ * --wallet.*, ...) is passed to the application when it is started in-process.
+ */
+final class LoadTestOptions {
+
+    private static final List<String> KEYS = List.of("url", "database", "rate", "duration", "warmup", "timeout", "settle",
+            "wallets", "hot-wallets", "hot-share", "mix", "initial-balance", "max-amount", "max-in-flight", "report-dir");
+
+    //target, null starts the application in this jvm
+    final String url;
+    //h2 runs the in-process application on an in-memory database
+    final String database;
+    //requests started per second, whatever the response times are
+    final int rate;
+    final Duration duration;
+    final Duration warmup;
+    final Duration timeout;
+    //wait before reading balances back, for the journal write mode
+    final Duration settle;
+    final int wallets;
+    final int hotWallets;
+    //fraction of deposits, withdrawals and reads that go to the hot wallets
+    final double hotShare;
+    final Map<Operation, Integer> mix;
+    final int initialBalance;
+    final int maxAmount;
+    final int maxInFlight;
+    final Path reportDir;
+    final List<String> applicationArgs;
+
+    private LoadTestOptions(Map<String, String> values, List<String> applicationArgs) {
+        this.url = values.get("url");
+        this.database = values.getOrDefault("database", "configured");
+        this.rate = Integer.parseInt(values.getOrDefault("rate", "500"));
+        this.duration = Duration.parse("PT" + values.getOrDefault("duration", "60s"));
+        this.warmup = Duration.parse("PT" + values.getOrDefault("warmup", "10s"));
+        this.timeout = Duration.parse("PT" + values.getOrDefault("timeout", "5s"));
+        this.settle = Duration.parse("PT" + values.getOrDefault("settle", "2s"));
+        this.wallets = Integer.parseInt(values.getOrDefault("wallets", "1000"));
+        this.hotWallets = Integer.parseInt(values.getOrDefault("hot-wallets", "10"));
+        this.hotShare = Double.parseDouble(values.getOrDefault("hot-share", "0.5"));
+        this.mix = parseMix(values.getOrDefault("mix", "create:5,deposit:40,withdraw:30,balance:25"));
+        this.initialBalance = Integer.parseInt(values.getOrDefault("initial-balance", "100000"));
+        this.maxAmount = Integer.parseInt(values.getOrDefault("max-amount", "100"));
+        this.maxInFlight = Integer.parseInt(values.getOrDefault("max-in-flight", "20000"));
+        this.reportDir = Path.of(values.getOrDefault("report-dir", "build/reports/loadtest"));
+        this.applicationArgs = applicationArgs;
+        if (rate <= 0 || wallets <= 0 || hotWallets < 0 || hotWallets > wallets || hotShare < 0 || hotShare > 1 || maxAmount <= 0) {
+            throw new IllegalArgumentException("need rate > 0, wallets > 0, 0 <= hot-wallets <= wallets, 0 <= hot-share <= 1, max-amount > 0");
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String key = arg.startsWith("--") && eq > 2 ? arg.substring(2, eq) : null;
+            if (key != null && KEYS.contains(key)) {
+                values.put(key, arg.substring(eq + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+        return new LoadTestOptions(values, applicationArgs);
+    }
+
+    //create:5,deposit:40,... relative weights
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.trim().split(":");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry '" + part + "', use operation:weight");
+            }
+            mix.put(Operation.from(weight[0]), Integer.parseInt(weight[1]));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,18 @@
+package com.wallet.app.loadtest;
+
+enum Operation {
+
+    CREATE,
+    DEPOSIT,
+    WITHDRAW,
+    BALANCE;
+
+    static Operation from(String value) {
+        for (Operation operation : values()) {
+            if (operation.name().equalsIgnoreCase(value)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + value + "', use create, deposit, withdraw or balance");
+    }
+}
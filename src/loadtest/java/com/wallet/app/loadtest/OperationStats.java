@@ -0,0 +1,88 @@
+package com.wallet.app.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies of one operation in microseconds, twice: from when the request was due to be sent
+ * (what a user waiting on a fixed schedule sees, free of coordinated omission) and from when it
+ * was actually sent (service time only, what a closed-loop tool like ab reports).
+ */
+final class OperationStats {
+
+    final Operation operation;
+    private final Histogram corrected = new ConcurrentHistogram(3);
+    private final Histogram service = new ConcurrentHistogram(3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    OperationStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    void record(long dueNanos, long sentNanos, long doneNanos, Outcome outcome) {
+        corrected.recordValue(Math.max(0, (doneNanos - dueNanos) / 1000));
+        service.recordValue(Math.max(0, (doneNanos - sentNanos) / 1000));
+        switch (outcome) {
+            case OK -> ok.increment();
+            case REJECTED -> rejected.increment();
+            case SHED -> shed.increment();
+            case ERROR -> errors.increment();
+        }
+    }
+
+    long errorCount() {
+        return errors.sum();
+    }
+
+    void printSummary(PrintStream out) {
+        out.printf("%-9s %8d ok %7d 4xx %7d shed %6d err | due: %s | sent: %s%n", operation, ok.sum(), rejected.sum(),
+                shed.sum(), errors.sum(), percentiles(corrected), percentiles(service));
+    }
+
+    //.hgrm files, plot them at hdrhistogram.github.io/HdrHistogram/plotFiles.html
+    void writeHistograms(Path dir) throws IOException {
+        write(dir.resolve(operation.name().toLowerCase() + "-due.hgrm"), corrected);
+        write(dir.resolve(operation.name().toLowerCase() + "-sent.hgrm"), service);
+    }
+
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static String percentiles(Histogram histogram) {
+        return String.format("p50 %7.2f p99 %8.2f p99.9 %8.2f max %8.2f ms",
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+
+    enum Outcome {
+        OK,
+        //the server answered and did nothing, e.g. insufficient balance
+        REJECTED,
+        //429 or 503 from admission control
+        SHED,
+        //5xx, timeout or connection failure; the write may or may not have happened
+        ERROR;
+
+        static Outcome of(int status) {
+            if (status >= 200 && status < 300) {
+                return OK;
+            }
+            if (status == 429 || status == 503) {
+                return SHED;
+            }
+            return status < 500 ? REJECTED : ERROR;
+        }
+    }
+}
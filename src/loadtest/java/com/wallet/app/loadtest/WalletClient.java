@@ -0,0 +1,57 @@
+package com.wallet.app.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+//the public wallet api over http; bodies are small enough to build by hand
+final class WalletClient {
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    WalletClient(String baseUrl, Duration timeout) {
+        this.http = HttpClient.newBuilder()
+                              .version(HttpClient.Version.HTTP_1_1)
+                              .connectTimeout(timeout)
+                              .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+    }
+
+    int create(String walletId, int balance) throws IOException, InterruptedException {
+        return post("/api/v1/wallets",
+                "{\"walletId\":\"" + walletId + "\",\"ownerName\":\"load test\",\"balance\":" + balance + "}").statusCode();
+    }
+
+    int deposit(String walletId, int amount) throws IOException, InterruptedException {
+        return post("/api/v1/wallets/" + walletId + "/deposit", "{\"type\":\"DEPOSIT\",\"amount\":" + amount + "}").statusCode();
+    }
+
+    int withdraw(String walletId, int amount) throws IOException, InterruptedException {
+        return post("/api/v1/wallets/" + walletId + "/withdraw", "{\"type\":\"WITHDRAW\",\"amount\":" + amount + "}").statusCode();
+    }
+
+    //balance, or null when the wallet could not be read
+    Long balance(String walletId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/wallets/" + walletId + "/balance"))
+                                         .timeout(timeout)
+                                         .GET()
+                                         .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() == 200 ? Long.valueOf(response.body().trim()) : null;
+    }
+
+    private HttpResponse<String> post(String path, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                         .timeout(timeout)
+                                         .header("Content-Type", "application/json")
+                                         .POST(HttpRequest.BodyPublishers.ofString(json))
+                                         .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,104 @@
+package com.wallet.app.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.wallet.app.event.BalanceChangedEvent;
+
+/**
+ * Bounded in-process cache of wallet balances for GET /balance.
+ *
+ * A miss puts a pending future into the cache and loads on the caller's thread, outside any
+ * lock of the cache, so a virtual thread parks on the query instead of pinning its carrier inside
+ * a map compute. Concurrent misses for the same wallet wait for that future. A write evicts its
+ * wallet after commit, which also drops a pending load, so a balance read before a commit can
+ * never outlive that commit's eviction.
+ */
+@Component
+public class BalanceCache
+{
+    private final boolean enabled;
+    private final AsyncCache<String, Integer> cache;
+    private final BalanceInvalidationBroadcaster broadcaster;
+
+    public BalanceCache(@Value("${wallet.cache.balance.enabled:true}") boolean enabled,
+                        @Value("${wallet.cache.balance.max-size:100000}") long maxSize,
+                        @Value("${wallet.cache.balance.ttl:30s}") Duration ttl,
+                        ObjectProvider<BalanceInvalidationBroadcaster> broadcaster) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maxSize)
+                             .expireAfterWrite(ttl)
+                             .recordStats()
+                             .buildAsync();
+        this.broadcaster = broadcaster.getIfAvailable();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int get(String walletId, Function<String, Integer> loader) {
+        if (!enabled) {
+            return loader.apply(walletId);
+        }
+        CompletableFuture<Integer> cached = cache.getIfPresent(walletId);
+        if (cached == null) {
+            CompletableFuture<Integer> loading = new CompletableFuture<>();
+            cached = cache.asMap().putIfAbsent(walletId, loading);
+            if (cached == null) {
+                try {
+                    Integer balance = loader.apply(walletId);
+                    loading.complete(balance);
+                    return balance;
+                } catch (RuntimeException | Error ex) {
+                    //a failed future is dropped by the cache, waiters get the same exception
+                    loading.completeExceptionally(ex);
+                    throw ex;
+                }
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        cache.synchronous().invalidate(event.getWalletId());
+        if (broadcaster != null) {
+            broadcaster.broadcast(event.getWalletId());
+        }
+    }
+
+    //entry point for invalidations received from other nodes
+    public void evict(String walletId) {
+        cache.synchronous().invalidate(walletId);
+    }
+
+    //hit, miss and eviction counters
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public Cache<String, Integer> nativeCache() {
+        return cache.synchronous();
+    }
+}
@@ -0,0 +1,11 @@
+package com.wallet.app.cache;
+
+/**
+ * Hook for running several instances: when a bean of this type exists, every local balance
+ * change is handed to it after commit so it can tell the other nodes to call
+ * {@link BalanceCache#evict(String)}.
+ */
+public interface BalanceInvalidationBroadcaster {
+
+    void broadcast(String walletId);
+}
@@ -0,0 +1,121 @@
+package com.wallet.app.config;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows observed latency (AIMD): a request that took longer than the
+ * target cuts the limit by 10%, a fast one while the limiter is saturated grows it by 1/limit,
+ * so about one per round of requests. Requests over the limit wait in a bounded queue.
+ *
+ * One overload makes every request in flight slow at once, so only a slow request admitted
+ * after the last cut may cut again: the limit drops at most once per round trip instead of once
+ * per completion.
+ */
+final class AdaptiveConcurrencyLimiter
+{
+    enum Admission { ADMITTED, QUEUE_FULL, TIMED_OUT }
+
+    private static final double BACKOFF = 0.9;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final int maxQueue;
+    private double limit;
+    private int inFlight;
+    private int queued;
+    //System.nanoTime() of the last cut, only meaningful once backedOff is set
+    private long backedOffAt;
+    private boolean backedOff;
+    //smoothed service time, what a queued request should expect once admitted
+    private volatile double latencyNanos;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration targetLatency, int maxQueue) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("admission limits need 1 <= min-limit <= max-limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.maxQueue = maxQueue;
+    }
+
+    Admission acquire(long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return Admission.ADMITTED;
+            }
+            if (queued >= maxQueue || maxWaitNanos <= 0) {
+                return Admission.QUEUE_FULL;
+            }
+            queued++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return Admission.TIMED_OUT;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return Admission.ADMITTED;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //admittedAt and now are System.nanoTime() values
+    void release(long admittedAt, long now) {
+        long latency = now - admittedAt;
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit;
+            inFlight--;
+            if (latency > targetLatencyNanos) {
+                if (!backedOff || admittedAt - backedOffAt >= 0) {
+                    limit = Math.max(minLimit, limit * BACKOFF);
+                    backedOff = true;
+                    backedOffAt = now;
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            latencyNanos = latencyNanos == 0 ? latency : latencyNanos * 0.9 + latency * 0.1;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long expectedLatencyNanos() {
+        return (long) latencyNanos;
+    }
+
+    int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.wallet.app.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+//rate limits and an adaptive concurrency limit on the wallet write endpoints, see AdmissionControlInterceptor
+@Configuration
+@ConditionalOnProperty(name = "wallet.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig implements WebMvcConfigurer
+{
+    private final AdmissionControlInterceptor interceptor;
+
+    public AdmissionControlConfig(MeterRegistry meterRegistry,
+                                  @Value("${wallet.admission.wallet-rate:50}") double walletRate,
+                                  @Value("${wallet.admission.wallet-burst:100}") int walletBurst,
+                                  @Value("${wallet.admission.global-rate:5000}") double globalRate,
+                                  @Value("${wallet.admission.global-burst:10000}") int globalBurst,
+                                  @Value("${wallet.admission.initial-limit:20}") int initialLimit,
+                                  @Value("${wallet.admission.min-limit:4}") int minLimit,
+                                  @Value("${wallet.admission.max-limit:200}") int maxLimit,
+                                  @Value("${wallet.admission.target-latency:50ms}") Duration targetLatency,
+                                  @Value("${wallet.admission.max-queue:100}") int maxQueue,
+                                  @Value("${wallet.admission.queue-timeout:200ms}") Duration queueTimeout) {
+        if (walletRate <= 0 || globalRate <= 0) {
+            throw new IllegalStateException("wallet.admission rates must be positive");
+        }
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, targetLatency, maxQueue);
+        this.interceptor = new AdmissionControlInterceptor(walletRate, walletBurst, globalRate, globalBurst, limiter,
+                queueTimeout, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor)
+                .addPathPatterns("/api/v1/wallets", "/api/v1/wallets/*/deposit", "/api/v1/wallets/*/withdraw",
+                                 "/api/v1/wallets/*/transfer", "/api/v1/wallets/transactions:batch");
+    }
+}
@@ -0,0 +1,158 @@
+package com.wallet.app.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.app.config.AdaptiveConcurrencyLimiter.Admission;
+import com.wallet.app.exception.AdmissionRejectedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sheds write requests before they reach the database, cheapest check first: a token bucket per
+ * wallet so one hot wallet cannot starve the rest, a global token bucket, then an adaptive
+ * concurrency limit with a short bounded queue. A client that sends X-Request-Timeout-Ms is
+ * turned away at once when the expected service time no longer fits its deadline, and never
+ * waits in the queue past it. Rejections are 429 with a Retry-After. A request the concurrency
+ * limit turns away gets its tokens back, so a full queue does not also drain the rate limits.
+ */
+public class AdmissionControlInterceptor implements HandlerInterceptor
+{
+    static final String DEADLINE_HEADER = "X-Request-Timeout-Ms";
+    private static final String ADMITTED_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".admittedAt";
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double walletRate;
+    private final int walletBurst;
+    private final Cache<String, TokenBucket> walletBuckets;
+    private final TokenBucket globalBucket;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long queueTimeoutNanos;
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionControlInterceptor(double walletRate, int walletBurst, double globalRate, int globalBurst,
+                                       AdaptiveConcurrencyLimiter limiter, Duration queueTimeout, MeterRegistry meterRegistry) {
+        this.walletRate = walletRate;
+        this.walletBurst = walletBurst;
+        //an idle wallet's bucket is full again after burst / rate seconds, so it can be forgotten
+        this.walletBuckets = Caffeine.newBuilder()
+                                     .expireAfterAccess(Duration.ofSeconds((long) Math.ceil(walletBurst / walletRate) + 1))
+                                     .build();
+        this.globalBucket = new TokenBucket(globalRate, globalBurst, System.nanoTime());
+        this.limiter = limiter;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("wallet.admission.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+             .description("current adaptive concurrency limit for wallet writes")
+             .register(meterRegistry);
+        Gauge.builder("wallet.admission.queued", limiter, AdaptiveConcurrencyLimiter::queued)
+             .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        //the slot of an async request was already given back when its handler returned
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        long now = System.nanoTime();
+        String walletId = walletIdOf(request);
+        TokenBucket walletBucket = null;
+        if (walletId != null) {
+            walletBucket = walletBuckets.get(walletId, id -> new TokenBucket(walletRate, walletBurst, now));
+            long wait = walletBucket.tryTake(now);
+            if (wait > 0) {
+                throw reject("wallet_rate", "Too many requests for wallet " + walletId + ", try again later", wait);
+            }
+        }
+        long wait = globalBucket.tryTake(now);
+        if (wait > 0) {
+            refund(walletBucket);
+            throw reject("global_rate", "Too many requests, try again later", wait);
+        }
+
+        long maxWait = queueTimeoutNanos;
+        Long budget = deadlineNanos(request);
+        if (budget != null) {
+            long spare = budget - limiter.expectedLatencyNanos();
+            if (spare <= 0) {
+                refund(walletBucket, globalBucket);
+                throw reject("deadline", "Request cannot complete within its " + DEADLINE_HEADER + " deadline", ONE_SECOND);
+            }
+            maxWait = Math.min(maxWait, spare);
+        }
+        Admission admission = limiter.acquire(maxWait);
+        if (admission != Admission.ADMITTED) {
+            refund(walletBucket, globalBucket);
+            throw reject(admission == Admission.QUEUE_FULL ? "queue_full" : "queue_timeout",
+                    "Too many concurrent requests, try again later", ONE_SECOND);
+        }
+        //latency is measured from admission, queueing is not service time
+        request.setAttribute(ADMITTED_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        Object admittedAt = request.getAttribute(ADMITTED_ATTRIBUTE);
+        if (admittedAt != null) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            limiter.release((Long) admittedAt, System.nanoTime());
+        }
+    }
+
+    private static void refund(TokenBucket... buckets) {
+        for (TokenBucket bucket : buckets) {
+            if (bucket != null) {
+                bucket.refund();
+            }
+        }
+    }
+
+    private AdmissionRejectedException reject(String reason, String message, long retryAfterNanos) {
+        Counter.builder("wallet.admission.rejected").tag("reason", reason).register(meterRegistry).increment();
+        long retryAfterSeconds = Math.max(1, (retryAfterNanos + ONE_SECOND - 1) / ONE_SECOND);
+        return new AdmissionRejectedException(message, retryAfterSeconds);
+    }
+
+    //path variables are resolved by the handler mapping before interceptors run; null on create and batch
+    @SuppressWarnings("unchecked")
+    private static String walletIdOf(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables instanceof Map<?, ?> map ? ((Map<String, String>) map).get("walletId") : null;
+    }
+
+    private static Long deadlineNanos(HttpServletRequest request) {
+        String header = request.getHeader(DEADLINE_HEADER);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(header.trim()));
+        } catch (NumberFormatException ex) {
+            //a malformed deadline is treated as no deadline
+            return null;
+        }
+    }
+}
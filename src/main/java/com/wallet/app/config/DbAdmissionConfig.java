@@ -0,0 +1,49 @@
+package com.wallet.app.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+//bounds in-flight wallet requests to the connection pool size, see DbAdmissionInterceptor
+@Configuration
+@ConditionalOnProperty(name = "wallet.db-admission.enabled", havingValue = "true")
+public class DbAdmissionConfig implements WebMvcConfigurer
+{
+    private final DbAdmissionInterceptor interceptor;
+
+    public DbAdmissionConfig(DataSource dataSource,
+                             @Value("${wallet.db-admission.permits:0}") int permits,
+                             @Value("${wallet.db-admission.timeout:5s}") Duration timeout) {
+        //0 means one permit per pooled connection
+        if (permits <= 0) {
+            permits = primaryPoolSize(dataSource);
+        }
+        this.interceptor = new DbAdmissionInterceptor(permits, timeout);
+    }
+
+    //the data source may be the replica routing proxy, writes always use its primary pool
+    private static int primaryPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException ex) {
+            //not a hikari pool
+        }
+        return 10;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor).addPathPatterns("/api/v1/wallets/**", "/api/v1/wallets");
+    }
+}
@@ -0,0 +1,67 @@
+package com.wallet.app.config;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.wallet.app.exception.DbAdmissionTimeoutException;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Lets at most as many requests into the wallet endpoints as there are database connections.
+ *
+ * With virtual threads there is no request thread pool left to bound concurrency, so without
+ * this every request would queue inside Hikari and time out there. Waiting on a semaphore parks
+ * the virtual thread and frees its carrier.
+ */
+public class DbAdmissionInterceptor implements HandlerInterceptor
+{
+    private static final String PERMIT_ATTRIBUTE = DbAdmissionInterceptor.class.getName() + ".permit";
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    public DbAdmissionInterceptor(int permits, Duration timeout) {
+        this.permits = new Semaphore(permits, true);
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        //the permit of an async request was already given back when its handler returned
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+            throw new DbAdmissionTimeoutException("Too many concurrent requests, try again later");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.wallet.app.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import com.wallet.app.controller.AdminController;
+import com.wallet.app.service.ReconciliationService;
+
+/**
+ * Lazy initialization for the fast-startup profile, limited to beans off the request path.
+ *
+ * Everything of this application stays eager, and with it what the wallet api depends on
+ * (repositories, the entity manager factory, the data source, the object mapper), so the first
+ * request is not the one paying for Hibernate's bootstrap. Scheduled beans have to stay eager as
+ * well, a lazy bean's @Scheduled methods are only registered once something asks for it.
+ * What is left lazy is framework infrastructure nobody calls during a wallet request (actuator
+ * endpoints, admin tooling) plus the admin controller and the reconciliation behind it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+public class FastStartupConfig
+{
+    private static final Logger log = LoggerFactory.getLogger(FastStartupConfig.class);
+
+    private static final Set<Class<?>> OFF_REQUEST_PATH = Set.of(AdminController.class, ReconciliationService.class);
+
+    private final DataSource dataSource;
+
+    public FastStartupConfig(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Bean
+    static LazyInitializationExcludeFilter walletRequestPath() {
+        return (beanName, definition, beanType) -> beanType.getName().startsWith("com.wallet.app.")
+                && !OFF_REQUEST_PATH.contains(beanType);
+    }
+
+    //nothing touches the database while booting (no ddl, no jdbc metadata), so the pool would
+    //otherwise be started by the first request; borrowing one connection before the app reports
+    //ready moves that here and lets hikari fill up to minimum-idle in the background
+    @EventListener(ApplicationReadyEvent.class)
+    public void openPool() {
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            log.info("Connection pool started in {} ms", (System.nanoTime() - started) / 1_000_000);
+        } catch (SQLException ex) {
+            //the database may come up after the app, requests will retry through the pool
+            log.warn("Could not open a database connection at startup: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.wallet.app.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//the migrate profile: flyway has applied db/migration/postgresql while the context started, report and exit
+@Configuration
+@ConditionalOnProperty(name = "wallet.schema.migrate-and-exit", havingValue = "true")
+public class SchemaMigrationConfig
+{
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrationConfig.class);
+
+    @Bean
+    ApplicationRunner exitAfterMigration(Flyway flyway, ConfigurableApplicationContext context) {
+        return args -> {
+            MigrationInfo current = flyway.info().current();
+            log.info("Schema is at version {}", current == null ? "<empty>" : current.getVersion());
+            //scheduled tasks and pools would otherwise keep the jvm running
+            System.exit(SpringApplication.exit(context));
+        };
+    }
+}
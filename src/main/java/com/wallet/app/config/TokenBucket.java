@@ -0,0 +1,51 @@
+package com.wallet.app.config;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+//rate limit of ratePerSecond with bursts up to burst requests; times are System.nanoTime() values
+final class TokenBucket
+{
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    //taken on every request, a contended monitor would pin the carrier of a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final double burst;
+    private final double ratePerSecond;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, double burst, long now) {
+        this.burst = burst;
+        this.ratePerSecond = ratePerSecond;
+        this.tokens = burst;
+        this.refilledAt = now;
+    }
+
+    //0 when a token was taken, otherwise how many nanos until the next one
+    long tryTake(long now) {
+        lock.lock();
+        try {
+            if (now > refilledAt) {
+                tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerSecond / NANOS_PER_SECOND);
+                refilledAt = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) * NANOS_PER_SECOND / ratePerSecond);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //gives back a token taken by a request that was turned away later
+    void refund() {
+        lock.lock();
+        try {
+            tokens = Math.min(burst, tokens + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
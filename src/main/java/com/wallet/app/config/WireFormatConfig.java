@@ -0,0 +1,19 @@
+package com.wallet.app.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.wallet.app.wire.WalletBinaryHttpMessageConverter;
+
+//binary bodies next to json; appended after the json converter so json stays the default for Accept: */*
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer
+{
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new WalletBinaryHttpMessageConverter());
+    }
+}
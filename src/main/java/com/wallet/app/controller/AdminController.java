@@ -0,0 +1,71 @@
+package com.wallet.app.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.wallet.app.dto.HotWalletResponse;
+import com.wallet.app.dto.PartitionMaintenanceReport;
+import com.wallet.app.dto.ReconciliationReport;
+import com.wallet.app.metrics.WalletMetrics;
+import com.wallet.app.service.HotWalletService;
+import com.wallet.app.service.ReconciliationService;
+import com.wallet.app.service.TransactionPartitionService;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+public class AdminController 
+{
+    private final ReconciliationService reconciliationService;
+    private final WalletMetrics walletMetrics;
+    private final HotWalletService hotWalletService;
+    private final ObjectProvider<TransactionPartitionService> partitionService;
+
+    public AdminController(ReconciliationService reconciliationService, WalletMetrics walletMetrics, HotWalletService hotWalletService,
+                           ObjectProvider<TransactionPartitionService> partitionService){
+        this.reconciliationService=reconciliationService;
+        this.walletMetrics=walletMetrics;
+        this.hotWalletService=hotWalletService;
+        this.partitionService=partitionService;
+    }
+
+    //replays every wallet's ledger and reports balances that do not add up
+    @PostMapping("/reconciliation")
+    public ResponseEntity<ReconciliationReport> Reconcile(){
+
+      ReconciliationReport report=reconciliationService.run();
+      return ResponseEntity.ok(report);
+    }
+
+    //wallets with the most writes running right now
+    @GetMapping("/hot-wallets")
+    public ResponseEntity<Map<String, Integer>> HotWallets(@RequestParam(defaultValue = "10") int limit){
+
+      return ResponseEntity.ok(walletMetrics.hotWallets(limit));
+    }
+
+    //creates upcoming transaction partitions, rolls up and detaches old ones now instead of at the nightly run
+    @PostMapping("/partitions/maintenance")
+    public ResponseEntity<PartitionMaintenanceReport> MaintainPartitions(){
+
+      TransactionPartitionService service=partitionService.getIfAvailable();
+      if (service == null) {
+          throw new IllegalArgumentException("Transaction partitioning is not enabled (wallet.partitioning.enabled)");
+      }
+      return ResponseEntity.ok(service.maintain());
+    }
+
+    //spreads a wallet's writes over slots sub-balances, slots=0 merges them back
+    @PostMapping("/wallets/{walletId}/hot")
+    public ResponseEntity<HotWalletResponse> MarkHot(@PathVariable String walletId, @RequestParam int slots){
+
+      return ResponseEntity.ok(hotWalletService.configure(walletId, slots));
+    }
+}
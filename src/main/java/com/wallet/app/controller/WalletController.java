@@ -1,56 +1,191 @@
 package com.wallet.app.controller;
 
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.wallet.app.dto.BalanceResponse;
+import com.wallet.app.dto.BatchTransactionRequest;
+import com.wallet.app.dto.BatchTransactionResponse;
+import com.wallet.app.dto.ExportFormat;
+import com.wallet.app.dto.TransactionPageResponse;
 import com.wallet.app.dto.TransactionRequest;
 import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.TransferRequest;
+import com.wallet.app.dto.TransferResponse;
 import com.wallet.app.dto.WalletRequest;
 import com.wallet.app.dto.WalletResponse;
+import com.wallet.app.metrics.WalletMetrics;
+import com.wallet.app.metrics.WalletMetrics.Operation;
 import com.wallet.app.model.Transaction;
+import com.wallet.app.service.IdempotencyService;
+import com.wallet.app.service.TransactionExport;
+import com.wallet.app.service.TransactionHistoryService;
 import com.wallet.app.service.UserService;
+import com.wallet.app.service.WalletImportService;
+import com.wallet.app.stream.TransactionStreamHub;
+import com.wallet.app.wire.WalletBinaryHttpMessageConverter;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/v1/wallets")
 public class WalletController 
 {
     private final  UserService  userService;
+    private final TransactionHistoryService historyService;
+    private final IdempotencyService idempotencyService;
+    private final WalletMetrics walletMetrics;
+    private final WalletImportService importService;
+    private final TransactionStreamHub streamHub;
 
-    public WalletController(UserService userService){
+    public WalletController(UserService userService, TransactionHistoryService historyService, IdempotencyService idempotencyService,
+                            WalletMetrics walletMetrics, WalletImportService importService, TransactionStreamHub streamHub){
         this.userService=userService;
+        this.historyService=historyService;
+        this.idempotencyService=idempotencyService;
+        this.walletMetrics=walletMetrics;
+        this.importService=importService;
+        this.streamHub=streamHub;
     }
     //create a wallet
     @PostMapping
     public ResponseEntity<WalletResponse> CreateWallet( @RequestBody WalletRequest request)
     {
-        WalletResponse response=userService.create(request);
+        WalletResponse response=timed(Operation.CREATE, null, () -> userService.create(request));
         return  ResponseEntity.ok(response);
     }
-    //get balance
+    //bulk create from an ndjson or csv body, read as it arrives; rejected rows and a summary are streamed back as ndjson
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<StreamingResponseBody> ImportWallets(HttpServletRequest request)
+    {
+        ExportFormat format=ExportFormat.fromContentType(request.getContentType());
+        return ResponseEntity.ok().contentType(ExportFormat.NDJSON.getMediaType())
+                             .body(out -> importService.importWallets(request.getInputStream(), format, out));
+    }
+    //get balance; a bare number has no protobuf encoding, clients that accept
+    //application/x-protobuf and not json get it in a BalanceResponse
     @GetMapping("/{walletId}/balance")
-    public ResponseEntity<Integer> GetBalance(@PathVariable String walletId)
+    public ResponseEntity<?> GetBalance(@PathVariable String walletId,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
     {
-        int balance=userService.getBalance(walletId);
+        int balance=timed(Operation.GET_BALANCE, walletId, () -> userService.getBalance(walletId));
+        if (acceptsBinaryOnly(accept)) {
+            return ResponseEntity.ok(new BalanceResponse(walletId, balance));
+        }
         return ResponseEntity.ok(balance);
     }
+    //a retry with the same Idempotency-Key gets the first response back instead of moving money again
     @PostMapping("/{walletId}/deposit")
-    public ResponseEntity<TransactionResponse> Deposit(@PathVariable String walletId,@RequestBody TransactionRequest request){
+    public ResponseEntity<TransactionResponse> Deposit(@PathVariable String walletId,@RequestBody TransactionRequest request,
+                                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
 
-         TransactionResponse transaction=userService.deposit(walletId, request.getAmount());
+         TransactionResponse transaction=timed(Operation.DEPOSIT, walletId, () -> idempotencyKey==null
+                 ? userService.deposit(walletId, request.getAmount())
+                 : idempotencyService.execute(idempotencyKey, "deposit:" + walletId + ":" + request.getAmount(), TransactionResponse.class,
+                         () -> userService.deposit(walletId, request.getAmount())));
          return ResponseEntity.ok(transaction);
     }
 
     @PostMapping("/{walletId}/withdraw")
-    public ResponseEntity<TransactionResponse> Withdraw(@PathVariable String walletId,@RequestBody TransactionRequest request){
+    public ResponseEntity<TransactionResponse> Withdraw(@PathVariable String walletId,@RequestBody TransactionRequest request,
+                                                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
 
-      TransactionResponse transaction=userService.withdraw(walletId, request.getAmount());
+      TransactionResponse transaction=timed(Operation.WITHDRAW, walletId, () -> idempotencyKey==null
+              ? userService.withdraw(walletId, request.getAmount())
+              : idempotencyService.execute(idempotencyKey, "withdraw:" + walletId + ":" + request.getAmount(), TransactionResponse.class,
+                      () -> userService.withdraw(walletId, request.getAmount())));
       return ResponseEntity.ok(transaction);
     }
+
+    //moves money between two wallets, both legs commit or neither does
+    @PostMapping("/{walletId}/transfer")
+    public ResponseEntity<TransferResponse> Transfer(@PathVariable String walletId,@RequestBody TransferRequest request,
+                                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+
+      TransferResponse transfer=timed(Operation.TRANSFER, walletId, () -> idempotencyKey==null
+              ? userService.transfer(walletId, request.getToWalletId(), request.getAmount())
+              : idempotencyService.execute(idempotencyKey,
+                      "transfer:" + walletId + ":" + request.getToWalletId() + ":" + request.getAmount(), TransferResponse.class,
+                      () -> userService.transfer(walletId, request.getToWalletId(), request.getAmount())));
+      return ResponseEntity.ok(transfer);
+    }
+
+    //transaction history, keyset paginated: pass nextCursor back as ?after=
+    //(a row committing while the client pages can land behind the cursor, see TransactionHistoryService)
+    @GetMapping("/{walletId}/transactions")
+    public ResponseEntity<TransactionPageResponse> GetTransactions(@PathVariable String walletId,
+                                                                   @RequestParam(defaultValue = "0") long after,
+                                                                   @RequestParam(defaultValue = "50") int limit){
+
+      TransactionPageResponse page=timed(Operation.HISTORY, walletId, () -> historyService.getTransactions(walletId, after, limit));
+      return ResponseEntity.ok(page);
+    }
+
+    //full statement streamed as ndjson or csv while it is read from the db
+    @GetMapping("/{walletId}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> ExportTransactions(@PathVariable String walletId,
+                                                                    @RequestParam(defaultValue = "ndjson") String format,
+                                                                    @RequestParam(defaultValue = "0") long after){
+
+      ExportFormat exportFormat=ExportFormat.from(format);
+      TransactionExport export=historyService.openExport(walletId, after, exportFormat);
+      return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(export::writeTo);
+    }
+
+    //server-sent events with every committed transaction of the given wallets; an event id is the walletSeq reached in each
+    //wallet, comma separated in walletIds order. A reconnect with Last-Event-ID (or ?after=) first replays what was missed
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter StreamTransactions(@RequestParam List<String> walletIds,
+                                         @RequestParam(required = false) String after,
+                                         @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+
+      return streamHub.subscribe(walletIds, after != null ? after : lastEventId);
+    }
+
+    //many deposits/withdrawals across wallets in one call, results are reported per item
+    @PostMapping("/transactions:batch")
+    public ResponseEntity<BatchTransactionResponse> BatchTransactions(@RequestBody BatchTransactionRequest request){
+
+      BatchTransactionResponse response=timed(Operation.BATCH, null, () -> userService.applyBatch(request));
+      return ResponseEntity.ok(response);
+    }
+
+    private static boolean acceptsBinaryOnly(String accept){
+      if (accept == null) {
+          return false;
+      }
+      List<MediaType> accepted=MediaType.parseMediaTypes(accept);
+      return accepted.stream().anyMatch(WalletBinaryHttpMessageConverter.MEDIA_TYPE::equalsTypeAndSubtype)
+          && accepted.stream().noneMatch(MediaType.APPLICATION_JSON::equalsTypeAndSubtype);
+    }
+
+    //service time by operation and outcome; json and the servlet stack show up in http.server.requests
+    private <T> T timed(Operation operation, String walletId, Supplier<T> call){
+      WalletMetrics.Call started=walletMetrics.start(operation, walletId);
+      Throwable failure=null;
+      try {
+          return call.get();
+      } catch (RuntimeException ex) {
+          failure=ex;
+          throw ex;
+      } finally {
+          walletMetrics.stop(started, failure);
+      }
+    }
     
 }
@@ -0,0 +1,94 @@
+package com.wallet.app.datasource;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.wallet.app.event.BalanceChangedEvent;
+
+/**
+ * Decides which reads may be served by a read replica.
+ *
+ * Only queries run through {@link #read} or {@link #readStatement} are candidates, everything else stays on the primary.
+ * A wallet written on this node within the read-your-writes window is read from the primary,
+ * so a client never sees its own deposit disappear because a replica is behind. Cached balances
+ * are always loaded from the primary, see UserServiceImpl#getBalance.
+ */
+@Component
+public class ReadRouting
+{
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final TransactionTemplate readOnlyTransaction;
+    //walletIds committed within the window
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadRouting(PlatformTransactionManager transactionManager,
+                       @Value("${wallet.replicas.enabled:false}") boolean enabled,
+                       @Value("${wallet.replicas.read-your-writes-window:2s}") Duration readYourWritesWindow,
+                       ObjectProvider<Ticker> ticker) {
+        this.enabled = enabled;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.recentWrites = Caffeine.newBuilder()
+                                    .maximumSize(1_000_000)
+                                    .expireAfterWrite(readYourWritesWindow)
+                                    //the system clock unless a Ticker bean is defined, which tests do
+                                    .ticker(ticker.getIfAvailable(Ticker::systemTicker))
+                                    .build();
+    }
+
+    //runs the query in a read-only transaction, on a replica unless the wallet was just written
+    public <T> T read(String walletId, Supplier<T> query) {
+        if (!enabled || (walletId != null && recentWrites.getIfPresent(walletId) != null)) {
+            return readOnlyTransaction.execute(status -> query.get());
+        }
+        REPLICA_ALLOWED.set(Boolean.TRUE);
+        try {
+            return readOnlyTransaction.execute(status -> query.get());
+        } finally {
+            REPLICA_ALLOWED.remove();
+        }
+    }
+
+    /**
+     * Like {@link #read} for a query that is a single statement: it runs in auto-commit without
+     * a transaction, so no EntityManager is opened and there is no begin/commit round trip.
+     */
+    public <T> T readStatement(String walletId, Supplier<T> statement) {
+        if (!enabled || (walletId != null && recentWrites.getIfPresent(walletId) != null)) {
+            return statement.get();
+        }
+        REPLICA_ALLOWED.set(Boolean.TRUE);
+        try {
+            return statement.get();
+        } finally {
+            REPLICA_ALLOWED.remove();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        if (enabled) {
+            recentWrites.put(event.getWalletId(), Boolean.TRUE);
+        }
+    }
+
+    //true inside read(...) or readStatement(...) for a wallet without recent writes, unless a read-write transaction is open
+    static boolean replicaAllowed() {
+        return REPLICA_ALLOWED.get() != null
+                && (!TransactionSynchronizationManager.isActualTransactionActive() || TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+}
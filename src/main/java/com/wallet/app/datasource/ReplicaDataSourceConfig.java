@@ -0,0 +1,76 @@
+package com.wallet.app.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Primary pool from spring.datasource.*, one read-only pool per wallet.replicas.urls entry and
+ * the routing data source in front of them that JPA and every other component get injected.
+ */
+@Configuration
+@ConditionalOnProperty(name = "wallet.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig
+{
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties properties,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${wallet.replicas.urls}") List<String> urls,
+                                               @Value("${wallet.replicas.username:}") String username,
+                                               @Value("${wallet.replicas.password:}") String password,
+                                               @Value("${wallet.replicas.pool-size:20}") int poolSize,
+                                               @Value("${wallet.replicas.max-lag:1s}") Duration maxLag,
+                                               @Value("${wallet.replicas.read-your-writes-window:2s}") Duration readYourWritesWindow,
+                                               @Value("${wallet.replicas.lag-query}") String lagQuery) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("wallet.replicas.urls needs at least one replica");
+        }
+        //a wallet's own writes must be visible on any replica that is allowed to serve it
+        if (readYourWritesWindow.compareTo(maxLag) < 0) {
+            throw new IllegalArgumentException("wallet.replicas.read-your-writes-window must not be shorter than wallet.replicas.max-lag");
+        }
+        List<String> names = new ArrayList<>();
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + i);
+            pool.setJdbcUrl(urls.get(i).trim());
+            pool.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            pool.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            pool.setDriverClassName(properties.determineDriverClassName());
+            pool.setMaximumPoolSize(poolSize);
+            pool.setReadOnly(true);
+            names.add(pool.getPoolName());
+            pools.add(pool);
+        }
+        return new ReplicaLagMonitor(names, pools, lagQuery, maxLag, meterRegistry);
+    }
+
+    //connections are fetched at the first statement, when the transaction's read-only flag is known
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaLagMonitor));
+    }
+}
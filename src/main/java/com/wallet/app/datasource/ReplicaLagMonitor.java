@@ -0,0 +1,99 @@
+package com.wallet.app.datasource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Owns the replica pools and polls how far each replica is behind. A replica whose lag is
+ * over max-lag, whose lag query fails or returns null, gets no reads until it catches up again.
+ */
+public class ReplicaLagMonitor
+{
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    private static final long UNKNOWN = Long.MAX_VALUE;
+
+    private final List<String> names;
+    private final List<HikariDataSource> pools;
+    private final List<JdbcTemplate> lagQueries;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final AtomicLongArray lagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaLagMonitor(List<String> names, List<HikariDataSource> pools, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+        this.names = List.copyOf(names);
+        this.pools = List.copyOf(pools);
+        this.lagQueries = pools.stream().map(JdbcTemplate::new).toList();
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagMillis = new AtomicLongArray(pools.size());
+        for (int i = 0; i < pools.size(); i++) {
+            int replica = i;
+            lagMillis.set(i, UNKNOWN);
+            Gauge.builder("wallet.replica.lag", () -> lagMillis.get(replica) == UNKNOWN ? Double.NaN : lagMillis.get(replica))
+                 .tag("replica", names.get(i))
+                 .baseUnit("milliseconds")
+                 .register(meterRegistry);
+        }
+        check();
+    }
+
+    List<String> names() {
+        return names;
+    }
+
+    HikariDataSource dataSource(int index) {
+        return pools.get(index);
+    }
+
+    //round robin over the replicas within max lag, null when there is none
+    String pick() {
+        int count = names.size();
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            int replica = (start + i) % count;
+            if (lagMillis.get(replica) <= maxLagMillis) {
+                return names.get(replica);
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.replicas.lag-check-interval:PT1S}")
+    public void check() {
+        for (int i = 0; i < pools.size(); i++) {
+            try {
+                Double seconds = lagQueries.get(i).queryForObject(lagQuery, Double.class);
+                //null: the query cannot tell, e.g. a replica that has not replayed anything yet
+                record(i, seconds == null ? UNKNOWN : (long) (seconds * 1000));
+            } catch (RuntimeException ex) {
+                if (lagMillis.get(i) != UNKNOWN) {
+                    log.warn("Replica {} stopped answering its lag query, reads go to the primary", names.get(i), ex);
+                }
+                record(i, UNKNOWN);
+            }
+        }
+    }
+
+    void record(int index, long millis) {
+        lagMillis.set(index, millis);
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
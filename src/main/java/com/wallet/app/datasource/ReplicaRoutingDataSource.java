@@ -0,0 +1,45 @@
+package com.wallet.app.datasource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Sends a connection request to a replica when {@link ReadRouting} allows it and the monitor
+ * has a replica within the lag limit, otherwise to the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy so the decision is made at the first statement, after the
+ * transaction's read-only flag has been set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource
+{
+    static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor replicas) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        List<String> names = replicas.names();
+        for (int i = 0; i < names.size(); i++) {
+            targets.put(names.get(i), replicas.dataSource(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!ReadRouting.replicaAllowed()) {
+            return PRIMARY;
+        }
+        String replica = replicas.pick();
+        return replica == null ? PRIMARY : replica;
+    }
+}
@@ -0,0 +1,15 @@
+package com.wallet.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//balance as an application/x-protobuf message, json clients keep getting the bare number
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceResponse {
+
+    private String walletId;
+    private int balance;
+}
@@ -0,0 +1,30 @@
+package com.wallet.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//outcome of one item of a batch, index points back into the request items
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    private int index;
+    private boolean success;
+    private TransactionResponse transaction;
+    private String error;
+
+    public static BatchItemResult ok(int index, TransactionResponse transaction) {
+        return new BatchItemResult(index, true, transaction, null);
+    }
+
+    public static BatchItemResult failed(int index, String error) {
+        return new BatchItemResult(index, false, null, error);
+    }
+}
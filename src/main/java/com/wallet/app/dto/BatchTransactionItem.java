@@ -0,0 +1,17 @@
+package com.wallet.app.dto;
+
+import com.wallet.app.model.TransactionType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionItem {
+
+    private String walletId;
+    private TransactionType type;
+    private int amount;
+}
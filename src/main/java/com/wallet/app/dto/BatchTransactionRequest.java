@@ -0,0 +1,15 @@
+package com.wallet.app.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionRequest {
+
+    private List<BatchTransactionItem> items;
+}
@@ -0,0 +1,29 @@
+package com.wallet.app.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult> results;
+
+    public static BatchTransactionResponse of(List<BatchItemResult> results) {
+        int succeeded = 0;
+        for (BatchItemResult result : results) {
+            if (result.isSuccess()) {
+                succeeded++;
+            }
+        }
+        return new BatchTransactionResponse(succeeded, results.size() - succeeded, results);
+    }
+}
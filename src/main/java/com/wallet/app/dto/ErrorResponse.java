@@ -0,0 +1,34 @@
+package com.wallet.app.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//body of every error response; the time is kept as epoch millis and only turned into a date for json
+@Getter
+@AllArgsConstructor
+public class ErrorResponse {
+
+    @JsonIgnore
+    private final long timestampMillis;
+    private final int status;
+    private final String error;
+    private final String message;
+
+    public static ErrorResponse of(HttpStatus status, String message) {
+        return new ErrorResponse(System.currentTimeMillis(), status.value(), status.getReasonPhrase(), message);
+    }
+
+    @JsonProperty("timestamp")
+    public LocalDateTime getTimestamp() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,41 @@
+package com.wallet.app.dto;
+
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static ExportFormat from(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format '" + value + "', use ndjson or csv");
+    }
+
+    //format of a request body, from its Content-Type header
+    public static ExportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            for (ExportFormat format : values()) {
+                if (format.mediaType.isCompatibleWith(mediaType)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content type '" + contentType + "', use application/x-ndjson or text/csv");
+    }
+}
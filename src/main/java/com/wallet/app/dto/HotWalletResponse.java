@@ -0,0 +1,15 @@
+package com.wallet.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotWalletResponse {
+
+    private String walletId;
+    private int slots;
+    private int balance;
+}
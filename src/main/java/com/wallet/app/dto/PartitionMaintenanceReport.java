@@ -0,0 +1,22 @@
+package com.wallet.app.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//what one run of the transactions partition maintenance did
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionMaintenanceReport {
+
+    private List<String> created;
+    private List<String> rolledUp;
+    private List<String> detached;
+    //rolled up but kept attached, reconciliation has not snapshotted past them yet
+    private List<String> notReconciled;
+}
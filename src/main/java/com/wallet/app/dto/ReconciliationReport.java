@@ -0,0 +1,23 @@
+package com.wallet.app.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+
+    private long walletsChecked;
+    private long transactionsChecked;
+    private long snapshotsWritten;
+    private long mismatchCount;
+    //capped, mismatchCount has the full number
+    private List<WalletMismatch> mismatches;
+    private long durationMillis;
+}
@@ -0,0 +1,25 @@
+package com.wallet.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.wallet.app.model.TransactionType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//read-only projection of a transaction row, walletSeq doubles as the pagination cursor
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryItem {
+
+    private Long id;
+    private Long walletSeq;
+    private String transactionId;
+    private TransactionType type;
+    private Integer amount;
+    private Integer balanceAfter;
+    //the hot wallet slot the row was written to, as on the live stream
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer slot;
+}
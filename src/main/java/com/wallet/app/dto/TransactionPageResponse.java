@@ -0,0 +1,19 @@
+package com.wallet.app.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//nextCursor is null on the last page, otherwise pass it as ?after= to get the next one;
+//it is the walletSeq of the last item, see TransactionHistoryService
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponse {
+
+    private String walletId;
+    private List<TransactionHistoryItem> items;
+    private Long nextCursor;
+}
@@ -1,13 +1,16 @@
 package com.wallet.app.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.wallet.app.model.TransactionType;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
+@NoArgsConstructor
 @AllArgsConstructor
 public class TransactionResponse {
     
@@ -16,5 +19,11 @@ public class TransactionResponse {
  private TransactionType type;
  private int amount;
  private int balanceAfter;
+ //set when a hot wallet slot was written; balanceAfter is still the wallet's total, see HotWalletService
+ @JsonInclude(JsonInclude.Include.NON_NULL)
+ private Integer slot;
 
+ public TransactionResponse(String transactionId, String walletId, TransactionType type, int amount, int balanceAfter) {
+     this(transactionId, walletId, type, amount, balanceAfter, null);
+ }
 }
@@ -0,0 +1,14 @@
+package com.wallet.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferRequest 
+{
+    private String toWalletId;
+    private int amount;
+}
@@ -0,0 +1,20 @@
+package com.wallet.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//both legs of a transfer, committed together
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferResponse {
+
+    private String fromWalletId;
+    private String toWalletId;
+    private int amount;
+    private TransactionResponse debit;
+    private TransactionResponse credit;
+}
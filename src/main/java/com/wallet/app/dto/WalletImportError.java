@@ -0,0 +1,19 @@
+package com.wallet.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//a rejected line of a wallet import, line is 1-based and counts a csv header
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WalletImportError {
+
+    private long line;
+    private String walletId;
+    private String error;
+}
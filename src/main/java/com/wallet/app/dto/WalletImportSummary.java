@@ -0,0 +1,16 @@
+package com.wallet.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//last line of an import response
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletImportSummary {
+
+    private long imported;
+    private long failed;
+    private long durationMillis;
+}
@@ -0,0 +1,21 @@
+package com.wallet.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//transactionId is the row where the chain broke, null when only the final balance is off
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WalletMismatch {
+
+    private String walletId;
+    private Long transactionId;
+    private long expected;
+    private long actual;
+    private String reason;
+}
@@ -0,0 +1,15 @@
+package com.wallet.app.dto;
+
+import lombok.Value;
+
+//what the write path needs to route a wallet: its primary key and how many slots it has
+@Value
+public class WalletSlotInfo {
+
+    Long walletPk;
+    int slotCount;
+
+    public boolean isHot() {
+        return slotCount > 0;
+    }
+}
@@ -0,0 +1,10 @@
+package com.wallet.app.event;
+
+import lombok.Value;
+
+//published inside the writing transaction whenever a wallet's balance may have changed
+@Value
+public class BalanceChangedEvent {
+
+    String walletId;
+}
@@ -0,0 +1,15 @@
+package com.wallet.app.event;
+
+import java.util.List;
+
+import com.wallet.app.model.Transaction;
+
+import lombok.Value;
+
+//published inside the writing transaction with the rows it inserted for one wallet, after they got their ids
+@Value
+public class TransactionCommittedEvent {
+
+    String walletId;
+    List<Transaction> transactions;
+}
@@ -0,0 +1,8 @@
+package com.wallet.app.exception;
+
+public class DbAdmissionTimeoutException extends RuntimeException {
+    
+    public DbAdmissionTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.wallet.app.exception;
+
+public class IdempotencyKeyInUseException extends RuntimeException {
+    
+    public IdempotencyKeyInUseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.wallet.app.exception;
+
+public class ReconciliationInProgressException extends RuntimeException {
+    
+    public ReconciliationInProgressException(String message) {
+        super(message);
+    }
+}
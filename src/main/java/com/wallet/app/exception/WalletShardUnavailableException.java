@@ -0,0 +1,9 @@
+package com.wallet.app.exception;
+
+//the sharded write path is stopping or did not answer in time; the write may still be applied when it timed out
+public class WalletShardUnavailableException extends RuntimeException {
+
+    public WalletShardUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.wallet.app.journal;
+
+import com.wallet.app.model.TransactionType;
+
+import lombok.Value;
+
+//one acknowledged ledger operation as stored in the journal
+@Value
+public class JournalRecord {
+
+    long sequence;
+    TransactionType type;
+    String walletId;
+    String transactionId;
+    int amount;
+    int balanceAfter;
+}
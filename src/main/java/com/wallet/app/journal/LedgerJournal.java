@@ -0,0 +1,298 @@
+package com.wallet.app.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import com.wallet.app.model.TransactionType;
+
+/**
+ * Append-only, memory-mapped journal of fixed-size ledger records.
+ *
+ * Layout: a 64 byte header (magic, drained position, sequence at the drained position)
+ * followed by 128 byte records. A record is only valid when its magic, crc and sequence
+ * match, so a torn write or a record left over from an earlier lap ends the scan on recovery.
+ * The journal wraps back to the start once everything has been drained.
+ */
+public class LedgerJournal implements Closeable
+{
+    public static final int RECORD_SIZE = 128;
+    static final int HEADER_SIZE = 64;
+    private static final int FILE_MAGIC = 0x574A524E;
+    private static final int RECORD_MAGIC = 0x57524543;
+    private static final int MAX_ID_BYTES = 48;
+    private static final int WALLET_ID_OFFSET = 24;
+    private static final int TRANSACTION_ID_OFFSET = WALLET_ID_OFFSET + MAX_ID_BYTES;
+    private static final int CRC_OFFSET = RECORD_SIZE - 4;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final CRC32 crc = new CRC32();
+    //locks instead of monitors, so a virtual thread waiting on either does not pin its carrier;
+    //lock guards the positions and sequences, flushLock is held for the force
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private int appendPosition;
+    private int drainedPosition;
+    //sequence of the next record to append and of the record at drainedPosition
+    private long nextSequence;
+    private long drainedSequence;
+    //every record with a lower sequence has been forced to disk
+    private volatile long durableSequence;
+
+    public LedgerJournal(Path path, int capacityBytes) throws IOException {
+        if (capacityBytes < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal must hold at least one record");
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.capacity = capacityBytes - (capacityBytes - HEADER_SIZE) % RECORD_SIZE;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+        if (buffer.getInt(0) == FILE_MAGIC) {
+            drainedPosition = (int) buffer.getLong(8);
+            drainedSequence = buffer.getLong(16);
+            if (drainedPosition < HEADER_SIZE || drainedPosition > capacity) {
+                throw new IOException("Journal " + path + " was written with a different size");
+            }
+        } else {
+            drainedPosition = HEADER_SIZE;
+            drainedSequence = 1;
+            writeHeader();
+        }
+        //find the records that were acknowledged but not drained before the last shutdown
+        appendPosition = drainedPosition;
+        nextSequence = drainedSequence;
+        JournalRecord last = null;
+        JournalRecord next;
+        while (appendPosition + RECORD_SIZE <= capacity && (next = read(appendPosition, nextSequence)) != null) {
+            last = next;
+            appendPosition += RECORD_SIZE;
+            nextSequence++;
+        }
+        //the in leg of the last transfer never made it to disk, the transfer was not acknowledged
+        if (last != null && last.getType() == TransactionType.TRANSFER_OUT) {
+            appendPosition -= RECORD_SIZE;
+            nextSequence--;
+        }
+        durableSequence = nextSequence;
+    }
+
+    /**
+     * Writes a record and returns its sequence, or -1 when the journal is full
+     * and has to be drained before anything else can be appended.
+     */
+    public long append(TransactionType type, String walletId, String transactionId, int amount, int balanceAfter) {
+        byte[] walletBytes = encodeId(walletId);
+        byte[] transactionBytes = encodeId(transactionId);
+        lock.lock();
+        try {
+            if (!reserve(1)) {
+                return -1;
+            }
+            return write(type, walletBytes, transactionBytes, amount, balanceAfter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the TRANSFER_OUT and TRANSFER_IN records of a transfer next to each other and
+     * returns the sequence of the second one, or -1 when the journal is full. Recovery drops
+     * an out leg that is not followed by its in leg, so a transfer is never half replayed.
+     */
+    public long appendTransfer(String fromWalletId, String debitId, int fromBalanceAfter,
+                               String toWalletId, String creditId, int toBalanceAfter, int amount) {
+        byte[] fromBytes = encodeId(fromWalletId);
+        byte[] debitBytes = encodeId(debitId);
+        byte[] toBytes = encodeId(toWalletId);
+        byte[] creditBytes = encodeId(creditId);
+        lock.lock();
+        try {
+            if (!reserve(2)) {
+                return -1;
+            }
+            write(TransactionType.TRANSFER_OUT, fromBytes, debitBytes, amount, fromBalanceAfter);
+            return write(TransactionType.TRANSFER_IN, toBytes, creditBytes, amount, toBalanceAfter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //makes room for the given number of records, wrapping around once everything is drained
+    private boolean reserve(int records) {
+        if (appendPosition + records * RECORD_SIZE > capacity) {
+            if (drainedPosition != appendPosition || HEADER_SIZE + records * RECORD_SIZE > capacity) {
+                return false;
+            }
+            appendPosition = HEADER_SIZE;
+            drainedPosition = HEADER_SIZE;
+            writeHeader();
+        }
+        return true;
+    }
+
+    private long write(TransactionType type, byte[] walletBytes, byte[] transactionBytes, int amount, int balanceAfter) {
+        long sequence = nextSequence;
+        Arrays.fill(scratch, (byte) 0);
+        ByteBuffer record = ByteBuffer.wrap(scratch);
+        record.putInt(0, RECORD_MAGIC);
+        record.put(4, (byte) type.ordinal());
+        record.put(5, (byte) walletBytes.length);
+        record.put(6, (byte) transactionBytes.length);
+        record.putLong(8, sequence);
+        record.putInt(16, amount);
+        record.putInt(20, balanceAfter);
+        record.put(WALLET_ID_OFFSET, walletBytes);
+        record.put(TRANSACTION_ID_OFFSET, transactionBytes);
+        crc.reset();
+        crc.update(scratch, 0, CRC_OFFSET);
+        record.putInt(CRC_OFFSET, (int) crc.getValue());
+        buffer.put(appendPosition, scratch);
+
+        appendPosition += RECORD_SIZE;
+        nextSequence++;
+        return sequence;
+    }
+
+    /**
+     * Blocks until the record with the given sequence is on disk. The first waiter flushes
+     * everything appended so far, so concurrent callers share a single force.
+     */
+    public void awaitDurable(long sequence) {
+        if (durableSequence > sequence) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (durableSequence > sequence) {
+                return;
+            }
+            long upTo;
+            lock.lock();
+            try {
+                upTo = nextSequence;
+            } finally {
+                lock.unlock();
+            }
+            buffer.force();
+            durableSequence = upTo;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Records that have been appended but not yet drained, oldest first. The batch only ends on
+     * an operation boundary: when the max is reached on the out leg of a transfer, its in leg is
+     * added as well, so both legs are always persisted in the same database transaction.
+     */
+    public List<JournalRecord> readUndrained(int max) {
+        lock.lock();
+        try {
+            List<JournalRecord> records = new ArrayList<>();
+            int position = drainedPosition;
+            long sequence = drainedSequence;
+            JournalRecord last = null;
+            while ((records.size() < max || (last != null && last.getType() == TransactionType.TRANSFER_OUT))
+                    && position < appendPosition) {
+                last = read(position, sequence);
+                records.add(last);
+                position += RECORD_SIZE;
+                sequence++;
+            }
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //called once the given number of records from readUndrained are persisted elsewhere
+    public void markDrained(int count) {
+        lock.lock();
+        try {
+            drainedPosition += count * RECORD_SIZE;
+            drainedSequence += count;
+            writeHeader();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int backlog() {
+        lock.lock();
+        try {
+            return (appendPosition - drainedPosition) / RECORD_SIZE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, FILE_MAGIC);
+        buffer.putLong(8, drainedPosition);
+        buffer.putLong(16, drainedSequence);
+        buffer.force(0, HEADER_SIZE);
+    }
+
+    private JournalRecord read(int position, long expectedSequence) {
+        byte[] bytes = new byte[RECORD_SIZE];
+        buffer.get(position, bytes);
+        ByteBuffer record = ByteBuffer.wrap(bytes);
+        if (record.getInt(0) != RECORD_MAGIC || record.getLong(8) != expectedSequence) {
+            return null;
+        }
+        CRC32 check = new CRC32();
+        check.update(bytes, 0, CRC_OFFSET);
+        if (record.getInt(CRC_OFFSET) != (int) check.getValue()) {
+            return null;
+        }
+        return new JournalRecord(expectedSequence,
+                TYPES[record.get(4)],
+                new String(bytes, WALLET_ID_OFFSET, record.get(5), StandardCharsets.UTF_8),
+                new String(bytes, TRANSACTION_ID_OFFSET, record.get(6), StandardCharsets.UTF_8),
+                record.getInt(16),
+                record.getInt(20));
+    }
+
+    private static byte[] encodeId(String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Id '" + id + "' is too long for the ledger journal");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,164 @@
+package com.wallet.app.metrics;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.app.cache.BalanceCache;
+import com.wallet.app.exception.InsufficientBalanceException;
+import com.wallet.app.exception.WalletNotFoundException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Latency of wallet operations by operation and outcome, plus writes in flight per wallet.
+ *
+ * Every timer is registered up front and looked up by array index, so recording is a
+ * nanoTime and a histogram update with no tag or registry lookups on the request path.
+ *
+ * Only writes are counted per wallet, and a wallet is only tracked from its first successful
+ * write on, so reads and requests for wallets that do not exist never add entries. The map is
+ * bounded by wallet.metrics.max-tracked-wallets, which also bounds the walk of each gauge.
+ */
+@Component
+public class WalletMetrics
+{
+    public enum Operation {
+        CREATE(false), GET_BALANCE(false), DEPOSIT(true), WITHDRAW(true), TRANSFER(true), BATCH(false), HISTORY(false);
+
+        private final boolean write;
+
+        Operation(boolean write) {
+            this.write = write;
+        }
+    }
+
+    //one running call, handed back to stop; walletCount is null when the call is not counted per wallet
+    public record Call(Operation operation, String walletId, long startNanos, LongAdder walletCount) {
+    }
+
+    public enum Outcome {
+        OK, INSUFFICIENT_BALANCE, NOT_FOUND, INVALID, ERROR
+    }
+
+    private static final Duration IDLE_WALLET_EXPIRY = Duration.ofMinutes(10);
+
+    private final Timer[][] timers = new Timer[Operation.values().length][Outcome.values().length];
+    //walletId -> running writes. Start and stop only touch the adder, so a hot wallet is not one
+    //contended map bin; idle entries sit at zero until they expire or are evicted for busier ones
+    private final Cache<String, LongAdder> inFlightByWallet;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public WalletMetrics(MeterRegistry registry, BalanceCache balanceCache,
+                         @Value("${wallet.metrics.max-tracked-wallets:10000}") int maxTrackedWallets) {
+        this.inFlightByWallet = Caffeine.newBuilder()
+                                        .maximumSize(maxTrackedWallets)
+                                        .expireAfterAccess(IDLE_WALLET_EXPIRY)
+                                        .build();
+        for (Operation operation : Operation.values()) {
+            for (Outcome outcome : Outcome.values()) {
+                timers[operation.ordinal()][outcome.ordinal()] = Timer.builder("wallet.operation")
+                        .description("Time spent in the wallet service per call")
+                        .tag("operation", operation.name().toLowerCase())
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(1).dividedBy(10))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(registry);
+            }
+        }
+        Gauge.builder("wallet.requests.in_flight", inFlight, AtomicInteger::get)
+             .description("Wallet operations currently running")
+             .register(registry);
+        Gauge.builder("wallet.requests.in_flight.hottest", this, WalletMetrics::hottestInFlight)
+             .description("Operations currently running against the busiest wallet")
+             .register(registry);
+        Gauge.builder("wallet.requests.contended_wallets", this, WalletMetrics::contendedWallets)
+             .description("Wallets with more than one operation running")
+             .register(registry);
+        CaffeineCacheMetrics.monitor(registry, balanceCache.nativeCache(), "balance");
+    }
+
+    //walletId may be null for calls without one
+    public Call start(Operation operation, String walletId) {
+        inFlight.incrementAndGet();
+        LongAdder count = null;
+        if (operation.write && walletId != null) {
+            count = inFlightByWallet.getIfPresent(walletId);
+            if (count != null) {
+                count.increment();
+            }
+        }
+        return new Call(operation, walletId, System.nanoTime(), count);
+    }
+
+    public void stop(Call call, Throwable failure) {
+        timers[call.operation().ordinal()][outcome(failure).ordinal()].record(System.nanoTime() - call.startNanos(), TimeUnit.NANOSECONDS);
+        inFlight.decrementAndGet();
+        if (call.walletCount() != null) {
+            //the adder it was counted on, even if the entry has been evicted since
+            call.walletCount().decrement();
+        } else if (failure == null && call.operation().write && call.walletId() != null) {
+            //the write went through, so the wallet exists and its next writes are counted
+            inFlightByWallet.get(call.walletId(), id -> new LongAdder());
+        }
+    }
+
+    //busiest wallets right now, most operations in flight first
+    public Map<String, Integer> hotWallets(int limit) {
+        Map<String, Integer> hottest = new LinkedHashMap<>();
+        inFlightByWallet.asMap().entrySet().stream()
+                        .map(entry -> Map.entry(entry.getKey(), entry.getValue().intValue()))
+                        .filter(entry -> entry.getValue() > 0)
+                        .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                        .limit(limit)
+                        .forEach(entry -> hottest.put(entry.getKey(), entry.getValue()));
+        return hottest;
+    }
+
+    static Outcome outcome(Throwable failure) {
+        if (failure == null) {
+            return Outcome.OK;
+        }
+        if (failure instanceof InsufficientBalanceException) {
+            return Outcome.INSUFFICIENT_BALANCE;
+        }
+        if (failure instanceof WalletNotFoundException) {
+            return Outcome.NOT_FOUND;
+        }
+        if (failure instanceof IllegalArgumentException) {
+            return Outcome.INVALID;
+        }
+        return Outcome.ERROR;
+    }
+
+    private double hottestInFlight() {
+        int max = 0;
+        for (LongAdder count : inFlightByWallet.asMap().values()) {
+            max = Math.max(max, count.intValue());
+        }
+        return max;
+    }
+
+    private double contendedWallets() {
+        int contended = 0;
+        for (LongAdder count : inFlightByWallet.asMap().values()) {
+            if (count.intValue() > 1) {
+                contended++;
+            }
+        }
+        return contended;
+    }
+}
@@ -0,0 +1,33 @@
+package com.wallet.app.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+//last verified point of a wallet's ledger, reconciliation resumes after lastWalletSeq
+@Entity
+@Table(name = "balance_snapshots")
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+public class BalanceSnapshot {
+
+    //primary key of the wallet, not the public walletId
+    @Id
+    private Long walletPk;
+
+    @Column(nullable = false)
+    private Long lastWalletSeq;
+
+    @Column(nullable = false)
+    private Long balance;
+
+    @Column(nullable = false)
+    private Instant takenAt;
+}
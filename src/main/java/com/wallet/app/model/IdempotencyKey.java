@@ -0,0 +1,71 @@
+package com.wallet.app.model;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.*;
+
+//a client supplied Idempotency-Key together with the response it produced
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt"))
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class IdempotencyKey implements Persistable<String> {
+
+    @Id
+    @Column(length = 128)
+    private String idempotencyKey;
+
+    //operation, wallet and amount the key was first used for
+    @Column(nullable = false)
+    private String fingerprint;
+
+    //serialized response, written in the same db transaction as the operation
+    @Column(length = 2000)
+    private String response;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    //the key is assigned by the client, so save() must insert instead of merging into an existing row
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean isNew = true;
+
+    public IdempotencyKey(String idempotencyKey, String fingerprint, Instant createdAt, Instant expiresAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.fingerprint = fingerprint;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
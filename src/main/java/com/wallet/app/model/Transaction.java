@@ -1,5 +1,8 @@
 package com.wallet.app.model;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.CreationTimestamp;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -9,23 +12,29 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Builder;
 import lombok.*;
 //always use builder with noargsconstructor and allargsconstructor
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_wallet_id_id", columnList = "walletId, id"),
+        @Index(name = "idx_transactions_wallet_id_wallet_seq", columnList = "walletId, walletSeq")
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
 @Builder
 public class Transaction {
- //indexing
+ //indexing, pooled sequence so inserts can be batched
  @Id
- @GeneratedValue(strategy = GenerationType.IDENTITY)
+ @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+ @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
  private Long id;
  //uniq transaction id
  @Column(nullable=false, unique = true)
@@ -46,4 +55,17 @@ public class Transaction {
 
  @Column(nullable=false)
  private Integer balanceAfter;
+
+ //partition key on postgres (monthly ranges, see V8)
+ @CreationTimestamp
+ @Column(nullable = false, updatable = false)
+ private Instant createdAt;
+
+ //set when a hot wallet slot was changed instead of the wallet row; balanceAfter is still the wallet's total,
+ //as far as the slot writes committed before this one go
+ private Integer slot;
+
+ //position in the wallet's ledger in commit order (ids are pooled and are not), see V10;
+ //null on a slot row until the compactor sequences it under the wallet lock
+ private Long walletSeq;
 }
@@ -1,6 +1,20 @@
 package com.wallet.app.model;
 
 public enum TransactionType {
-    DEPOSIT,
-    WITHDRAW
+    DEPOSIT(1),
+    WITHDRAW(-1),
+    //the two legs of a transfer, written in the same db transaction
+    TRANSFER_OUT(-1),
+    TRANSFER_IN(1);
+
+    private final int sign;
+
+    TransactionType(int sign) {
+        this.sign = sign;
+    }
+
+    //signed effect of a transaction of this type on the wallet balance
+    public long delta(int amount) {
+        return (long) sign * amount;
+    }
 }
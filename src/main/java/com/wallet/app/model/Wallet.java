@@ -1,10 +1,13 @@
 package com.wallet.app.model;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Builder;
 import lombok.*;
@@ -18,8 +21,10 @@ import lombok.*;
 @Builder
 public class Wallet 
 {
+    //pooled sequence instead of identity so hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallets_seq")
+    @SequenceGenerator(name = "wallets_seq", sequenceName = "wallets_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false, unique = true)
     private String walletId;
@@ -27,4 +32,12 @@ public class Wallet
     private int balance;
     @Column(nullable = false)
     private String owner;    
+    //0 for a normal wallet; a hot wallet also keeps part of its balance in this many wallet_slots rows
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int slotCount;
+    //bumped under the row lock by every write that takes it, the last transactions.walletSeq of this wallet
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long ledgerSeq;
 }
@@ -0,0 +1,37 @@
+package com.wallet.app.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.*;
+
+//one sub-balance of a hot wallet, the wallet's balance is wallets.balance plus all of its slots
+@Entity
+@Table(name = "wallet_slots", uniqueConstraints = @UniqueConstraint(name = "uk_wallet_slots_wallet_slot", columnNames = {"walletPk", "slot"}))
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+public class WalletSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_slots_seq")
+    @SequenceGenerator(name = "wallet_slots_seq", sequenceName = "wallet_slots_seq", allocationSize = 50)
+    private Long id;
+
+    //primary key of the wallet, not the public walletId
+    @Column(nullable = false)
+    private Long walletPk;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(nullable = false)
+    private int balance;
+}
@@ -0,0 +1,159 @@
+package com.wallet.app.outbox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Default outbox sink: appends events as NDJSON lines to segment files in a directory.
+ *
+ * The segment being written is named {node}-{first outboxId}-{opened at millis}.ndjson.open
+ * and is renamed to .ndjson once it reaches the size limit or gets older than max-age or the
+ * application stops; consumers pick up the closed segments. When writing a batch fails, what got
+ * written of it is cut off again, and the same batch published again is appended to the same
+ * segment. The age is checked on publish and when the relay finds
+ * nothing to publish, so a segment is not held back by a quiet outbox. Every batch is forced to disk
+ * before publish returns. A segment left open by a crash is cut back to its last complete line
+ * and closed on startup, the rows of the batch that was in flight are still in the outbox and
+ * come again in a later segment.
+ */
+public class NdjsonSegmentSink implements OutboxSink, Closeable
+{
+    static final String OPEN_SUFFIX = ".ndjson.open";
+    static final String CLOSED_SUFFIX = ".ndjson";
+
+    private final Path directory;
+    private final String node;
+    private final long segmentBytes;
+    private final long maxAgeNanos;
+    private final ObjectWriter writer;
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream(64 * 1024);
+
+    private FileChannel channel;
+    private Path segment;
+    private long segmentSize;
+    private long openedAt;
+
+    public NdjsonSegmentSink(Path directory, String node, long segmentBytes, Duration maxAge, ObjectMapper objectMapper) throws IOException {
+        this.directory = directory;
+        this.node = node;
+        this.segmentBytes = segmentBytes;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.writer = objectMapper.writer();
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+        rollIfExpired();
+        if (channel == null) {
+            open(events.get(0).outboxId());
+        }
+        batch.reset();
+        for (OutboxEvent event : events) {
+            writer.writeValue(batch, event);
+            batch.write('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(batch.toByteArray());
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException ex) {
+            //the next attempt must not append to half a line
+            channel.truncate(segmentSize);
+            throw ex;
+        }
+        segmentSize += batch.size();
+        if (segmentSize >= segmentBytes) {
+            roll();
+        }
+    }
+
+    @Override
+    public synchronized void idle() throws IOException {
+        rollIfExpired();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            roll();
+        }
+    }
+
+    private void open(long firstOutboxId) throws IOException {
+        segment = directory.resolve(String.format("%s-%020d-%d%s", node, firstOutboxId, System.currentTimeMillis(), OPEN_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = channel.size();
+        openedAt = System.nanoTime();
+    }
+
+    private void rollIfExpired() throws IOException {
+        if (channel != null && System.nanoTime() - openedAt >= maxAgeNanos) {
+            roll();
+        }
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        channel = null;
+        Files.move(segment, closedName(segment), StandardCopyOption.ATOMIC_MOVE);
+        segment = null;
+    }
+
+    //this node's segments that were still open when it stopped
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> open = Files.newDirectoryStream(directory, node + "-*" + OPEN_SUFFIX)) {
+            for (Path path : open) {
+                try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    file.truncate(lastLineEnd(file));
+                    file.force(true);
+                }
+                Files.move(path, closedName(path), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+    }
+
+    //length up to and including the last newline, a partly written line after it is dropped
+    static long lastLineEnd(FileChannel file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long end = file.size();
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining() && file.read(buffer, start + buffer.position()) >= 0) {
+                //fill the whole window
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    private static Path closedName(Path open) {
+        String name = open.getFileName().toString();
+        return open.resolveSibling(name.substring(0, name.length() - OPEN_SUFFIX.length()) + CLOSED_SUFFIX);
+    }
+}
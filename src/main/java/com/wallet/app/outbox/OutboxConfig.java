@@ -0,0 +1,29 @@
+package com.wallet.app.outbox;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//the sink the relay publishes to; another wallet.outbox.sink value leaves room for a broker bean
+@Configuration
+@ConditionalOnProperty(name = "wallet.outbox.enabled", havingValue = "true")
+public class OutboxConfig
+{
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "wallet.outbox.sink", havingValue = "ndjson", matchIfMissing = true)
+    public NdjsonSegmentSink ndjsonSegmentSink(ObjectMapper objectMapper,
+                                               @Value("${wallet.outbox.ndjson.directory:./data/outbox}") Path directory,
+                                               @Value("${wallet.outbox.ndjson.node:${HOSTNAME:local}}") String node,
+                                               @Value("${wallet.outbox.ndjson.segment-size:64MB}") DataSize segmentSize,
+                                               @Value("${wallet.outbox.ndjson.max-age:1m}") Duration maxAge) throws IOException {
+        return new NdjsonSegmentSink(directory, node, segmentSize.toBytes(), maxAge, objectMapper);
+    }
+}
@@ -0,0 +1,27 @@
+package com.wallet.app.outbox;
+
+import java.time.Instant;
+
+import com.wallet.app.model.TransactionType;
+
+/**
+ * One transactions row as it is handed to downstream consumers.
+ *
+ * eventSeq numbers a wallet's events 1, 2, 3, ... in the order their transactions committed, hot
+ * wallet slot writes included, and outboxIds are increasing in that same order (see V12).
+ * Delivery is at least once: consumers drop the eventSeqs of a wallet they have already seen, and
+ * a gap means an event is still to come. id is the transactions primary key, the same cursor as
+ * the history and stream endpoints. For hot wallets balanceAfter is the balance of the slot.
+ * eventSeq is null only on rows written by a node that predates V12.
+ */
+public record OutboxEvent(long outboxId,
+                          long id,
+                          String transactionId,
+                          String walletId,
+                          Long eventSeq,
+                          TransactionType type,
+                          int amount,
+                          int balanceAfter,
+                          Integer slot,
+                          Instant createdAt) {
+}
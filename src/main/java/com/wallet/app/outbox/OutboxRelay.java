@@ -0,0 +1,144 @@
+package com.wallet.app.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wallet.app.model.TransactionType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Moves outbox rows (PostgreSQL, see V9) to the OutboxSink in batches, off the request path.
+ *
+ * Work is split by bucket, a hash of the walletId. A relay transaction claims up to
+ * claim-buckets buckets that have rows with FOR UPDATE SKIP LOCKED, so relays on other nodes
+ * take other buckets instead of waiting, reads their oldest batch-size rows in id order, hands
+ * them to the sink and deletes exactly those rows before it commits. A bucket is only ever
+ * relayed by one node at a time, which keeps every wallet's events in order. When the sink
+ * fails or the node dies before the commit the rows stay and are published again (at least
+ * once). Buckets are claimed least recently relayed first so busy ones do not starve the rest.
+ * A run that finds nothing to claim tells the sink it is idle, so it can close what it holds.
+ */
+@Component
+@ConditionalOnProperty(name = {"wallet.outbox.enabled", "wallet.outbox.relay.enabled"}, havingValue = "true")
+public class OutboxRelay
+{
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final String ENSURE_BUCKETS_SQL =
+            "insert into outbox_buckets (bucket) select generate_series(0, ? - 1) on conflict (bucket) do nothing";
+    private static final String CLAIM_SQL =
+            "select b.bucket from outbox_buckets b "
+          + "where exists (select 1 from transaction_outbox o where o.bucket = b.bucket) "
+          + "order by b.relayed_at nulls first, b.bucket limit ? for update skip locked";
+    private static final String PENDING_SQL =
+            "select id, transaction_pk, transaction_id, wallet_id, event_seq, type, amount, balance_after, slot, created_at "
+          + "from transaction_outbox where bucket = any(?) order by id limit ?";
+    private static final String DELETE_SQL = "delete from transaction_outbox where id = any(?)";
+    private static final String RELAYED_SQL = "update outbox_buckets set relayed_at = now() where bucket = any(?)";
+    private static final RowMapper<OutboxEvent> EVENT_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4), (Long) rs.getObject(5),
+            TransactionType.valueOf(rs.getString(6)), rs.getInt(7), rs.getInt(8), (Integer) rs.getObject(9),
+            rs.getTimestamp(10).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final int buckets;
+    private final int claimBuckets;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter published;
+    private final Counter failures;
+    private volatile boolean bucketsReady;
+
+    public OutboxRelay(DataSource dataSource,
+                       PlatformTransactionManager transactionManager,
+                       OutboxSink sink,
+                       MeterRegistry meterRegistry,
+                       @Value("${wallet.outbox.buckets:16}") int buckets,
+                       @Value("${wallet.outbox.relay.claim-buckets:4}") int claimBuckets,
+                       @Value("${wallet.outbox.relay.batch-size:1000}") int batchSize,
+                       @Value("${wallet.outbox.relay.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.buckets = buckets;
+        this.claimBuckets = claimBuckets;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.published = meterRegistry.counter("wallet.outbox.published");
+        this.failures = meterRegistry.counter("wallet.outbox.relay.failures");
+    }
+
+    //keeps going while batches come back full, a backlog is drained without waiting for the next run
+    @Scheduled(fixedDelayString = "${wallet.outbox.relay.poll-interval:PT0.2S}")
+    public void relay() {
+        try {
+            if (!bucketsReady) {
+                jdbcTemplate.update(ENSURE_BUCKETS_SQL, buckets);
+                bucketsReady = true;
+            }
+            int count = relayBatch();
+            if (count == 0) {
+                sink.idle();
+            }
+            for (int i = 1; i < maxBatchesPerRun && count == batchSize; i++) {
+                count = relayBatch();
+            }
+        } catch (IOException ex) {
+            failures.increment();
+            log.warn("Outbox sink failed while idle", ex);
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.warn("Outbox relay failed, the rows stay in the outbox for the next run", ex);
+        }
+    }
+
+    //number of events published, 0 when there was nothing to claim
+    int relayBatch() {
+        Integer count = transactionTemplate.execute(status -> {
+            List<Integer> claimed = jdbcTemplate.queryForList(CLAIM_SQL, Integer.class, claimBuckets);
+            if (claimed.isEmpty()) {
+                return 0;
+            }
+            Object[] bucketArray = claimed.toArray();
+            List<OutboxEvent> events = jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(PENDING_SQL);
+                ps.setArray(1, connection.createArrayOf("integer", bucketArray));
+                ps.setInt(2, batchSize);
+                return ps;
+            }, EVENT_MAPPER);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.publish(events);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            //by id, a lower id that committed since the select is not in this batch and must stay
+            Object[] ids = events.stream().map(OutboxEvent::outboxId).toArray();
+            jdbcTemplate.update(DELETE_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+            jdbcTemplate.update(RELAYED_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", bucketArray)));
+            return events.size();
+        });
+        published.increment(count);
+        return count;
+    }
+}
@@ -0,0 +1,21 @@
+package com.wallet.app.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where the relay delivers outbox events, selected with wallet.outbox.sink.
+ *
+ * A broker implementation registers itself as a bean under its own wallet.outbox.sink value.
+ * publish gets a batch in outboxId order and must only return once the events are durable on
+ * the other side: the rows are deleted from the outbox when it returns, and anything thrown
+ * leaves them in place to be published again, possibly after a part of them got through.
+ */
+public interface OutboxSink
+{
+    void publish(List<OutboxEvent> events) throws IOException;
+
+    //called by the relay when a run found nothing to publish, for sinks that close or flush on a timer
+    default void idle() throws IOException {
+    }
+}
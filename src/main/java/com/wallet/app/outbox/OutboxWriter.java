@@ -0,0 +1,143 @@
+package com.wallet.app.outbox;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.wallet.app.event.TransactionCommittedEvent;
+import com.wallet.app.model.Transaction;
+
+/**
+ * Adds an outbox row for every transactions row, in the database transaction that wrote it.
+ *
+ * The write paths publish a TransactionCommittedEvent per wallet; the rows are collected for the
+ * whole transaction and written just before it commits, so a batch of 500 wallets costs two extra
+ * statements and not 500. The first one bumps the wallets' rows in outbox_wallet_sequences (V12)
+ * and keeps them locked until the commit, which is the one point every write path passes: hot
+ * wallet slot writes do not lock the wallet row, so that lock alone does not order them. The
+ * outbox rows are inserted after it, so a wallet's outbox ids and eventSeqs follow the order its
+ * transactions commit in, even when several nodes write to it.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.outbox.enabled", havingValue = "true")
+public class OutboxWriter
+{
+    //rows are locked in wallet_id order, so two writers with overlapping wallets cannot deadlock here
+    static final String SEQUENCE_SQL =
+            "insert into outbox_wallet_sequences (wallet_id, last_seq) "
+          + "select wallet_id, events from unnest(?, ?) as w (wallet_id, events) order by wallet_id "
+          + "on conflict (wallet_id) do update set last_seq = outbox_wallet_sequences.last_seq + excluded.last_seq "
+          + "returning wallet_id, last_seq";
+    static final String INSERT_SQL =
+            "insert into transaction_outbox (bucket, wallet_id, transaction_pk, transaction_id, type, amount, balance_after, slot, event_seq) "
+          + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int buckets;
+
+    public OutboxWriter(DataSource dataSource,
+                        @Value("${wallet.outbox.buckets:16}") int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("wallet.outbox.buckets must be at least 1");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.buckets = buckets;
+    }
+
+    @EventListener
+    public void onTransactionCommitted(TransactionCommittedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Outbox rows have to be written in the transaction that created them");
+        }
+        PendingRows pending = pendingRows();
+        int bucket = bucketOf(event.getWalletId(), buckets);
+        for (Transaction transaction : event.getTransactions()) {
+            pending.rows.add(new PendingRow(bucket, event.getWalletId(), transaction));
+        }
+    }
+
+    //synchronizations belong to the current transaction, a suspended outer one keeps its own rows
+    private PendingRows pendingRows() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingRows pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        PendingRows pending = new PendingRows();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    //a wallet always lands in the same bucket, the relay never works on one bucket from two nodes
+    static int bucketOf(String walletId, int buckets) {
+        return Math.floorMod(walletId.hashCode(), buckets);
+    }
+
+    private record PendingRow(int bucket, String walletId, Transaction transaction) {
+    }
+
+    private final class PendingRows implements TransactionSynchronization {
+        private final List<PendingRow> rows = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            Map<String, Long> nextSeq = reserveSequences();
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+                Transaction transaction = row.transaction();
+                ps.setInt(1, row.bucket());
+                ps.setString(2, row.walletId());
+                ps.setLong(3, transaction.getId());
+                ps.setString(4, transaction.getTransactionId());
+                ps.setString(5, transaction.getType().name());
+                ps.setInt(6, transaction.getAmount());
+                ps.setInt(7, transaction.getBalanceAfter());
+                if (transaction.getSlot() == null) {
+                    ps.setNull(8, Types.INTEGER);
+                } else {
+                    ps.setInt(8, transaction.getSlot());
+                }
+                //rows of a wallet were collected in the order they were applied
+                ps.setLong(9, nextSeq.merge(row.walletId(), 1L, Long::sum) - 1);
+            });
+        }
+
+        //first eventSeq of every wallet in this transaction
+        private Map<String, Long> reserveSequences() {
+            Map<String, Long> counts = new HashMap<>();
+            for (PendingRow row : rows) {
+                counts.merge(row.walletId(), 1L, Long::sum);
+            }
+            Map<String, Long> nextSeq = new HashMap<>(counts.size() * 2);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SEQUENCE_SQL);
+                ps.setArray(1, connection.createArrayOf("varchar", counts.keySet().toArray()));
+                ps.setArray(2, connection.createArrayOf("bigint", counts.values().toArray()));
+                return ps;
+            }, rs -> {
+                String walletId = rs.getString(1);
+                nextSeq.put(walletId, rs.getLong(2) - counts.get(walletId) + 1);
+            });
+            return nextSeq;
+        }
+
+        private OutboxWriter owner() {
+            return OutboxWriter.this;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.wallet.app.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.wallet.app.model.BalanceSnapshot;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long>
+{
+}
@@ -1,13 +1,53 @@
 package com.wallet.app.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.wallet.app.dto.TransactionHistoryItem;
 import com.wallet.app.model.Transaction;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, String>
 {
 
-    
+    //gives the slot rows committed so far the next walletSeqs in id order, afterSeq + 1 onwards, one each so
+    //walletSeq stays unique within a wallet; the caller holds the wallet row lock and moves ledgerSeq past them.
+    //the persistence context is left alone so the locked wallet entity stays managed
+    @Modifying(flushAutomatically = true)
+    @Query(value = "merge into transactions t using (select id, row_number() over (order by id) as n from transactions "
+                 + "where wallet_id = :walletPk and wallet_seq is null) s on t.id = s.id "
+                 + "when matched then update set wallet_seq = :afterSeq + s.n", nativeQuery = true)
+    int sequenceSlotRows(@Param("walletPk") Long walletPk, @Param("afterSeq") long afterSeq);
+
+    //which of the given transaction ids are already stored
+    @Query("select t.transactionId from Transaction t where t.transactionId in :transactionIds")
+    List<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
+    //keyset page on (wallet, walletSeq), served by idx_transactions_wallet_id_wallet_seq; walletSeq is in commit
+    //order, so no row can show up behind a cursor later. Slot rows are left out until they are sequenced
+    @Query("select new com.wallet.app.dto.TransactionHistoryItem(t.id, t.walletSeq, t.transactionId, t.type, t.amount, t.balanceAfter, t.slot) "
+         + "from Transaction t where t.wallet.id = :walletPk and t.walletSeq > :afterSeq order by t.walletSeq")
+    List<TransactionHistoryItem> findPage(@Param("walletPk") Long walletPk, @Param("afterSeq") long afterSeq, Pageable page);
+
+    //cursor based, needs an open transaction and must be closed by the caller
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.wallet.app.dto.TransactionHistoryItem(t.id, t.walletSeq, t.transactionId, t.type, t.amount, t.balanceAfter, t.slot) "
+         + "from Transaction t where t.wallet.id = :walletPk and t.walletSeq > :afterSeq order by t.walletSeq")
+    Stream<TransactionHistoryItem> streamByWallet(@Param("walletPk") Long walletPk, @Param("afterSeq") long afterSeq);
 }
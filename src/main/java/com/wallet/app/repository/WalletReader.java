@@ -0,0 +1,42 @@
+package com.wallet.app.repository;
+
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Single-statement reads straight over JDBC, for lookups that only need a scalar.
+ *
+ * Nothing goes through the persistence context: no entity is hydrated, no snapshot is kept
+ * for dirty checking and no EntityManager is opened. Statements are constants, so the
+ * Postgres driver turns them into server-side prepared statements per connection.
+ */
+@Repository
+public class WalletReader
+{
+    //slot rows are only summed for hot wallets, postgres does not evaluate the other branch
+    private static final String BALANCE_SQL =
+            "select case when w.slot_count = 0 then w.balance "
+          + "else w.balance + coalesce((select sum(s.balance) from wallet_slots s where s.wallet_pk = w.id), 0) end "
+          + "from wallets w where w.wallet_id = ?";
+    private static final String EXISTS_SQL =
+            "select 1 from wallets where wallet_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WalletReader(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    //wallet row plus the slots of a hot wallet
+    public Optional<Integer> findBalance(String walletId) {
+        return Optional.ofNullable(jdbcTemplate.query(BALANCE_SQL, rs -> rs.next() ? rs.getInt(1) : null, walletId));
+    }
+
+    public boolean exists(String walletId) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(EXISTS_SQL, rs -> rs.next(), walletId));
+    }
+}
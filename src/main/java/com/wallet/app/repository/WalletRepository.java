@@ -1,12 +1,23 @@
 package com.wallet.app.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.wallet.app.dto.WalletSlotInfo;
 import com.wallet.app.model.Wallet;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, String>
 {
@@ -14,4 +25,39 @@ public interface WalletRepository extends JpaRepository<Wallet, String>
      Optional<Wallet> findByWalletId(String walletId);
 
      boolean existsBywalletId(String walletId);
+
+     @Query("select w.id from Wallet w where w.walletId = :walletId")
+     Optional<Long> findIdByWalletId(@Param("walletId") String walletId);
+
+     @Query("select new com.wallet.app.dto.WalletSlotInfo(w.id, w.slotCount) from Wallet w where w.walletId = :walletId")
+     Optional<WalletSlotInfo> findSlotInfo(@Param("walletId") String walletId);
+
+     @Query("select w.walletId from Wallet w where w.slotCount > 0")
+     List<String> findHotWalletIds();
+
+     //locks the rows in walletId order, so concurrent batches cannot deadlock each other
+     @Lock(LockModeType.PESSIMISTIC_WRITE)
+     @Query("select w from Wallet w where w.walletId in :walletIds order by w.walletId")
+     List<Wallet> findByWalletIdInForUpdate(@Param("walletIds") Collection<String> walletIds);
+
+     //locks the wallet row until the surrounding transaction ends
+     @Lock(LockModeType.PESSIMISTIC_WRITE)
+     @Query("select w from Wallet w where w.walletId = :walletId")
+     Optional<Wallet> findByWalletIdForUpdate(@Param("walletId") String walletId);
+
+     //FOR UPDATE SKIP LOCKED (lock timeout -2): empty while another transaction holds the row
+     @Lock(LockModeType.PESSIMISTIC_WRITE)
+     @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+     @Query("select w from Wallet w where w.walletId = :walletId")
+     Optional<Wallet> findByWalletIdForUpdateSkipLocked(@Param("walletId") String walletId);
+
+     //atomic credit, the row lock taken by the update serializes concurrent writers
+     @Modifying(flushAutomatically = true, clearAutomatically = true)
+     @Query("update Wallet w set w.balance = w.balance + :amount, w.ledgerSeq = w.ledgerSeq + 1 where w.walletId = :walletId")
+     int credit(@Param("walletId") String walletId, @Param("amount") int amount);
+
+     //atomic debit, only applied when the current balance covers the amount
+     @Modifying(flushAutomatically = true, clearAutomatically = true)
+     @Query("update Wallet w set w.balance = w.balance - :amount, w.ledgerSeq = w.ledgerSeq + 1 where w.walletId = :walletId and w.balance >= :amount")
+     int debit(@Param("walletId") String walletId, @Param("amount") int amount);
 }
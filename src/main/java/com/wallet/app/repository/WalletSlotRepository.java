@@ -0,0 +1,38 @@
+package com.wallet.app.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.wallet.app.model.WalletSlot;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface WalletSlotRepository extends JpaRepository<WalletSlot, Long>
+{
+
+     //only the one slot row is locked, so deposits on different slots never wait for each other
+     @Modifying(flushAutomatically = true, clearAutomatically = true)
+     @Query("update WalletSlot s set s.balance = s.balance + :amount where s.walletPk = :walletPk and s.slot = :slot")
+     int credit(@Param("walletPk") Long walletPk, @Param("slot") int slot, @Param("amount") int amount);
+
+     @Modifying(flushAutomatically = true, clearAutomatically = true)
+     @Query("update WalletSlot s set s.balance = s.balance - :amount where s.walletPk = :walletPk and s.slot = :slot and s.balance >= :amount")
+     int debit(@Param("walletPk") Long walletPk, @Param("slot") int slot, @Param("amount") int amount);
+
+     //wallet row plus its slots as the caller's transaction sees them: its own slot write and whatever else has committed
+     @Query("select w.balance + coalesce((select sum(s.balance) from WalletSlot s where s.walletPk = w.id), 0) "
+          + "from Wallet w where w.id = :walletPk")
+     long findWalletTotal(@Param("walletPk") Long walletPk);
+
+     //callers hold the wallet row lock first and take the slots in slot order
+     @Lock(LockModeType.PESSIMISTIC_WRITE)
+     @Query("select s from WalletSlot s where s.walletPk = :walletPk order by s.slot")
+     List<WalletSlot> findForUpdate(@Param("walletPk") Long walletPk);
+}
@@ -0,0 +1,289 @@
+package com.wallet.app.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.app.dto.HotWalletResponse;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.WalletSlotInfo;
+import com.wallet.app.event.TransactionCommittedEvent;
+import com.wallet.app.exception.InsufficientBalanceException;
+import com.wallet.app.exception.WalletNotFoundException;
+import com.wallet.app.model.BalanceSnapshot;
+import com.wallet.app.model.Transaction;
+import com.wallet.app.model.TransactionType;
+import com.wallet.app.model.Wallet;
+import com.wallet.app.model.WalletSlot;
+import com.wallet.app.repository.BalanceSnapshotRepository;
+import com.wallet.app.repository.TransactionRepository;
+import com.wallet.app.repository.WalletRepository;
+import com.wallet.app.repository.WalletSlotRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Sub-balance slots for wallets that take more writes than one row lock can serialize.
+ *
+ * A hot wallet's balance is wallets.balance plus its wallet_slots rows. Deposits go to a random
+ * slot and only lock that slot. Withdrawals try single slots, then the wallet row, and only when
+ * none of them covers the amount gather every slot into the wallet row under its lock. Anything
+ * that locks slots holds the wallet row first and takes the slots in slot order.
+ *
+ * balanceAfter of a slot write is the wallet's total as that write saw it: the wallet row plus
+ * every slot, with its own change and the slot writes committed before it, but not those still
+ * running beside it. It means the same as on any other row, but two slot writes can commit in
+ * the opposite order of the totals they saw, so it cannot be chained row by row.
+ *
+ * Slot rows are written without the wallet lock, so they cannot take a walletSeq when they are
+ * inserted. The compactor (and configure) give the slot rows committed so far the next walletSeqs,
+ * one per row, under the wallet lock, which keeps walletSeq in commit order and unique within the
+ * wallet for reconciliation and the history cursor.
+ *
+ * The compactor runs on every node; it takes the wallet row with SKIP LOCKED, so a wallet that
+ * another node is compacting, or that a withdrawal has locked, is left for the next run instead
+ * of queueing behind it.
+ */
+@Service
+public class HotWalletService
+{
+    private static final Logger log = LoggerFactory.getLogger(HotWalletService.class);
+
+    private final WalletRepository walletRepository;
+    private final WalletSlotRepository slotRepository;
+    private final TransactionRepository transactionRepository;
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final EntityManager entityManager;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean journalMode;
+    private final int maxSlots;
+    private final int withdrawAttempts;
+    //walletId -> pk and slot count, so normal wallets do not pay an extra query per write
+    private final Cache<String, WalletSlotInfo> slotInfo;
+
+    public HotWalletService(WalletRepository walletRepository,
+                            WalletSlotRepository slotRepository,
+                            TransactionRepository transactionRepository,
+                            BalanceSnapshotRepository snapshotRepository,
+                            EntityManager entityManager,
+                            TransactionIdGenerator transactionIdGenerator,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${wallet.write-mode:direct}") String writeMode,
+                            @Value("${wallet.hot.max-slots:64}") int maxSlots,
+                            @Value("${wallet.hot.withdraw-attempts:4}") int withdrawAttempts,
+                            @Value("${wallet.hot.registry-ttl:5s}") Duration registryTtl) {
+        this.walletRepository = walletRepository;
+        this.slotRepository = slotRepository;
+        this.transactionRepository = transactionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.entityManager = entityManager;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journalMode = "journal".equals(writeMode);
+        this.maxSlots = maxSlots;
+        if (withdrawAttempts < 1) {
+            throw new IllegalArgumentException("wallet.hot.withdraw-attempts must be at least 1");
+        }
+        this.withdrawAttempts = withdrawAttempts;
+        this.slotInfo = Caffeine.newBuilder()
+                                .maximumSize(100_000)
+                                .expireAfterWrite(registryTtl)
+                                .build();
+    }
+
+    //null for an unknown wallet; other nodes see a new slot count within wallet.hot.registry-ttl
+    public WalletSlotInfo lookup(String walletId) {
+        WalletSlotInfo cached = slotInfo.getIfPresent(walletId);
+        if (cached != null) {
+            return cached;
+        }
+        WalletSlotInfo loaded = walletRepository.findSlotInfo(walletId).orElse(null);
+        if (loaded != null) {
+            slotInfo.put(walletId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Credits one random slot. Returns null when the slot does not exist (the slot count changed
+     * since it was looked up), the caller then credits the wallet row instead.
+     */
+    public TransactionResponse deposit(WalletSlotInfo info, String walletId, int amount) {
+        int slot = ThreadLocalRandom.current().nextInt(info.getSlotCount());
+        if (slotRepository.credit(info.getWalletPk(), slot, amount) == 0) {
+            slotInfo.invalidate(walletId);
+            return null;
+        }
+        return record(info.getWalletPk(), walletId, TransactionType.DEPOSIT, amount,
+                (int) slotRepository.findWalletTotal(info.getWalletPk()), slot, null);
+    }
+
+    /**
+     * Debits one random slot, trying at most wallet.hot.withdraw-attempts of them before it falls
+     * back to the wallet row lock; each miss is a failed UPDATE, and with 64 nearly empty slots
+     * trying them all costs more than the locked path.
+     */
+    public TransactionResponse withdraw(WalletSlotInfo info, String walletId, int amount) {
+        int slots = info.getSlotCount();
+        int start = ThreadLocalRandom.current().nextInt(slots);
+        int attempts = Math.min(slots, withdrawAttempts);
+        for (int i = 0; i < attempts; i++) {
+            int slot = (start + i) % slots;
+            if (slotRepository.debit(info.getWalletPk(), slot, amount) == 1) {
+                return record(info.getWalletPk(), walletId, TransactionType.WITHDRAW, amount,
+                        (int) slotRepository.findWalletTotal(info.getWalletPk()), slot, null);
+            }
+        }
+        //no single slot covers it, bring the whole balance together under the wallet row lock
+        Wallet wallet = walletRepository.findByWalletIdForUpdate(walletId)
+                                        .orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"));
+        gatherIntoBase(wallet);
+        if (wallet.getBalance() < amount) {
+            throw new InsufficientBalanceException("Insufficient balance in account!");
+        }
+        wallet.setBalance(wallet.getBalance() - amount);
+        wallet.setLedgerSeq(wallet.getLedgerSeq() + 1);
+        return record(wallet.getId(), walletId, TransactionType.WITHDRAW, amount, wallet.getBalance(), null, wallet.getLedgerSeq());
+    }
+
+    /**
+     * Moves every slot balance of a wallet into its wallet row. The wallet must be locked by the
+     * caller; does nothing for a wallet without slots.
+     */
+    public void gatherIntoBase(Wallet wallet) {
+        if (wallet.getSlotCount() == 0) {
+            return;
+        }
+        int total = wallet.getBalance();
+        for (WalletSlot slot : slotRepository.findForUpdate(wallet.getId())) {
+            total += slot.getBalance();
+            slot.setBalance(0);
+        }
+        wallet.setBalance(total);
+    }
+
+    /**
+     * Splits a wallet into the given number of slots, or merges it back with 0. The current
+     * balance stays in the wallet row and deposits start filling the slots.
+     */
+    @Transactional
+    public HotWalletResponse configure(String walletId, int slots) {
+        if (journalMode) {
+            throw new IllegalArgumentException("Hot wallets are not supported in journal write mode");
+        }
+        if (slots < 0 || slots > maxSlots) {
+            throw new IllegalArgumentException("slots must be between 0 and " + maxSlots);
+        }
+        Wallet wallet = walletRepository.findByWalletIdForUpdate(walletId)
+                                        .orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"));
+        List<WalletSlot> existing = slotRepository.findForUpdate(wallet.getId());
+        //every slot write has committed once we hold the slot locks
+        sequenceSlotRows(wallet);
+        int total = wallet.getBalance();
+        for (WalletSlot slot : existing) {
+            total += slot.getBalance();
+        }
+        slotRepository.deleteAll(existing);
+        //deletes must reach the db before the new rows reuse the same (walletPk, slot) keys
+        slotRepository.flush();
+        List<WalletSlot> created = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            created.add(WalletSlot.builder().walletPk(wallet.getId()).slot(slot).balance(0).build());
+        }
+        slotRepository.saveAll(created);
+        wallet.setBalance(total);
+        wallet.setSlotCount(slots);
+
+        //balanceAfter of concurrent slot writes cannot be chained, reconciliation checks totals from here on
+        snapshotRepository.save(new BalanceSnapshot(wallet.getId(), wallet.getLedgerSeq(), (long) total, Instant.now()));
+        slotInfo.invalidate(walletId);
+        return new HotWalletResponse(walletId, slots, total);
+    }
+
+    //sequences the new slot rows of each hot wallet and spreads it evenly over its slots again,
+    //so single slot withdrawals keep succeeding
+    @Scheduled(fixedDelayString = "${wallet.hot.compact-interval:PT5S}")
+    public void compact() {
+        for (String walletId : walletRepository.findHotWalletIds()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> compact(walletId));
+            } catch (RuntimeException ex) {
+                log.warn("Compacting hot wallet {} failed, will retry", walletId, ex);
+            }
+        }
+    }
+
+    private void compact(String walletId) {
+        Wallet wallet = walletRepository.findByWalletIdForUpdateSkipLocked(walletId).orElse(null);
+        if (wallet == null || wallet.getSlotCount() == 0) {
+            return;
+        }
+        sequenceSlotRows(wallet);
+        List<WalletSlot> slots = slotRepository.findForUpdate(wallet.getId());
+        if (slots.isEmpty()) {
+            return;
+        }
+        long total = wallet.getBalance();
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (WalletSlot slot : slots) {
+            total += slot.getBalance();
+            min = Math.min(min, slot.getBalance());
+            max = Math.max(max, slot.getBalance());
+        }
+        int share = (int) (total / slots.size());
+        if (max - min <= 1 && wallet.getBalance() < slots.size()) {
+            return;
+        }
+        for (WalletSlot slot : slots) {
+            slot.setBalance(share);
+        }
+        wallet.setBalance((int) (total - (long) share * slots.size()));
+    }
+
+    //the wallet row must be locked by the caller
+    private void sequenceSlotRows(Wallet wallet) {
+        wallet.setLedgerSeq(wallet.getLedgerSeq() + transactionRepository.sequenceSlotRows(wallet.getId(), wallet.getLedgerSeq()));
+    }
+
+    private TransactionResponse record(Long walletPk, String walletId, TransactionType type, int amount, int balanceAfter,
+                                       Integer slot, Long walletSeq) {
+        Transaction transaction=Transaction.builder().transactionId(transactionIdGenerator.nextId())
+                                  .amount(amount)
+                                  .balanceAfter(balanceAfter)
+                                  .type(type)
+                                  .slot(slot)
+                                  .walletSeq(walletSeq)
+                                  //reference only, the wallet row is never read on the slot path
+                                  .wallet(entityManager.getReference(Wallet.class, walletPk))
+                                  .build();
+        transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new TransactionCommittedEvent(walletId, List.of(transaction)));
+        return TransactionResponse.builder()
+                                  .transactionId(transaction.getTransactionId())
+                                  .walletId(walletId)
+                                  .type(type)
+                                  .amount(amount)
+                                  .balanceAfter(balanceAfter)
+                                  .slot(slot)
+                                  .build();
+    }
+}
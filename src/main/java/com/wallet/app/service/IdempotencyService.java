@@ -0,0 +1,150 @@
+package com.wallet.app.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.app.exception.IdempotencyKeyInUseException;
+import com.wallet.app.model.IdempotencyKey;
+import com.wallet.app.repository.IdempotencyKeyRepository;
+
+/**
+ * Runs a write at most once per client supplied Idempotency-Key.
+ *
+ * The key row is inserted in the same db transaction as the write and gets the response before
+ * commit, so a key is either unused or tied to exactly one committed transaction. In sharded mode
+ * the write skips the shard queue and runs in that transaction; journal mode acknowledges writes
+ * from its journal, which cannot commit together with the key row, so keys are rejected there.
+ * A concurrent request with the same key waits on the primary key and then replays the stored
+ * response. Completed keys are also kept in a bounded in-memory cache, so a retry storm is
+ * served without touching the database at all.
+ */
+@Service
+public class IdempotencyService
+{
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final boolean journalMode;
+    private final Cache<String, StoredResponse> cache;
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${wallet.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${wallet.idempotency.cache-size:100000}") long cacheSize,
+                              @Value("${wallet.write-mode:direct}") String writeMode) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.journalMode = "journal".equals(writeMode);
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(cacheSize)
+                             .expireAfterWrite(ttl)
+                             .build();
+    }
+
+    /**
+     * Returns the response of the first request made with this key, running the operation
+     * only if there was none. The fingerprint describes the request (operation, wallets, amount)
+     * and reusing a key for a different request is rejected.
+     */
+    public <T> T execute(String key, String fingerprint, Class<T> responseType, Supplier<T> operation) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        if (journalMode) {
+            throw new IllegalArgumentException("Idempotency-Key is not supported in journal write mode");
+        }
+        StoredResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.replay(fingerprint, responseType);
+        }
+        for (int attempt = 0; ; attempt++) {
+            try {
+                T response = transactionTemplate.execute(status -> {
+                    Instant now = Instant.now();
+                    //claim first, the operation below joins this transaction (see the write modes above)
+                    IdempotencyKey claim = repository.saveAndFlush(new IdempotencyKey(key, fingerprint, now, now.plus(ttl)));
+                    T result = operation.get();
+                    claim.setResponse(toJson(result));
+                    return result;
+                });
+                cache.put(key, new StoredResponse(fingerprint, response));
+                return response;
+            } catch (PessimisticLockingFailureException ex) {
+                throw new IdempotencyKeyInUseException("A request with this Idempotency-Key is still in progress");
+            } catch (DataIntegrityViolationException ex) {
+                IdempotencyKey existing = repository.findById(key).orElseThrow(() -> ex);
+                if (existing.getExpiresAt().isBefore(Instant.now()) && attempt == 0) {
+                    //expired but not cleaned up yet, the key is free again
+                    transactionTemplate.executeWithoutResult(status -> repository.delete(existing));
+                    continue;
+                }
+                if (existing.getResponse() == null) {
+                    throw new IdempotencyKeyInUseException("A request with this Idempotency-Key is still in progress");
+                }
+                if (!existing.getFingerprint().equals(fingerprint)) {
+                    throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+                }
+                T response = fromJson(existing.getResponse(), responseType);
+                cache.put(key, new StoredResponse(fingerprint, response));
+                return response;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.idempotency.cleanup-interval:PT10M}")
+    public void purgeExpired() {
+        Integer purged = transactionTemplate.execute(status -> repository.deleteExpired(Instant.now()));
+        if (purged != null && purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not store the response for an idempotency key", ex);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(json, responseType);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read the stored response of an idempotency key", ex);
+        }
+    }
+
+    private record StoredResponse(String fingerprint, Object response) {
+
+        //the fingerprint starts with the operation, so a matching one also means a matching response type
+        private <T> T replay(String requestFingerprint, Class<T> responseType) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+            }
+            return responseType.cast(response);
+        }
+    }
+}
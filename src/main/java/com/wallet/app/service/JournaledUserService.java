@@ -0,0 +1,439 @@
+package com.wallet.app.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wallet.app.dto.BatchItemResult;
+import com.wallet.app.dto.BatchTransactionItem;
+import com.wallet.app.dto.BatchTransactionRequest;
+import com.wallet.app.dto.BatchTransactionResponse;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.TransferResponse;
+import com.wallet.app.dto.WalletRequest;
+import com.wallet.app.dto.WalletResponse;
+import com.wallet.app.event.BalanceChangedEvent;
+import com.wallet.app.event.TransactionCommittedEvent;
+import com.wallet.app.exception.InsufficientBalanceException;
+import com.wallet.app.exception.WalletNotFoundException;
+import com.wallet.app.journal.JournalRecord;
+import com.wallet.app.journal.LedgerJournal;
+import com.wallet.app.model.Transaction;
+import com.wallet.app.model.TransactionType;
+import com.wallet.app.model.Wallet;
+import com.wallet.app.repository.TransactionRepository;
+import com.wallet.app.repository.WalletRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write mode where deposits and withdrawals are acknowledged once they are in the local
+ * {@link LedgerJournal}. A background drainer copies the journal into the wallets and
+ * transactions tables in batches, and whatever is left in the journal is replayed on startup.
+ *
+ * Balances of wallets with records still in the journal are held in memory and are
+ * authoritative, so a wallet must only be written through one node while this mode is on. Once
+ * a wallet's records are drained its entry is dropped, so memory follows the journal backlog and
+ * not the number of wallets; reads of such wallets go through {@link UserServiceImpl}, with its
+ * cache and read routing, which the drain keeps current by publishing BalanceChangedEvent.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "wallet.write-mode", havingValue = "journal")
+public class JournaledUserService implements UserService
+{
+    private static final Logger log = LoggerFactory.getLogger(JournaledUserService.class);
+
+    private final UserServiceImpl delegate;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LedgerJournal journal;
+    private final long drainIntervalMillis;
+    private final int drainBatch;
+    //only wallets with undrained records, see evictDrained
+    private final Map<String, WalletState> wallets = new ConcurrentHashMap<>();
+    //last drained journal sequence of wallets that may be dropped from wallets
+    private final Map<String, Long> drainedUpTo = new ConcurrentHashMap<>();
+    //locks rather than monitors throughout: a drain (and its jdbc calls) can run while they are held,
+    //which would pin the carrier of a virtual thread
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private ScheduledExecutorService drainer;
+
+    public JournaledUserService(UserServiceImpl delegate,
+                                WalletRepository walletRepository,
+                                TransactionRepository transactionRepository,
+                                PlatformTransactionManager transactionManager,
+                                TransactionIdGenerator transactionIdGenerator,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${wallet.journal.path:./data/ledger.journal}") String path,
+                                @Value("${wallet.journal.size-mb:64}") int sizeMb,
+                                @Value("${wallet.journal.drain-interval-ms:20}") long drainIntervalMillis,
+                                @Value("${wallet.journal.drain-batch:2000}") int drainBatch) throws IOException {
+        this.delegate = delegate;
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.eventPublisher = eventPublisher;
+        //the journal is one mapped buffer, so it is limited to 2 GB; larger sizes fail here instead of wrapping negative
+        this.journal = new LedgerJournal(Path.of(path), Math.toIntExact(sizeMb * 1024L * 1024));
+        this.drainIntervalMillis = drainIntervalMillis;
+        this.drainBatch = drainBatch;
+    }
+
+    @PostConstruct
+    public void start() {
+        //replay whatever the previous run acknowledged but did not persist yet
+        int pending = journal.backlog();
+        if (pending > 0) {
+            log.info("Replaying {} journal records into the database", pending);
+        }
+        drainAll();
+        drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-journal-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.scheduleWithFixedDelay(this::drainQuietly, drainIntervalMillis, drainIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        drainer.shutdown();
+        drainer.awaitTermination(10, TimeUnit.SECONDS);
+        drainAll();
+        journal.close();
+    }
+
+    @Override
+    public WalletResponse create(WalletRequest request) {
+        return delegate.create(request);
+    }
+
+    @Override
+    public int getBalance(String walletId) {
+        WalletState state = wallets.get(walletId);
+        if (state != null) {
+            state.lock.lock();
+            try {
+                if (!state.evicted) {
+                    return state.balance;
+                }
+            } finally {
+                state.lock.unlock();
+            }
+        }
+        //nothing undrained, the database has the balance
+        return delegate.getBalance(walletId);
+    }
+
+    @Override
+    public TransactionResponse deposit(String walletId, int amount) {
+        return apply(walletId, TransactionType.DEPOSIT, amount, true);
+    }
+
+    @Override
+    public TransactionResponse withdraw(String walletId, int amount) {
+        return apply(walletId, TransactionType.WITHDRAW, amount, true);
+    }
+
+    @Override
+    public BatchTransactionResponse applyBatch(BatchTransactionRequest request) {
+        List<BatchTransactionItem> items = request.getItems() == null ? List.of() : request.getItems();
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        for (int index = 0; index < items.size(); index++) {
+            BatchTransactionItem item = items.get(index);
+            String invalid = UserServiceImpl.validate(item);
+            if (invalid != null) {
+                results.add(BatchItemResult.failed(index, invalid));
+                continue;
+            }
+            try {
+                results.add(BatchItemResult.ok(index, apply(item.getWalletId(), item.getType(), item.getAmount(), false)));
+            } catch (RuntimeException ex) {
+                results.add(BatchItemResult.failed(index, ex.getMessage()));
+            }
+        }
+        //one flush for the whole batch
+        journal.awaitDurable(journal.lastSequence());
+        return BatchTransactionResponse.of(results);
+    }
+
+    @Override
+    public TransferResponse transfer(String fromWalletId, String toWalletId, int amount) {
+        UserServiceImpl.requireTransfer(fromWalletId, toWalletId, amount);
+        String debitId = transactionIdGenerator.nextId();
+        String creditId = transactionIdGenerator.nextId();
+        long sequence;
+        int fromBalance;
+        int toBalance;
+        WalletState from;
+        WalletState to;
+        WalletState first;
+        WalletState second;
+        while (true) {
+            from = state(fromWalletId);
+            to = state(toWalletId);
+            //locks taken in walletId order, so opposite transfers cannot deadlock
+            boolean fromFirst = fromWalletId.compareTo(toWalletId) < 0;
+            first = fromFirst ? from : to;
+            second = fromFirst ? to : from;
+            first.lock.lock();
+            second.lock.lock();
+            if (!from.evicted && !to.evicted) {
+                break;
+            }
+            //drained and dropped in between, load them again
+            second.lock.unlock();
+            first.lock.unlock();
+        }
+        try {
+            if (from.balance < amount) {
+                throw new InsufficientBalanceException("Insufficient balance in account!");
+            }
+            fromBalance = from.balance - amount;
+            toBalance = to.balance + amount;
+            sequence = journal.appendTransfer(fromWalletId, debitId, fromBalance, toWalletId, creditId, toBalance, amount);
+            while (sequence < 0) {
+                drainAll();
+                sequence = journal.appendTransfer(fromWalletId, debitId, fromBalance, toWalletId, creditId, toBalance, amount);
+            }
+            from.balance = fromBalance;
+            to.balance = toBalance;
+            from.lastSequence = sequence;
+            to.lastSequence = sequence;
+        } finally {
+            second.lock.unlock();
+            first.lock.unlock();
+        }
+        journal.awaitDurable(sequence);
+        return TransferResponse.builder()
+                               .fromWalletId(fromWalletId)
+                               .toWalletId(toWalletId)
+                               .amount(amount)
+                               .debit(TransactionResponse.builder().transactionId(debitId).walletId(fromWalletId)
+                                                         .type(TransactionType.TRANSFER_OUT).amount(amount).balanceAfter(fromBalance).build())
+                               .credit(TransactionResponse.builder().transactionId(creditId).walletId(toWalletId)
+                                                          .type(TransactionType.TRANSFER_IN).amount(amount).balanceAfter(toBalance).build())
+                               .build();
+    }
+
+    private TransactionResponse apply(String walletId, TransactionType type, int amount, boolean awaitDurable) {
+        UserServiceImpl.requirePositive(amount);
+        String transactionId = transactionIdGenerator.nextId();
+        long sequence;
+        int balanceAfter;
+        WalletState state = lockedState(walletId);
+        try {
+            balanceAfter = type == TransactionType.DEPOSIT ? state.balance + amount : state.balance - amount;
+            if (balanceAfter < 0) {
+                throw new InsufficientBalanceException("Insufficient balance in account!");
+            }
+            sequence = append(type, walletId, transactionId, amount, balanceAfter);
+            state.balance = balanceAfter;
+            state.lastSequence = sequence;
+        } finally {
+            state.lock.unlock();
+        }
+        //acknowledge only once the record is on disk
+        if (awaitDurable) {
+            journal.awaitDurable(sequence);
+        }
+        return TransactionResponse.builder()
+                                  .transactionId(transactionId)
+                                  .walletId(walletId)
+                                  .type(type)
+                                  .amount(amount)
+                                  .balanceAfter(balanceAfter)
+                                  .build();
+    }
+
+    private long append(TransactionType type, String walletId, String transactionId, int amount, int balanceAfter) {
+        long sequence = journal.append(type, walletId, transactionId, amount, balanceAfter);
+        while (sequence < 0) {
+            //journal is full, persist the backlog so it can wrap around
+            drainAll();
+            sequence = journal.append(type, walletId, transactionId, amount, balanceAfter);
+        }
+        return sequence;
+    }
+
+    //locked and still in the map, an entry dropped by the drain in between is loaded again
+    private WalletState lockedState(String walletId) {
+        while (true) {
+            WalletState state = state(walletId);
+            state.lock.lock();
+            if (!state.evicted) {
+                return state;
+            }
+            state.lock.unlock();
+        }
+    }
+
+    private WalletState state(String walletId) {
+        WalletState state = wallets.get(walletId);
+        if (state != null) {
+            return state;
+        }
+        //loaded outside computeIfAbsent, its bin lock is a monitor; only journaled writes change the row
+        //once a state exists, and it is dropped only after they are committed, so whichever load wins the put is current
+        WalletState loaded = new WalletState(walletRepository.findByWalletId(walletId)
+                                                             .orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"))
+                                                             .getBalance());
+        state = wallets.putIfAbsent(walletId, loaded);
+        if (state != null) {
+            return state;
+        }
+        //dropped again by the next drain if no record is ever written, e.g. a rejected withdrawal
+        drainedUpTo.merge(walletId, -1L, Math::max);
+        return loaded;
+    }
+
+    private void drainQuietly() {
+        try {
+            drainAll();
+            evictIdle();
+        } catch (RuntimeException ex) {
+            log.warn("Draining the ledger journal failed, will retry", ex);
+        }
+    }
+
+    //whether the wallet's balance is held in memory right now
+    boolean isTracked(String walletId) {
+        return wallets.containsKey(walletId);
+    }
+
+    private void drainAll() {
+        while (drainOnce() > 0) {
+            //keep going until the backlog is empty
+        }
+    }
+
+    private int drainOnce() {
+        drainLock.lock();
+        try {
+            List<JournalRecord> records = journal.readUndrained(drainBatch);
+            if (records.isEmpty()) {
+                return 0;
+            }
+            transactionTemplate.executeWithoutResult(status -> persist(records));
+            journal.markDrained(records.size());
+            evictDrained(records);
+            return records.size();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    //wallets whose last record is now in the database are read from there again
+    private void evictDrained(List<JournalRecord> records) {
+        for (JournalRecord record : records) {
+            drainedUpTo.merge(record.getWalletId(), record.getSequence(), Math::max);
+        }
+        evictIdle();
+    }
+
+    //tryLock: a writer holding a wallet lock can be waiting for the drain lock (journal full), so this never blocks;
+    //a wallet that is busy right now is tried again on the next drain
+    private void evictIdle() {
+        drainedUpTo.forEach((walletId, sequence) -> {
+            WalletState state = wallets.get(walletId);
+            if (state == null) {
+                drainedUpTo.remove(walletId, sequence);
+                return;
+            }
+            if (!state.lock.tryLock()) {
+                return;
+            }
+            try {
+                if (state.lastSequence <= sequence) {
+                    state.evicted = true;
+                    wallets.remove(walletId, state);
+                }
+                drainedUpTo.remove(walletId, sequence);
+            } finally {
+                state.lock.unlock();
+            }
+        });
+    }
+
+    private void persist(List<JournalRecord> records) {
+        Set<String> walletIds = new HashSet<>();
+        List<String> transactionIds = new ArrayList<>(records.size());
+        for (JournalRecord record : records) {
+            walletIds.add(record.getWalletId());
+            transactionIds.add(record.getTransactionId());
+        }
+        //locked like every other write, so walletSeq stays in commit order if another node touches the wallet
+        Map<String, Wallet> byWalletId = walletRepository.findByWalletIdInForUpdate(walletIds).stream()
+                .collect(Collectors.toMap(Wallet::getWalletId, Function.identity()));
+        //after a crash between commit and markDrained some records are already stored
+        Set<String> stored = new HashSet<>(transactionRepository.findExistingTransactionIds(transactionIds));
+
+        List<Transaction> rows = new ArrayList<>(records.size());
+        for (JournalRecord record : records) {
+            Wallet wallet = byWalletId.get(record.getWalletId());
+            if (wallet == null) {
+                log.warn("Dropping journal record {} for unknown wallet {}", record.getSequence(), record.getWalletId());
+                continue;
+            }
+            //records are in order, so the last one of a wallet leaves its final balance
+            wallet.setBalance(record.getBalanceAfter());
+            if (!stored.contains(record.getTransactionId())) {
+                wallet.setLedgerSeq(wallet.getLedgerSeq() + 1);
+                rows.add(Transaction.builder().transactionId(record.getTransactionId())
+                                    .amount(record.getAmount())
+                                    .balanceAfter(record.getBalanceAfter())
+                                    .type(record.getType())
+                                    .walletSeq(wallet.getLedgerSeq())
+                                    .wallet(wallet)
+                                    .build());
+            }
+        }
+        transactionRepository.saveAll(rows);
+        //caches and replica routing of the other paths learn about it after the commit, like in the other write modes
+        walletIds.forEach(walletId -> eventPublisher.publishEvent(new BalanceChangedEvent(walletId)));
+        //streamed once they are in the database, like in the other write modes
+        rows.stream()
+            .collect(Collectors.groupingBy(row -> row.getWallet().getWalletId(), LinkedHashMap::new, Collectors.toList()))
+            .forEach((walletId, walletRows) -> eventPublisher.publishEvent(new TransactionCommittedEvent(walletId, walletRows)));
+    }
+
+    private static final class WalletState {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int balance;
+        //journal sequence of this wallet's last record, and set once the entry was dropped after draining it
+        private long lastSequence = -1;
+        private boolean evicted;
+
+        private WalletState(int balance) {
+            this.balance = balance;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.wallet.app.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wallet.app.dto.ReconciliationReport;
+import com.wallet.app.dto.WalletMismatch;
+import com.wallet.app.exception.ReconciliationInProgressException;
+import com.wallet.app.model.TransactionType;
+
+/**
+ * Replays the transactions table against the balanceAfter chain and the final wallet balance.
+ *
+ * Wallets are split into primary key ranges. Each range is checked on a fork-join worker inside
+ * its own repeatable-read transaction, so wallet balances and transaction rows come from one
+ * snapshot, and rows are streamed in (wallet_id, wallet_seq) order with only the current wallet
+ * kept in memory. wallet_seq follows commit order within a wallet (ids are pooled and do not), so
+ * the chain is replayed in the order it was applied, and a consistent wallet's balance snapshot
+ * lets the next run start after the last wallet_seq it covered without skipping a late commit.
+ * Hot wallets (balance spread over wallet_slots) are checked by their total only, starting from
+ * the snapshot written when their slots were configured; slot rows the compactor has not
+ * sequenced yet count towards the total but are only folded into the snapshot once sequenced.
+ */
+@Service
+public class ReconciliationService
+{
+    private static final String WALLET_BOUNDARY_SQL =
+            "select max(id) from (select id from wallets where id > ? order by id limit ?) chunk";
+    private static final String WALLETS_SQL =
+            "select w.id, w.wallet_id, w.balance, w.slot_count, "
+          + "coalesce((select sum(s.balance) from wallet_slots s where s.wallet_pk = w.id), 0) "
+          + "from wallets w where w.id > ? and w.id <= ?";
+    private static final String SNAPSHOTS_SQL =
+            "select wallet_pk, last_wallet_seq, balance from balance_snapshots where wallet_pk > ? and wallet_pk <= ?";
+    private static final String TRANSACTIONS_SQL =
+            "select t.wallet_id, t.id, t.type, t.amount, t.balance_after, t.slot, t.wallet_seq from transactions t "
+          + "left join balance_snapshots s on s.wallet_pk = t.wallet_id "
+          + "where t.wallet_id > ? and t.wallet_id <= ? "
+          + "and (t.wallet_seq > coalesce(s.last_wallet_seq, 0) or t.wallet_seq is null) "
+          + "order by t.wallet_id, t.wallet_seq nulls last, t.id";
+    private static final String UPDATE_SNAPSHOT_SQL =
+            "update balance_snapshots set last_wallet_seq = ?, balance = ?, taken_at = ? where wallet_pk = ?";
+    private static final String INSERT_SNAPSHOT_SQL =
+            "insert into balance_snapshots (wallet_pk, last_wallet_seq, balance, taken_at) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int parallelism;
+    private final int chunkWallets;
+    private final int maxReportedMismatches;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReconciliationService(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${wallet.reconciliation.parallelism:4}") int parallelism,
+                                 @Value("${wallet.reconciliation.chunk-wallets:1000}") int chunkWallets,
+                                 @Value("${wallet.reconciliation.fetch-size:1000}") int fetchSize,
+                                 @Value("${wallet.reconciliation.max-reported-mismatches:1000}") int maxReportedMismatches) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.parallelism = parallelism;
+        this.chunkWallets = chunkWallets;
+        this.maxReportedMismatches = maxReportedMismatches;
+    }
+
+    public ReconciliationReport run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ReconciliationInProgressException("Reconciliation is already running");
+        }
+        long started = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ChunkResult total = new ChunkResult();
+            //bounded number of chunks in flight, the producer only walks the primary key index
+            Deque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+            long after = 0;
+            Long upTo;
+            while ((upTo = jdbcTemplate.queryForObject(WALLET_BOUNDARY_SQL, Long.class, after, chunkWallets)) != null) {
+                long from = after;
+                long to = upTo;
+                inFlight.add(pool.submit(() -> reconcileChunk(from, to)));
+                if (inFlight.size() >= parallelism * 2) {
+                    total.merge(inFlight.poll().join(), maxReportedMismatches);
+                }
+                after = upTo;
+            }
+            while (!inFlight.isEmpty()) {
+                total.merge(inFlight.poll().join(), maxReportedMismatches);
+            }
+            return ReconciliationReport.builder()
+                                       .walletsChecked(total.walletsChecked)
+                                       .transactionsChecked(total.transactionsChecked)
+                                       .snapshotsWritten(total.snapshotsWritten)
+                                       .mismatchCount(total.mismatchCount)
+                                       .mismatches(total.mismatches)
+                                       .durationMillis(System.currentTimeMillis() - started)
+                                       .build();
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+
+    //checks wallets with from < id <= to
+    private ChunkResult reconcileChunk(long from, long to) {
+        ChunkResult result = readTransaction.execute(status -> {
+            Map<Long, WalletLedger> ledgers = new HashMap<>();
+            jdbcTemplate.query(WALLETS_SQL, rs -> {
+                ledgers.put(rs.getLong(1), new WalletLedger(rs.getString(2), rs.getLong(3) + rs.getLong(5), rs.getInt(4) > 0));
+            }, from, to);
+            jdbcTemplate.query(SNAPSHOTS_SQL, rs -> {
+                WalletLedger ledger = ledgers.get(rs.getLong(1));
+                if (ledger != null) {
+                    ledger.resumeFrom(rs.getLong(2), rs.getLong(3));
+                }
+            }, from, to);
+
+            ChunkResult chunk = new ChunkResult();
+            jdbcTemplate.query(TRANSACTIONS_SQL, rs -> {
+                WalletLedger ledger = ledgers.get(rs.getLong(1));
+                if (ledger != null) {
+                    boolean slotRow = rs.getObject(6) != null;
+                    Long walletSeq = rs.getObject(7) == null ? null : rs.getLong(7);
+                    ledger.apply(rs.getLong(2), walletSeq, TransactionType.valueOf(rs.getString(3)), rs.getInt(4), rs.getLong(5),
+                            slotRow, chunk, maxReportedMismatches);
+                    chunk.transactionsChecked++;
+                }
+            }, from, to);
+
+            ledgers.forEach((walletPk, ledger) -> {
+                ledger.finish(walletPk, chunk, maxReportedMismatches);
+                chunk.walletsChecked++;
+            });
+            return chunk;
+        });
+        writeSnapshots(result.snapshots);
+        result.snapshotsWritten = result.snapshots.size();
+        result.snapshots = List.of();
+        return result;
+    }
+
+    private void writeSnapshots(List<Object[]> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        writeTransaction.executeWithoutResult(status -> {
+            Timestamp now = Timestamp.from(Instant.now());
+            List<Object[]> updates = new ArrayList<>(snapshots.size());
+            for (Object[] snapshot : snapshots) {
+                updates.add(new Object[] {snapshot[1], snapshot[2], now, snapshot[0]});
+            }
+            int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SNAPSHOT_SQL, updates, updates.size(),
+                    (ps, row) -> {
+                        ps.setLong(1, (Long) row[0]);
+                        ps.setLong(2, (Long) row[1]);
+                        ps.setTimestamp(3, (Timestamp) row[2]);
+                        ps.setLong(4, (Long) row[3]);
+                    });
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < snapshots.size(); i++) {
+                if (counts[0][i] == 0) {
+                    Object[] snapshot = snapshots.get(i);
+                    inserts.add(new Object[] {snapshot[0], snapshot[1], snapshot[2], now});
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, inserts);
+            }
+        });
+    }
+
+    //replay state of one wallet while its rows stream past
+    private static final class WalletLedger {
+        private final String walletId;
+        //wallet row plus slot rows
+        private final long storedBalance;
+        private boolean hot;
+        //balance up to lastWalletSeq, unsequenced slot rows are kept apart in pending
+        private Long balance;
+        private long pending;
+        private long lastWalletSeq;
+        private boolean consistent = true;
+        private boolean advanced;
+
+        private WalletLedger(String walletId, long storedBalance, boolean hot) {
+            this.walletId = walletId;
+            this.storedBalance = storedBalance;
+            this.hot = hot;
+        }
+
+        private void resumeFrom(long lastWalletSeq, long balance) {
+            this.lastWalletSeq = lastWalletSeq;
+            this.balance = balance;
+        }
+
+        private void apply(long transactionId, Long walletSeq, TransactionType type, int amount, long balanceAfter,
+                           boolean slotRow, ChunkResult result, int maxReported) {
+            long delta = type.delta(amount);
+            if (walletSeq == null) {
+                //slot row the compactor has not sequenced yet, part of the total but not of a snapshot
+                hot = true;
+                pending += delta;
+                return;
+            }
+            if (hot || slotRow) {
+                //slot writes can commit out of the order of their balanceAfter, only the running total can be followed
+                hot = true;
+                if (balance != null) {
+                    balance += delta;
+                }
+                lastWalletSeq = walletSeq;
+                advanced = true;
+                return;
+            }
+            //without a snapshot the opening balance is whatever the first row implies
+            long expected = (balance == null ? balanceAfter - delta : balance) + delta;
+            if (expected != balanceAfter) {
+                consistent = false;
+                result.report(new WalletMismatch(walletId, transactionId, expected, balanceAfter,
+                        "balanceAfter does not follow from the previous balance"), maxReported);
+            }
+            //continue from the stored value so one bad row is reported once
+            balance = balanceAfter;
+            lastWalletSeq = walletSeq;
+            advanced = true;
+        }
+
+        private void finish(long walletPk, ChunkResult result, int maxReported) {
+            if (balance == null && hot) {
+                //hot wallet without an anchor snapshot, there is no opening balance to start from
+                return;
+            }
+            if (balance == null) {
+                //no snapshot and no transactions yet, the current balance is the opening balance
+                balance = storedBalance;
+                advanced = true;
+            }
+            if (balance + pending != storedBalance) {
+                consistent = false;
+                result.report(new WalletMismatch(walletId, null, balance + pending, storedBalance,
+                        "wallet balance differs from the end of its ledger"), maxReported);
+            }
+            if (consistent && advanced) {
+                result.snapshots.add(new Object[] {walletPk, lastWalletSeq, balance});
+            }
+        }
+    }
+
+    private static final class ChunkResult {
+        private long walletsChecked;
+        private long transactionsChecked;
+        private long mismatchCount;
+        private long snapshotsWritten;
+        private final List<WalletMismatch> mismatches = new ArrayList<>();
+        //wallet pk, last wallet seq, balance
+        private List<Object[]> snapshots = new ArrayList<>();
+
+        private void report(WalletMismatch mismatch, int maxReported) {
+            mismatchCount++;
+            if (mismatches.size() < maxReported) {
+                mismatches.add(mismatch);
+            }
+        }
+
+        private void merge(ChunkResult other, int maxReported) {
+            walletsChecked += other.walletsChecked;
+            transactionsChecked += other.transactionsChecked;
+            mismatchCount += other.mismatchCount;
+            snapshotsWritten += other.snapshotsWritten;
+            for (WalletMismatch mismatch : other.mismatches) {
+                if (mismatches.size() >= maxReported) {
+                    break;
+                }
+                mismatches.add(mismatch);
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.wallet.app.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wallet.app.dto.BatchTransactionRequest;
+import com.wallet.app.dto.BatchTransactionResponse;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.TransferResponse;
+import com.wallet.app.dto.WalletRequest;
+import com.wallet.app.dto.WalletResponse;
+import com.wallet.app.event.BalanceChangedEvent;
+import com.wallet.app.event.TransactionCommittedEvent;
+import com.wallet.app.exception.InsufficientBalanceException;
+import com.wallet.app.exception.WalletNotFoundException;
+import com.wallet.app.exception.WalletShardUnavailableException;
+import com.wallet.app.model.Transaction;
+import com.wallet.app.model.TransactionType;
+import com.wallet.app.model.Wallet;
+import com.wallet.app.repository.TransactionRepository;
+import com.wallet.app.repository.WalletRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write mode where every wallet is owned by exactly one shard thread.
+ * Operations queued for the same wallet within the linger window are applied as one
+ * balance update plus one batch of transaction rows, in a single db transaction.
+ * Reads and wallet creation go straight to {@link UserServiceImpl}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "wallet.write-mode", havingValue = "sharded")
+public class ShardedUserService implements UserService
+{
+    private final UserServiceImpl delegate;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Shard[] shards;
+    private final long lingerNanos;
+    private final int maxBatch;
+    private final long submitTimeoutNanos;
+    private volatile boolean stopped;
+
+    public ShardedUserService(UserServiceImpl delegate,
+                              WalletRepository walletRepository,
+                              TransactionRepository transactionRepository,
+                              PlatformTransactionManager transactionManager,
+                              TransactionIdGenerator transactionIdGenerator,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${wallet.sharding.shards:8}") int shardCount,
+                              @Value("${wallet.sharding.linger-micros:300}") long lingerMicros,
+                              @Value("${wallet.sharding.max-batch:256}") int maxBatch,
+                              @Value("${wallet.sharding.submit-timeout:PT10S}") Duration submitTimeout) {
+        if (shardCount <= 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("wallet.sharding.shards and wallet.sharding.max-batch must be positive");
+        }
+        if (submitTimeout.isNegative() || submitTimeout.isZero()) {
+            throw new IllegalArgumentException("wallet.sharding.submit-timeout must be positive");
+        }
+        this.submitTimeoutNanos = submitTimeout.toNanos();
+        this.delegate = delegate;
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.eventPublisher = eventPublisher;
+        this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+        this.maxBatch = maxBatch;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard("wallet-shard-" + i);
+            shards[i].start();
+        }
+    }
+
+    @Override
+    public WalletResponse create(WalletRequest request) {
+        return delegate.create(request);
+    }
+
+    @Override
+    public int getBalance(String walletId) {
+        return delegate.getBalance(walletId);
+    }
+
+    @Override
+    public TransactionResponse deposit(String walletId, int amount) {
+        return submit(walletId, TransactionType.DEPOSIT, amount);
+    }
+
+    @Override
+    public TransactionResponse withdraw(String walletId, int amount) {
+        return submit(walletId, TransactionType.WITHDRAW, amount);
+    }
+
+    //batches lock their wallet rows, so they stay consistent with the shards without going through them
+    @Override
+    public BatchTransactionResponse applyBatch(BatchTransactionRequest request) {
+        return delegate.applyBatch(request);
+    }
+
+    //transfers lock both rows in walletId order, like batches, so they do not need the shards either
+    @Override
+    public TransferResponse transfer(String fromWalletId, String toWalletId, int amount) {
+        return delegate.transfer(fromWalletId, toWalletId, amount);
+    }
+
+    //new submissions are turned away first, then every operation still queued is failed
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopped = true;
+        for (Shard shard : shards) {
+            shard.interrupt();
+        }
+        for (Shard shard : shards) {
+            shard.join(TimeUnit.NANOSECONDS.toMillis(lingerNanos) + 1000);
+            shard.failQueued();
+        }
+    }
+
+    private TransactionResponse submit(String walletId, TransactionType type, int amount) {
+        UserServiceImpl.requirePositive(amount);
+        //hot wallets spread their writes over slot rows instead of one shard thread, and a caller's
+        //transaction (an Idempotency-Key claim) must commit together with the write, which a shard's cannot;
+        //both lock the wallet row like batches do, so they stay consistent with the shards
+        if (delegate.isHot(walletId) || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return type == TransactionType.DEPOSIT ? delegate.deposit(walletId, amount) : delegate.withdraw(walletId, amount);
+        }
+        if (stopped) {
+            throw new WalletShardUnavailableException("Wallet shards are stopping, try again later");
+        }
+        PendingOperation operation = new PendingOperation(walletId, type, amount);
+        Shard shard = shards[Math.floorMod(walletId.hashCode(), shards.length)];
+        shard.queue.add(operation);
+        //stopped or died between the check and the add, nothing would ever take it
+        if (stopped || !shard.isAlive()) {
+            shard.failQueued();
+        }
+        try {
+            return operation.result.get(submitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            //still queued, it is withdrawn; taken already, it may yet be applied
+            shard.queue.remove(operation);
+            throw new WalletShardUnavailableException("Wallet shard did not answer in time, the operation may still be applied");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Wallet shard failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for wallet shard", ex);
+        }
+    }
+
+    //applies all queued operations of one wallet in a single db transaction
+    private void apply(String walletId, List<PendingOperation> operations) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Wallet wallet = walletRepository.findByWalletIdForUpdate(walletId)
+                        .orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"));
+                int balance = wallet.getBalance();
+                long walletSeq = wallet.getLedgerSeq();
+                List<Transaction> accepted = new ArrayList<>(operations.size());
+                for (PendingOperation operation : operations) {
+                    operation.transaction = null;
+                    if (operation.type == TransactionType.WITHDRAW && balance < operation.amount) {
+                        continue;
+                    }
+                    balance += operation.type == TransactionType.DEPOSIT ? operation.amount : -operation.amount;
+                    operation.transaction = Transaction.builder().transactionId(transactionIdGenerator.nextId())
+                                            .amount(operation.amount)
+                                            .balanceAfter(balance)
+                                            .type(operation.type)
+                                            .walletSeq(++walletSeq)
+                                            .wallet(wallet)
+                                            .build();
+                    accepted.add(operation.transaction);
+                }
+                //managed entity, flushed as one update together with the batched inserts
+                wallet.setBalance(balance);
+                wallet.setLedgerSeq(walletSeq);
+                transactionRepository.saveAll(accepted);
+                eventPublisher.publishEvent(new BalanceChangedEvent(walletId));
+                if (!accepted.isEmpty()) {
+                    eventPublisher.publishEvent(new TransactionCommittedEvent(walletId, accepted));
+                }
+            });
+        } catch (RuntimeException ex) {
+            for (PendingOperation operation : operations) {
+                operation.result.completeExceptionally(ex);
+            }
+            return;
+        }
+        for (PendingOperation operation : operations) {
+            if (operation.transaction == null) {
+                operation.result.completeExceptionally(new InsufficientBalanceException("Insufficient balance in account!"));
+            } else {
+                operation.result.complete(delegate.maptoDto(operation.transaction));
+            }
+        }
+    }
+
+    private static final class PendingOperation {
+        private final String walletId;
+        private final TransactionType type;
+        private final int amount;
+        private final CompletableFuture<TransactionResponse> result = new CompletableFuture<>();
+        //only touched by the owning shard thread
+        private Transaction transaction;
+
+        private PendingOperation(String walletId, TransactionType type, int amount) {
+            this.walletId = walletId;
+            this.type = type;
+            this.amount = amount;
+        }
+    }
+
+    private final class Shard extends Thread {
+        private final BlockingQueue<PendingOperation> queue = new LinkedBlockingQueue<>();
+
+        private Shard(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<PendingOperation> batch = new ArrayList<>(maxBatch);
+            try {
+                while (!isInterrupted()) {
+                    batch.add(queue.take());
+                    //group commit window, wait a little for more operations before hitting the db
+                    long deadline = System.nanoTime() + lingerNanos;
+                    while (batch.size() < maxBatch) {
+                        long remaining = deadline - System.nanoTime();
+                        PendingOperation next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    Map<String, List<PendingOperation>> byWallet = new LinkedHashMap<>();
+                    for (PendingOperation operation : batch) {
+                        byWallet.computeIfAbsent(operation.walletId, id -> new ArrayList<>()).add(operation);
+                    }
+                    byWallet.forEach(ShardedUserService.this::apply);
+                    batch.clear();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                WalletShardUnavailableException failure = new WalletShardUnavailableException("Wallet shard stopped");
+                batch.forEach(operation -> operation.result.completeExceptionally(failure));
+                failQueued();
+            }
+        }
+
+        //completing a future that already has a result does nothing, so this is safe from any thread
+        private void failQueued() {
+            WalletShardUnavailableException failure = new WalletShardUnavailableException("Wallet shard stopped");
+            for (PendingOperation operation; (operation = queue.poll()) != null; ) {
+                operation.result.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.wallet.app.service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Snowflake style ids: 41 bits of milliseconds since 2025-01-01, 10 bits of node id and a
+ * 12 bit per-millisecond counter, rendered as 13 Crockford base32 characters.
+ *
+ * Ids from one node are strictly increasing and sort the same as strings, so new rows
+ * always land at the right edge of the transactionId index. Allocation is a single CAS;
+ * when the counter runs out or the clock steps back the id keeps counting on the last
+ * timestamp instead of waiting.
+ *
+ * The node id has to be set: two nodes sharing one would hand out the same ids, so the
+ * application does not start without it rather than picking one.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.transaction-id.strategy", havingValue = "time-ordered", matchIfMissing = true)
+public class TimeOrderedTransactionIdGenerator implements TransactionIdGenerator
+{
+    static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 13;
+
+    private final long nodeId;
+    //milliseconds since EPOCH shifted left by SEQUENCE_BITS, plus the counter
+    private final AtomicLong state = new AtomicLong();
+
+    public TimeOrderedTransactionIdGenerator(@Value("${wallet.transaction-id.node-id:-1}") long nodeId) {
+        if (nodeId < 0) {
+            throw new IllegalStateException("wallet.transaction-id.node-id is not set, give every node its own id between 0 and "
+                    + MAX_NODE_ID);
+        }
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("wallet.transaction-id.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String nextId() {
+        long id = nextLong();
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    public long nextLong() {
+        while (true) {
+            long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+            long last = state.get();
+            //counter overflow carries into the timestamp, so we borrow the next millisecond
+            long next = now > last ? now : last + 1;
+            if (state.compareAndSet(last, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.wallet.app.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+//an export that has been validated and is ready to be streamed to the client
+@FunctionalInterface
+public interface TransactionExport {
+
+    void writeTo(OutputStream out) throws IOException;
+}
@@ -0,0 +1,20 @@
+package com.wallet.app.service;
+
+import com.wallet.app.dto.ExportFormat;
+import com.wallet.app.dto.TransactionPageResponse;
+
+/**
+ * Paged and streamed reads of a wallet's transactions, in walletSeq order.
+ *
+ * The after cursor is a walletSeq. Every write takes the next walletSeq of its wallet under the
+ * wallet row lock, so a row that commits later always sorts after the rows already visible and
+ * a page that has moved past a cursor cannot miss one. Hot wallet slot rows get their walletSeq
+ * from the compactor and only show up once it has run (wallet.hot.compact-interval).
+ */
+public interface TransactionHistoryService
+{
+
+   TransactionPageResponse getTransactions(String walletId, long after, int limit);
+   TransactionExport openExport(String walletId, long after, ExportFormat format);
+
+}
@@ -0,0 +1,122 @@
+package com.wallet.app.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.wallet.app.datasource.ReadRouting;
+import com.wallet.app.dto.ExportFormat;
+import com.wallet.app.dto.TransactionHistoryItem;
+import com.wallet.app.dto.TransactionPageResponse;
+import com.wallet.app.exception.WalletNotFoundException;
+import com.wallet.app.repository.TransactionRepository;
+import com.wallet.app.repository.WalletRepository;
+
+@Service
+public class TransactionHistoryServiceImpl implements TransactionHistoryService
+{
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final ReadRouting readRouting;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+
+    public TransactionHistoryServiceImpl(WalletRepository walletRepository,
+                                         TransactionRepository transactionRepository,
+                                         ReadRouting readRouting,
+                                         ObjectMapper objectMapper,
+                                         @Value("${wallet.history.max-page-size:500}") int maxPageSize) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.readRouting = readRouting;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    public TransactionPageResponse getTransactions(String walletId, long after, int limit) {
+        if (limit <= 0 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        return readRouting.read(walletId, () -> {
+            Long walletPk = requireWallet(walletId);
+            List<TransactionHistoryItem> items = transactionRepository.findPage(walletPk, after, PageRequest.ofSize(limit));
+            //a full page means there may be more, the last walletSeq is where the next page starts
+            Long nextCursor = items.size() == limit ? items.get(items.size() - 1).getWalletSeq() : null;
+            return new TransactionPageResponse(walletId, items, nextCursor);
+        });
+    }
+
+    @Override
+    public TransactionExport openExport(String walletId, long after, ExportFormat format) {
+        //resolve the wallet up front so an unknown wallet is still a 404 and not a broken stream
+        Long walletPk = readRouting.read(walletId, () -> requireWallet(walletId));
+        return out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            try {
+                readRouting.read(walletId, () -> {
+                    try (Stream<TransactionHistoryItem> rows = transactionRepository.streamByWallet(walletPk, after)) {
+                        if (format == ExportFormat.CSV) {
+                            writeCsv(rows, writer);
+                        } else {
+                            writeNdjson(rows, writer);
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    return null;
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            writer.flush();
+        };
+    }
+
+    private Long requireWallet(String walletId) {
+        return walletRepository.findIdByWalletId(walletId)
+                               .orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"));
+    }
+
+    private void writeNdjson(Stream<TransactionHistoryItem> rows, Writer writer) throws IOException {
+        SequenceWriter json = objectMapper.writer().withRootValueSeparator("\n").writeValues(writer);
+        boolean any = false;
+        for (TransactionHistoryItem row : (Iterable<TransactionHistoryItem>) rows::iterator) {
+            json.write(row);
+            any = true;
+        }
+        json.flush();
+        if (any) {
+            writer.write('\n');
+        }
+    }
+
+    private void writeCsv(Stream<TransactionHistoryItem> rows, Writer writer) throws IOException {
+        writer.write("id,walletSeq,transactionId,type,amount,balanceAfter\n");
+        for (TransactionHistoryItem row : (Iterable<TransactionHistoryItem>) rows::iterator) {
+            writer.write(row.getId().toString());
+            writer.write(',');
+            writer.write(row.getWalletSeq().toString());
+            writer.write(',');
+            writer.write(row.getTransactionId());
+            writer.write(',');
+            writer.write(row.getType().name());
+            writer.write(',');
+            writer.write(row.getAmount().toString());
+            writer.write(',');
+            writer.write(row.getBalanceAfter().toString());
+            writer.write('\n');
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.wallet.app.service;
+
+//source of the public transactionId stored on every Transaction row
+public interface TransactionIdGenerator {
+
+    String nextId();
+}
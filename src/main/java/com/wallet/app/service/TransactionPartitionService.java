@@ -0,0 +1,213 @@
+package com.wallet.app.service;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.wallet.app.dto.PartitionMaintenanceReport;
+
+/**
+ * Keeps the monthly partitions of transactions (PostgreSQL, see V8, V11 and V13) rolling.
+ *
+ * Partitions are created ahead of time. Rows that landed in the DEFAULT partition because
+ * their month had no partition yet are moved into it when it is created. Partitions older than retain-months are rolled up
+ * into transaction_daily_rollups and then detached (left as a standalone table for archiving)
+ * or dropped. A partition is only taken out once reconciliation has a balance snapshot past
+ * every wallet's last row in it, so replays never need the raw rows again. Each partition
+ * has its own small indexes, so inserts only ever touch the current month's; that includes a
+ * unique index on transaction_id, the parent can only enforce (transaction_id, created_at).
+ */
+@Service
+@ConditionalOnProperty(name = "wallet.partitioning.enabled", havingValue = "true")
+public class TransactionPartitionService
+{
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionService.class);
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("transactions_p(\\d{6})");
+    private static final String DEFAULT_PARTITION = "transactions_default";
+    private static final String PARTITIONS_SQL =
+            "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+          + "where i.inhparent = 'transactions'::regclass order by c.relname";
+    //credits and debits by TransactionType.delta, closing balance only when no slot rows are involved
+    private static final String ROLLUP_SQL =
+            "insert into transaction_daily_rollups (wallet_pk, day, transaction_count, credited, debited, closing_balance) "
+          + "select wallet_id, (created_at at time zone 'UTC')::date, count(*), "
+          + "coalesce(sum(amount) filter (where type in ('DEPOSIT', 'TRANSFER_IN')), 0), "
+          + "coalesce(sum(amount) filter (where type in ('WITHDRAW', 'TRANSFER_OUT')), 0), "
+          + "case when bool_or(slot is not null) then null else (array_agg(balance_after order by wallet_seq desc))[1] end "
+          + "from %s group by wallet_id, (created_at at time zone 'UTC')::date "
+          + "on conflict (wallet_pk, day) do update set transaction_count = excluded.transaction_count, "
+          + "credited = excluded.credited, debited = excluded.debited, closing_balance = excluded.closing_balance";
+    private static final String HAS_DEFAULT_SQL =
+            "select to_regclass('" + DEFAULT_PARTITION + "') is not null";
+    private static final String DEFAULT_ROWS_SQL =
+            "select exists (select 1 from " + DEFAULT_PARTITION + " where created_at >= ?::timestamptz and created_at < ?::timestamptz)";
+    //the rows leave the default partition before their month's partition is created, which would
+    //fail while the default still holds any, and are inserted again through the parent afterwards
+    private static final String PARK_TABLE_SQL =
+            "create temp table parked_transactions (like " + DEFAULT_PARTITION + ") on commit drop";
+    private static final String PARK_ROWS_SQL =
+            "with moved as (delete from " + DEFAULT_PARTITION + " where created_at >= ?::timestamptz and created_at < ?::timestamptz "
+          + "returning *) insert into parked_transactions select * from moved";
+    private static final String UNPARK_ROWS_SQL =
+            "insert into transactions select * from parked_transactions";
+    //a slot row without wallet_seq is not covered by any snapshot yet
+    private static final String UNRECONCILED_SQL =
+            "select count(*) from (select wallet_id, max(wallet_seq) as last_seq, bool_or(wallet_seq is null) as unsequenced "
+          + "from %s group by wallet_id) p "
+          + "left join balance_snapshots s on s.wallet_pk = p.wallet_id "
+          + "where p.unsequenced or s.last_wallet_seq is null or s.last_wallet_seq < p.last_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int premakeMonths;
+    private final int retainMonths;
+    private final boolean dropArchived;
+
+    public TransactionPartitionService(DataSource dataSource,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${wallet.partitioning.premake-months:3}") int premakeMonths,
+                                       @Value("${wallet.partitioning.retain-months:6}") int retainMonths,
+                                       @Value("${wallet.partitioning.archive:detach}") String archive) {
+        if (retainMonths < 1) {
+            throw new IllegalArgumentException("wallet.partitioning.retain-months must be at least 1");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.premakeMonths = premakeMonths;
+        this.retainMonths = retainMonths;
+        this.dropArchived = "drop".equals(archive);
+    }
+
+    @Scheduled(cron = "${wallet.partitioning.maintenance-cron:0 15 3 * * *}", zone = "UTC")
+    public void scheduledMaintenance() {
+        try {
+            PartitionMaintenanceReport report = maintain();
+            log.info("Transaction partitions: created {}, rolled up {}, detached {}, waiting for reconciliation {}",
+                    report.getCreated(), report.getRolledUp(), report.getDetached(), report.getNotReconciled());
+        } catch (RuntimeException ex) {
+            log.warn("Transaction partition maintenance failed, will retry on the next run", ex);
+        }
+    }
+
+    public synchronized PartitionMaintenanceReport maintain() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        List<String> created = createPartitions(current);
+        PartitionMaintenanceReport report = archivePartitions(current);
+        report.setCreated(created);
+        return report;
+    }
+
+    //the months from current to premake-months ahead that had no partition yet
+    List<String> createPartitions(YearMonth current) {
+        List<String> created = new ArrayList<>();
+        for (int ahead = 0; ahead <= premakeMonths; ahead++) {
+            YearMonth month = current.plusMonths(ahead);
+            String name = partitionName(month);
+            if (jdbcTemplate.queryForList(PARTITIONS_SQL, String.class).contains(name)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> createPartition(month));
+                created.add(name);
+            } catch (DataAccessException ex) {
+                //the legacy partition from V8 already covers this month
+                log.debug("Partition {} not created: {}", name, ex.getMessage());
+            }
+        }
+        return created;
+    }
+
+    private void createPartition(YearMonth month) {
+        String from = monthStart(month);
+        String to = monthStart(month.plusMonths(1));
+        boolean inDefault = Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_DEFAULT_SQL, Boolean.class))
+                && Boolean.TRUE.equals(jdbcTemplate.queryForObject(DEFAULT_ROWS_SQL, Boolean.class, from, to));
+        if (!inDefault) {
+            jdbcTemplate.execute(createPartitionSql(month));
+            jdbcTemplate.execute(uniqueTransactionIdSql(month));
+            return;
+        }
+        jdbcTemplate.execute(PARK_TABLE_SQL);
+        int parked = jdbcTemplate.update(PARK_ROWS_SQL, from, to);
+        jdbcTemplate.execute(createPartitionSql(month));
+        jdbcTemplate.execute(uniqueTransactionIdSql(month));
+        jdbcTemplate.update(UNPARK_ROWS_SQL);
+        log.info("Moved {} rows from {} into {}", parked, DEFAULT_PARTITION, partitionName(month));
+    }
+
+    //rolls up partitions older than retain-months and takes out the ones reconciliation has covered
+    PartitionMaintenanceReport archivePartitions(YearMonth current) {
+        List<String> rolledUp = new ArrayList<>();
+        List<String> detached = new ArrayList<>();
+        List<String> notReconciled = new ArrayList<>();
+        YearMonth oldestKept = current.minusMonths(retainMonths - 1L);
+        for (String partition : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class)) {
+            YearMonth month = monthOf(partition);
+            if (month == null || !month.isBefore(oldestKept)) {
+                continue;
+            }
+            boolean removed = transactionTemplate.execute(status -> {
+                jdbcTemplate.update(String.format(ROLLUP_SQL, partition));
+                Long unreconciled = jdbcTemplate.queryForObject(String.format(UNRECONCILED_SQL, partition), Long.class);
+                if (unreconciled != null && unreconciled > 0) {
+                    return false;
+                }
+                jdbcTemplate.execute("alter table transactions detach partition " + partition);
+                if (dropArchived) {
+                    jdbcTemplate.execute("drop table " + partition);
+                }
+                return true;
+            });
+            rolledUp.add(partition);
+            (removed ? detached : notReconciled).add(partition);
+        }
+        return PartitionMaintenanceReport.builder()
+                                         .created(List.of())
+                                         .rolledUp(rolledUp)
+                                         .detached(detached)
+                                         .notReconciled(notReconciled)
+                                         .build();
+    }
+
+    static String partitionName(YearMonth month) {
+        return "transactions_p" + month.format(SUFFIX);
+    }
+
+    //null for partitions that do not follow the naming scheme, e.g. transactions_legacy and transactions_default
+    static YearMonth monthOf(String partitionName) {
+        Matcher matcher = PARTITION_NAME.matcher(partitionName);
+        return matcher.matches() ? YearMonth.parse(matcher.group(1), SUFFIX) : null;
+    }
+
+    static String createPartitionSql(YearMonth month) {
+        return "create table if not exists " + partitionName(month) + " partition of transactions for values from ('"
+                + monthStart(month) + "') to ('" + monthStart(month.plusMonths(1)) + "')";
+    }
+
+    static String uniqueTransactionIdSql(YearMonth month) {
+        String partition = partitionName(month);
+        return "create unique index if not exists uk_" + partition + "_transaction_id on " + partition + " (transaction_id)";
+    }
+
+    private static String monthStart(YearMonth month) {
+        return month.atDay(1) + " 00:00:00+00";
+    }
+}
@@ -1,6 +1,9 @@
 package com.wallet.app.service;
 
+import com.wallet.app.dto.BatchTransactionRequest;
+import com.wallet.app.dto.BatchTransactionResponse;
 import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.TransferResponse;
 import com.wallet.app.dto.WalletRequest;
 import com.wallet.app.dto.WalletResponse;
 import com.wallet.app.model.Transaction;
@@ -12,5 +15,7 @@ public interface UserService
    int getBalance(String walletId);
    TransactionResponse deposit(String walletId, int amount);
    TransactionResponse withdraw(String walletId, int amount);
+   BatchTransactionResponse applyBatch(BatchTransactionRequest request);
+   TransferResponse transfer(String fromWalletId, String toWalletId, int amount);
 
 }
@@ -1,20 +1,42 @@
 package com.wallet.app.service;
 
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.wallet.app.cache.BalanceCache;
+import com.wallet.app.datasource.ReadRouting;
+import com.wallet.app.dto.BatchItemResult;
+import com.wallet.app.dto.BatchTransactionItem;
+import com.wallet.app.dto.BatchTransactionRequest;
+import com.wallet.app.dto.BatchTransactionResponse;
 import com.wallet.app.dto.Status;
 import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.TransferResponse;
 import com.wallet.app.dto.WalletRequest;
 import com.wallet.app.dto.WalletResponse;
+import com.wallet.app.dto.WalletSlotInfo;
+import com.wallet.app.event.BalanceChangedEvent;
+import com.wallet.app.event.TransactionCommittedEvent;
 import com.wallet.app.exception.InsufficientBalanceException;
 import com.wallet.app.exception.WalletNotFoundException;
 import com.wallet.app.model.Transaction;
 import com.wallet.app.model.TransactionType;
 import com.wallet.app.model.Wallet;
 import com.wallet.app.repository.TransactionRepository;
+import com.wallet.app.repository.WalletReader;
 import com.wallet.app.repository.WalletRepository;
 
 @Service
@@ -23,30 +45,59 @@ public class UserServiceImpl implements UserService
 
 
  private final WalletRepository walletRepository;    
+ private final WalletReader walletReader;
  private final TransactionRepository transactionRepository;
+ private final TransactionTemplate transactionTemplate;
+ private final TransactionIdGenerator transactionIdGenerator;
+ private final BalanceCache balanceCache;
+ private final ApplicationEventPublisher eventPublisher;
+ private final HotWalletService hotWallets;
+ private final ReadRouting readRouting;
+ private final int batchMaxItems;
+ private final int batchWalletsPerTransaction;
 
- public UserServiceImpl(WalletRepository walletRepository, TransactionRepository transactionRepository){
+ public UserServiceImpl(WalletRepository walletRepository, WalletReader walletReader, TransactionRepository transactionRepository,
+                        PlatformTransactionManager transactionManager,
+                        TransactionIdGenerator transactionIdGenerator,
+                        BalanceCache balanceCache,
+                        ApplicationEventPublisher eventPublisher,
+                        HotWalletService hotWallets,
+                        ReadRouting readRouting,
+                        @Value("${wallet.batch.max-items:10000}") int batchMaxItems,
+                        @Value("${wallet.batch.wallets-per-transaction:500}") int batchWalletsPerTransaction){
     this.walletRepository=walletRepository;
+    this.walletReader=walletReader;
     this.transactionRepository=transactionRepository;
+    this.transactionTemplate=new TransactionTemplate(transactionManager);
+    this.transactionIdGenerator=transactionIdGenerator;
+    this.balanceCache=balanceCache;
+    this.eventPublisher=eventPublisher;
+    this.hotWallets=hotWallets;
+    this.readRouting=readRouting;
+    this.batchMaxItems=batchMaxItems;
+    this.batchWalletsPerTransaction=batchWalletsPerTransaction;
  }
 
 
 
     @Override
     public WalletResponse create(WalletRequest request) {
-        // Check if wallet already exists
-        if (walletRepository.findByWalletId(request.getWalletId()).isPresent()) {
-            throw new com.wallet.app.exception.WalletAlreadyExistsException(
-                "Wallet with ID '" + request.getWalletId() + "' already exists"
-            );
-        }
-
         Wallet wallet= Wallet.builder().walletId(request.getWalletId())
                        .balance(request.getBalance())
                        .owner(request.getOwnerName())
                        .build();
-         //save this wallet
-         walletRepository.save(wallet);
+         //the unique walletId constraint decides, no separate existence check before the insert
+         try {
+             walletRepository.saveAndFlush(wallet);
+         } catch (DataIntegrityViolationException ex) {
+             if (walletReader.exists(request.getWalletId())) {
+                 throw new com.wallet.app.exception.WalletAlreadyExistsException(
+                     "Wallet with ID '" + request.getWalletId() + "' already exists"
+                 );
+             }
+             throw ex;
+         }
+         eventPublisher.publishEvent(new BalanceChangedEvent(wallet.getWalletId()));
          WalletResponse response=WalletResponse.builder()
                                             .walletId(wallet.getWalletId())
                                             .balance(wallet.getBalance())
@@ -59,54 +110,266 @@ public class UserServiceImpl implements UserService
     @Override
     public int getBalance(String walletId) {
 
-        //check walletId exists or not
-        
-        Wallet wallet=walletRepository.findByWalletId(walletId).orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"));
-        
-        return wallet.getBalance();
+        //the cache only holds primary reads: a replica can still return a balance from before a write whose
+        //eviction has already run, and the cache would then serve it until the ttl. Uncached reads may lag.
+        if (balanceCache.isEnabled()) {
+            return balanceCache.get(walletId, this::loadBalance);
+        }
+        return readRouting.readStatement(walletId, () -> loadBalance(walletId));
+    }
+
+    private int loadBalance(String walletId) {
+        return walletReader.findBalance(walletId)
+                           .orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"));
+    }
+
+    public boolean isHot(String walletId) {
+        WalletSlotInfo slots = hotWallets.lookup(walletId);
+        return slots != null && slots.isHot();
     }
 
     @Override
+    @Transactional
     public TransactionResponse deposit(String walletId, int amount) {
-        // TODO Auto-generated method stub
+        requirePositive(amount);
+        WalletSlotInfo slots = hotWallets.lookup(walletId);
+        if (slots != null && slots.isHot()) {
+            TransactionResponse response = hotWallets.deposit(slots, walletId, amount);
+            if (response != null) {
+                eventPublisher.publishEvent(new BalanceChangedEvent(walletId));
+                return response;
+            }
+        }
+        //balance is changed in the database with a single update, no read-modify-write in java
+        if (walletRepository.credit(walletId, amount) == 0) {
+            throw new WalletNotFoundException("Wallet Id not found!");
+        }
+        //the row stays locked by our update until commit, so this read sees our own balance
         Wallet wallet=walletRepository.findByWalletId(walletId).orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"));
-        int balance_after=wallet.getBalance()+amount;
-         wallet.setBalance(balance_after);
-         walletRepository.save(wallet);
-         Transaction transaction=Transaction.builder().transactionId(UUID.randomUUID().toString())
+        Transaction transaction=Transaction.builder().transactionId(transactionIdGenerator.nextId())
                                   .amount(amount)
-                                  .balanceAfter(balance_after)
+                                  .balanceAfter(wallet.getBalance())
                                   .type(TransactionType.DEPOSIT)
+                                  .walletSeq(wallet.getLedgerSeq())
                                   .wallet(wallet)
                                   .build();
-        //save this transaction
-                   transactionRepository.save(transaction);
+        //save this transaction, same db transaction as the balance update
+        transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new BalanceChangedEvent(walletId));
+        eventPublisher.publishEvent(new TransactionCommittedEvent(walletId, List.of(transaction)));
         //map this to transaction response and return
         return maptoDto(transaction);
     }
 
     @Override
+    @Transactional
     public TransactionResponse withdraw(String walletId, int amount) {
-
-        Wallet wallet=walletRepository.findByWalletId(walletId).orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"));
-        int balance_after=wallet.getBalance()-amount;
-        if(balance_after<0){
+        requirePositive(amount);
+        WalletSlotInfo slots = hotWallets.lookup(walletId);
+        if (slots != null && slots.isHot()) {
+            TransactionResponse response = hotWallets.withdraw(slots, walletId, amount);
+            eventPublisher.publishEvent(new BalanceChangedEvent(walletId));
+            return response;
+        }
+        //the insufficient funds check is part of the update itself (balance >= amount)
+        if (walletRepository.debit(walletId, amount) == 0) {
+            if (!walletReader.exists(walletId)) {
+                throw new WalletNotFoundException("Wallet Id not found!");
+            }
             throw new InsufficientBalanceException("Insufficient balance in account!");
         }
-         wallet.setBalance(balance_after);
-         walletRepository.save(wallet);
-         Transaction transaction=Transaction.builder().transactionId(UUID.randomUUID().toString())
+        Wallet wallet=walletRepository.findByWalletId(walletId).orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"));
+        Transaction transaction=Transaction.builder().transactionId(transactionIdGenerator.nextId())
                                   .amount(amount)
-                                  .balanceAfter(balance_after)
+                                  .balanceAfter(wallet.getBalance())
                                   .type(TransactionType.WITHDRAW)
+                                  .walletSeq(wallet.getLedgerSeq())
                                   .wallet(wallet)
                                   .build();
          //save this transaction
          transactionRepository.save(transaction);
+         eventPublisher.publishEvent(new BalanceChangedEvent(walletId));
+         eventPublisher.publishEvent(new TransactionCommittedEvent(walletId, List.of(transaction)));
          //map this to transactionresponse;
          return maptoDto(transaction); 
       }
 
+    @Override
+    public BatchTransactionResponse applyBatch(BatchTransactionRequest request) {
+        List<BatchTransactionItem> items = request.getItems() == null ? List.of() : request.getItems();
+        if (items.size() > batchMaxItems) {
+            throw new IllegalArgumentException("A batch can hold at most " + batchMaxItems + " items");
+        }
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        //group items per wallet, sorted so every batch locks its rows in the same order
+        TreeMap<String, List<Integer>> byWallet = new TreeMap<>();
+        for (int index = 0; index < items.size(); index++) {
+            String invalid = validate(items.get(index));
+            if (invalid != null) {
+                results[index] = BatchItemResult.failed(index, invalid);
+                continue;
+            }
+            byWallet.computeIfAbsent(items.get(index).getWalletId(), id -> new ArrayList<>()).add(index);
+        }
+
+        List<String> walletIds = new ArrayList<>(byWallet.keySet());
+        for (int from = 0; from < walletIds.size(); from += batchWalletsPerTransaction) {
+            List<String> chunk = walletIds.subList(from, Math.min(from + batchWalletsPerTransaction, walletIds.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyChunk(chunk, byWallet, items, results));
+            } catch (RuntimeException ex) {
+                //nothing of this chunk was committed
+                for (String walletId : chunk) {
+                    for (int index : byWallet.get(walletId)) {
+                        results[index] = BatchItemResult.failed(index, ex.getMessage());
+                    }
+                }
+            }
+        }
+        return BatchTransactionResponse.of(Arrays.asList(results));
+    }
+
+    @Override
+    @Transactional
+    public TransferResponse transfer(String fromWalletId, String toWalletId, int amount) {
+        requireTransfer(fromWalletId, toWalletId, amount);
+        //both rows locked in one statement ordered by walletId, so opposite transfers cannot deadlock
+        Map<String, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findByWalletIdInForUpdate(List.of(fromWalletId, toWalletId))) {
+            wallets.put(wallet.getWalletId(), wallet);
+        }
+        Wallet from = wallets.get(fromWalletId);
+        Wallet to = wallets.get(toWalletId);
+        if (from == null || to == null) {
+            throw new WalletNotFoundException("Wallet Id not found!");
+        }
+        if (from.getBalance() < amount) {
+            hotWallets.gatherIntoBase(from);
+        }
+        if (from.getBalance() < amount) {
+            throw new InsufficientBalanceException("Insufficient balance in account!");
+        }
+        from.setBalance(from.getBalance() - amount);
+        to.setBalance(to.getBalance() + amount);
+        from.setLedgerSeq(from.getLedgerSeq() + 1);
+        to.setLedgerSeq(to.getLedgerSeq() + 1);
+        Transaction debit=Transaction.builder().transactionId(transactionIdGenerator.nextId())
+                                  .amount(amount)
+                                  .balanceAfter(from.getBalance())
+                                  .type(TransactionType.TRANSFER_OUT)
+                                  .walletSeq(from.getLedgerSeq())
+                                  .wallet(from)
+                                  .build();
+        Transaction credit=Transaction.builder().transactionId(transactionIdGenerator.nextId())
+                                  .amount(amount)
+                                  .balanceAfter(to.getBalance())
+                                  .type(TransactionType.TRANSFER_IN)
+                                  .walletSeq(to.getLedgerSeq())
+                                  .wallet(to)
+                                  .build();
+        transactionRepository.saveAll(List.of(debit, credit));
+        eventPublisher.publishEvent(new BalanceChangedEvent(fromWalletId));
+        eventPublisher.publishEvent(new BalanceChangedEvent(toWalletId));
+        eventPublisher.publishEvent(new TransactionCommittedEvent(fromWalletId, List.of(debit)));
+        eventPublisher.publishEvent(new TransactionCommittedEvent(toWalletId, List.of(credit)));
+        return TransferResponse.builder()
+                               .fromWalletId(fromWalletId)
+                               .toWalletId(toWalletId)
+                               .amount(amount)
+                               .debit(maptoDto(debit))
+                               .credit(maptoDto(credit))
+                               .build();
+    }
+
+    //one round trip to lock the wallets, one batched update and one batched insert per chunk
+    private void applyChunk(List<String> walletIds, Map<String, List<Integer>> byWallet,
+                            List<BatchTransactionItem> items, BatchItemResult[] results) {
+        Map<String, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findByWalletIdInForUpdate(walletIds)) {
+            wallets.put(wallet.getWalletId(), wallet);
+        }
+        List<Transaction> transactions = new ArrayList<>();
+        List<Integer> transactionIndexes = new ArrayList<>();
+        Map<String, List<Transaction>> committed = new HashMap<>();
+        for (String walletId : walletIds) {
+            Wallet wallet = wallets.get(walletId);
+            if (wallet == null) {
+                for (int index : byWallet.get(walletId)) {
+                    results[index] = BatchItemResult.failed(index, "Wallet Id not found!");
+                }
+                continue;
+            }
+            int balance = wallet.getBalance();
+            long walletSeq = wallet.getLedgerSeq();
+            int walletStart = transactions.size();
+            for (int index : byWallet.get(walletId)) {
+                BatchTransactionItem item = items.get(index);
+                int next = item.getType() == TransactionType.DEPOSIT ? balance + item.getAmount() : balance - item.getAmount();
+                if (next < 0 && wallet.getSlotCount() > 0) {
+                    //pull the slot balances of a hot wallet into its row once, then retry the item
+                    int before = wallet.getBalance();
+                    hotWallets.gatherIntoBase(wallet);
+                    balance += wallet.getBalance() - before;
+                    next = balance - item.getAmount();
+                }
+                if (next < 0) {
+                    results[index] = BatchItemResult.failed(index, "Insufficient balance in account!");
+                    continue;
+                }
+                balance = next;
+                transactions.add(Transaction.builder().transactionId(transactionIdGenerator.nextId())
+                                            .amount(item.getAmount())
+                                            .balanceAfter(balance)
+                                            .type(item.getType())
+                                            .walletSeq(++walletSeq)
+                                            .wallet(wallet)
+                                            .build());
+                transactionIndexes.add(index);
+            }
+            wallet.setBalance(balance);
+            wallet.setLedgerSeq(walletSeq);
+            eventPublisher.publishEvent(new BalanceChangedEvent(walletId));
+            if (transactions.size() > walletStart) {
+                committed.put(walletId, List.copyOf(transactions.subList(walletStart, transactions.size())));
+            }
+        }
+        transactionRepository.saveAll(transactions);
+        committed.forEach((walletId, rows) -> eventPublisher.publishEvent(new TransactionCommittedEvent(walletId, rows)));
+        for (int i = 0; i < transactions.size(); i++) {
+            int index = transactionIndexes.get(i);
+            results[index] = BatchItemResult.ok(index, maptoDto(transactions.get(i)));
+        }
+    }
+
+    static String validate(BatchTransactionItem item) {
+        if (item == null || item.getWalletId() == null || item.getWalletId().isBlank()) {
+            return "walletId is required";
+        }
+        if (item.getType() != TransactionType.DEPOSIT && item.getType() != TransactionType.WITHDRAW) {
+            return "type must be DEPOSIT or WITHDRAW";
+        }
+        if (item.getAmount() <= 0) {
+            return "Amount must be greater than zero";
+        }
+        return null;
+    }
+
+    static void requirePositive(int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be greater than zero");
+        }
+    }
+
+    static void requireTransfer(String fromWalletId, String toWalletId, int amount) {
+        if (toWalletId == null || toWalletId.isBlank()) {
+            throw new IllegalArgumentException("toWalletId is required");
+        }
+        if (toWalletId.equals(fromWalletId)) {
+            throw new IllegalArgumentException("Cannot transfer to the same wallet");
+        }
+        requirePositive(amount);
+    }
+
     public TransactionResponse maptoDto(Transaction transaction)
     {
         TransactionResponse response=TransactionResponse.builder()
@@ -0,0 +1,17 @@
+package com.wallet.app.service;
+
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+//previous behaviour: random v4 uuids, kept for deployments that depend on the format
+@Component
+@ConditionalOnProperty(name = "wallet.transaction-id.strategy", havingValue = "uuid")
+public class UuidTransactionIdGenerator implements TransactionIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
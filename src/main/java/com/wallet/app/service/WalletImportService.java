@@ -0,0 +1,383 @@
+package com.wallet.app.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wallet.app.dto.ExportFormat;
+import com.wallet.app.dto.WalletImportError;
+import com.wallet.app.dto.WalletImportSummary;
+import com.wallet.app.dto.WalletRequest;
+
+/**
+ * Creates wallets from an ndjson or csv stream.
+ *
+ * The input is read line by line and only one chunk of rows is held at a time. Each chunk
+ * is validated, deduplicated and written in its own transaction: on PostgreSQL with COPY
+ * into a temp table and one insert ... on conflict do nothing, elsewhere (H2) with a
+ * JDBC batch after a lookup of the walletIds that already exist. Rejected rows are written
+ * to the response as they are found, followed by a summary line.
+ */
+@Service
+public class WalletImportService
+{
+    //wallets.wallet_id and wallets.owner are both varchar(255), each limit follows its own column
+    private static final int MAX_WALLET_ID_LENGTH = 255;
+    private static final int MAX_OWNER_NAME_LENGTH = 255;
+    private static final String CREATE_STAGING_SQL =
+            "create temp table if not exists wallet_import (line bigint, wallet_id varchar(255), balance integer, owner varchar(255)) "
+          + "on commit delete rows";
+    private static final String COPY_SQL =
+            "copy wallet_import (line, wallet_id, balance, owner) from stdin with (format csv)";
+    //each nextval reserves a whole block of the pooled sequence, so these ids never collide with hibernate's
+    private static final String INSERT_STAGED_SQL =
+            "insert into wallets (id, wallet_id, balance, owner, slot_count) "
+          + "select nextval('wallets_seq'), wallet_id, balance, owner, 0 from wallet_import order by line "
+          + "on conflict (wallet_id) do nothing returning wallet_id";
+    private static final String EXISTING_SQL =
+            "select wallet_id from wallets where wallet_id in (:walletIds)";
+    private static final String INSERT_SQL =
+            "insert into wallets (id, wallet_id, balance, owner, slot_count) values (next value for wallets_seq, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final int chunkSize;
+
+    public WalletImportService(DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${wallet.import.chunk-size:5000}") int chunkSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(WalletRequest.class);
+        this.chunkSize = chunkSize;
+    }
+
+    public void importWallets(InputStream in, ExportFormat format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        //flushed once per chunk rather than after every rejected row
+        SequenceWriter report = objectMapper.writer()
+                                            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                                            .withRootValueSeparator("\n")
+                                            .writeValues(writer);
+        Counts counts = new Counts();
+        //walletId -> row, the first occurrence within a chunk wins
+        Map<String, Row> chunk = new LinkedHashMap<>();
+
+        CsvColumns columns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == ExportFormat.CSV && columns == null) {
+                columns = CsvColumns.parse(line);
+                if (columns == null) {
+                    reject(report, counts, new WalletImportError(lineNumber, null, "csv header must name walletId, ownerName and balance"));
+                    break;
+                }
+                continue;
+            }
+            Row row;
+            try {
+                row = format == ExportFormat.CSV ? columns.row(lineNumber, line) : jsonRow(lineNumber, line);
+            } catch (IllegalArgumentException ex) {
+                reject(report, counts, new WalletImportError(lineNumber, null, ex.getMessage()));
+                continue;
+            }
+            String invalid = validate(row);
+            if (invalid != null) {
+                reject(report, counts, new WalletImportError(lineNumber, row.walletId(), invalid));
+                continue;
+            }
+            if (chunk.putIfAbsent(row.walletId(), row) != null) {
+                reject(report, counts, new WalletImportError(lineNumber, row.walletId(), "walletId appears more than once in the import"));
+                continue;
+            }
+            if (chunk.size() >= chunkSize) {
+                writeChunk(chunk, report, counts);
+                report.flush();
+            }
+        }
+        writeChunk(chunk, report, counts);
+        report.write(new WalletImportSummary(counts.imported, counts.failed, System.currentTimeMillis() - started));
+        report.flush();
+        writer.write('\n');
+        writer.flush();
+    }
+
+    private void writeChunk(Map<String, Row> chunk, SequenceWriter report, Counts counts) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Row> rows = new ArrayList<>(chunk.values());
+        chunk.clear();
+        Set<String> inserted;
+        try {
+            inserted = transactionTemplate.execute(status ->
+                    jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection -> insert(connection, rows)));
+        } catch (RuntimeException ex) {
+            //nothing of this chunk was committed
+            for (Row row : rows) {
+                reject(report, counts, new WalletImportError(row.line(), row.walletId(), "import of this chunk failed: " + ex.getMessage()));
+            }
+            return;
+        }
+        for (Row row : rows) {
+            if (inserted.contains(row.walletId())) {
+                counts.imported++;
+            } else {
+                reject(report, counts, new WalletImportError(row.line(), row.walletId(),
+                        "Wallet with ID '" + row.walletId() + "' already exists"));
+            }
+        }
+    }
+
+    private Set<String> insert(Connection connection, List<Row> rows) throws SQLException {
+        if (connection.isWrapperFor(PGConnection.class)) {
+            return copy(connection, rows);
+        }
+        return batchInsert(rows);
+    }
+
+    private Set<String> copy(Connection connection, List<Row> rows) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+        }
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(copyInput(rows)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Set<String> inserted = new HashSet<>();
+        try (var statement = connection.createStatement(); var rs = statement.executeQuery(INSERT_STAGED_SQL)) {
+            while (rs.next()) {
+                inserted.add(rs.getString(1));
+            }
+        }
+        return inserted;
+    }
+
+    //the COPY ... (format csv) input for the staging table: line, walletId, balance, owner
+    static String copyInput(List<Row> rows) {
+        StringBuilder csv = new StringBuilder(rows.size() * 48);
+        for (Row row : rows) {
+            csv.append(row.line()).append(',');
+            quote(csv, row.walletId()).append(',').append(row.balance()).append(',');
+            quote(csv, row.owner()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    //generic path: skip walletIds that already exist, a concurrent insert of the same id fails the chunk
+    private Set<String> batchInsert(List<Row> rows) {
+        List<String> walletIds = rows.stream().map(Row::walletId).toList();
+        Set<String> existing = new HashSet<>(namedJdbcTemplate.queryForList(EXISTING_SQL, Map.of("walletIds", walletIds), String.class));
+        List<Row> fresh = new ArrayList<>(rows.size());
+        Set<String> inserted = new HashSet<>();
+        for (Row row : rows) {
+            if (!existing.contains(row.walletId())) {
+                fresh.add(row);
+                inserted.add(row.walletId());
+            }
+        }
+        if (fresh.isEmpty()) {
+            return inserted;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, fresh, fresh.size(), (ps, row) -> {
+            ps.setString(1, row.walletId());
+            ps.setInt(2, row.balance());
+            ps.setString(3, row.owner());
+        });
+        return inserted;
+    }
+
+    private Row jsonRow(long line, String json) {
+        try {
+            WalletRequest request = requestReader.readValue(json);
+            return new Row(line, request.getWalletId(), request.getOwnerName(), request.getBalance());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("not a wallet json object: " + ex.getOriginalMessage());
+        }
+    }
+
+    static String validate(Row row) {
+        if (row.walletId() == null || row.walletId().isBlank()) {
+            return "walletId is required";
+        }
+        if (row.walletId().length() > MAX_WALLET_ID_LENGTH) {
+            return "walletId is longer than " + MAX_WALLET_ID_LENGTH + " characters";
+        }
+        if (row.owner() == null || row.owner().isBlank()) {
+            return "ownerName is required";
+        }
+        if (row.owner().length() > MAX_OWNER_NAME_LENGTH) {
+            return "ownerName is longer than " + MAX_OWNER_NAME_LENGTH + " characters";
+        }
+        if (row.balance() < 0) {
+            return "balance must not be negative";
+        }
+        return null;
+    }
+
+    private static void reject(SequenceWriter report, Counts counts, WalletImportError error) throws IOException {
+        counts.failed++;
+        report.write(error);
+    }
+
+    private static StringBuilder quote(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+
+    private static final class Counts {
+        private long imported;
+        private long failed;
+    }
+
+    record Row(long line, String walletId, String owner, int balance) {
+    }
+
+    /**
+     * Splits one csv record (RFC 4180): a field in double quotes may contain commas, and "" stands
+     * for a quote in it. Unquoted fields are trimmed, quoted ones are kept as written. A record is
+     * one line, so a quoted field cannot span lines.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            while (i < line.length() && line.charAt(i) == ' ') {
+                i++;
+            }
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        throw new IllegalArgumentException("quoted field is not closed, fields cannot span lines");
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                while (i < line.length() && line.charAt(i) == ' ') {
+                    i++;
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("unexpected text after the quoted field " + (fields.size() + 1));
+                }
+                fields.add(field.toString());
+            } else {
+                int end = line.indexOf(',', i);
+                String value = line.substring(i, end < 0 ? line.length() : end);
+                if (value.indexOf('"') >= 0) {
+                    throw new IllegalArgumentException("field " + (fields.size() + 1) + " has a quote but is not quoted");
+                }
+                fields.add(value.trim());
+                i = end < 0 ? line.length() : end;
+            }
+            field.setLength(0);
+            if (i >= line.length()) {
+                return fields;
+            }
+            //skip the comma
+            i++;
+        }
+    }
+
+    //column positions from the csv header
+    private record CsvColumns(int walletId, int ownerName, int balance, int width) {
+
+        static CsvColumns parse(String header) {
+            List<String> names;
+            try {
+                names = splitCsv(header);
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+            int walletId = -1;
+            int ownerName = -1;
+            int balance = -1;
+            for (int i = 0; i < names.size(); i++) {
+                switch (names.get(i)) {
+                    case "walletId" -> walletId = i;
+                    case "ownerName" -> ownerName = i;
+                    case "balance" -> balance = i;
+                    default -> { }
+                }
+            }
+            if (walletId < 0 || ownerName < 0 || balance < 0) {
+                return null;
+            }
+            return new CsvColumns(walletId, ownerName, balance, names.size());
+        }
+
+        Row row(long line, String csv) {
+            List<String> values = splitCsv(csv);
+            if (values.size() != width) {
+                throw new IllegalArgumentException("expected " + width + " columns, found " + values.size());
+            }
+            String balance = values.get(this.balance).trim();
+            try {
+                return new Row(line, values.get(walletId), values.get(ownerName), balance.isEmpty() ? 0 : Integer.parseInt(balance));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("balance '" + balance + "' is not a number");
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.wallet.app.stream;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.wallet.app.dto.TransactionResponse;
+
+/**
+ * One connected client. Writers only append to a bounded buffer; a sender thread is scheduled
+ * when the buffer goes from empty to non-empty, so an idle subscriber holds no thread at all.
+ * When the client reads slower than its wallets change and the buffer fills up, it is collapsed
+ * to the newest update per wallet and the client is told how many updates it missed.
+ *
+ * The event id is the client's position in every wallet it subscribed to: the walletSeq of the
+ * last row it got of each, comma separated in walletIds order.
+ */
+final class Subscription
+{
+    //walletSeq is the row's place in its wallet's commit order, null on a hot wallet slot row until it is sequenced
+    record Update(Long walletSeq, TransactionResponse transaction) {
+    }
+
+    private final SseEmitter emitter;
+    private final List<String> walletIds;
+    private final Map<String, Integer> walletIndex = new HashMap<>();
+    private final int capacity;
+    private final Executor sender;
+    private final Runnable onClose;
+    //writers call offer from their request threads, a monitor would pin a virtual thread's carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Update> buffer = new ArrayDeque<>();
+    //per wallet, the walletSeq the event ids report
+    private final long[] cursor;
+    //per wallet, the client has everything up to this walletSeq from before the live stream; one long each, however long the replay
+    private final long[] replayedUpTo;
+    //replayed slot rows, whose live update has no walletSeq to compare; only kept until the replay is done
+    private final Set<String> replayedSlotRows = new HashSet<>();
+    private long skipped;
+    private boolean replaying = true;
+    private boolean sending;
+    private boolean heartbeat;
+    private boolean closed;
+    private volatile long lastSentNanos = System.nanoTime();
+
+    Subscription(SseEmitter emitter, List<String> walletIds, long[] start, int capacity, Executor sender, Runnable onClose) {
+        this.emitter = emitter;
+        this.walletIds = walletIds;
+        for (int i = 0; i < walletIds.size(); i++) {
+            walletIndex.put(walletIds.get(i), i);
+        }
+        this.cursor = start.clone();
+        this.replayedUpTo = start.clone();
+        this.capacity = capacity;
+        this.sender = sender;
+        this.onClose = onClose;
+    }
+
+    List<String> walletIds() {
+        return walletIds;
+    }
+
+    void offer(Update update) {
+        lock.lock();
+        try {
+            //every commit is offered once, only a row the client already has from the replay or the cursor can come twice
+            if (closed || alreadySent(update)) {
+                return;
+            }
+            if (buffer.size() >= capacity) {
+                coalesce();
+            }
+            buffer.add(update);
+            if (!startSending()) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        sender.execute(this::send);
+    }
+
+    //sent on the subscribing request thread before live updates are let through
+    void replay(Update update) throws IOException {
+        SseEmitter.SseEventBuilder event;
+        lock.lock();
+        try {
+            replayedUpTo[walletIndex.get(update.transaction().getWalletId())] = update.walletSeq();
+            if (update.transaction().getSlot() != null) {
+                replayedSlotRows.add(update.transaction().getTransactionId());
+            }
+            event = event(update);
+        } finally {
+            lock.unlock();
+        }
+        emitter.send(event);
+    }
+
+    //the data is the cursor to resume from, the same as the last event's id
+    void replayTruncated() throws IOException {
+        String resumeAt;
+        lock.lock();
+        try {
+            resumeAt = cursorId();
+        } finally {
+            lock.unlock();
+        }
+        emitter.send(SseEmitter.event().name("truncated").data(resumeAt));
+    }
+
+    //live updates that raced with the replay and were already sent by it are dropped here
+    void replayDone() {
+        lock.lock();
+        try {
+            buffer.removeIf(this::alreadySent);
+            //a slot row is sequenced by compaction seconds after its commit, so its live update came before the replay read it
+            replayedSlotRows.clear();
+            replaying = false;
+            if (!startSending()) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        sender.execute(this::send);
+    }
+
+    void heartbeatIfIdle(long idleNanos) {
+        if (System.nanoTime() - lastSentNanos < idleNanos) {
+            return;
+        }
+        lock.lock();
+        try {
+            heartbeat = true;
+            if (!startSending()) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        sender.execute(this::send);
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.clear();
+            replayedSlotRows.clear();
+        } finally {
+            lock.unlock();
+        }
+        onClose.run();
+    }
+
+    private boolean startSending() {
+        if (sending || replaying || closed || buffer.isEmpty() && skipped == 0 && !heartbeat) {
+            return false;
+        }
+        sending = true;
+        return true;
+    }
+
+    private void send() {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            lock.lock();
+            try {
+                if (closed || buffer.isEmpty() && skipped == 0 && !heartbeat) {
+                    sending = false;
+                    return;
+                }
+                if (skipped > 0) {
+                    event = SseEmitter.event().name("coalesced").data(skipped);
+                    skipped = 0;
+                } else if (!buffer.isEmpty()) {
+                    event = event(buffer.poll());
+                } else {
+                    event = SseEmitter.event().comment("");
+                }
+                heartbeat = false;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                emitter.send(event);
+                lastSentNanos = System.nanoTime();
+            } catch (IOException | IllegalStateException ex) {
+                //client went away; the emitter callbacks unregister it as well
+                close();
+                return;
+            }
+        }
+    }
+
+    //keeps the newest update of every wallet, in the order they were committed
+    private void coalesce() {
+        Map<String, Update> newest = new HashMap<>();
+        for (Update update : buffer) {
+            newest.put(update.transaction().getWalletId(), update);
+        }
+        skipped += buffer.size() - newest.size();
+        buffer.removeIf(update -> newest.get(update.transaction().getWalletId()) != update);
+        //more wallets than buffer slots, the oldest have to go
+        while (buffer.size() >= capacity) {
+            buffer.poll();
+            skipped++;
+        }
+    }
+
+    //called under the lock
+    private boolean alreadySent(Update update) {
+        if (update.walletSeq() == null) {
+            return replayedSlotRows.remove(update.transaction().getTransactionId());
+        }
+        return update.walletSeq() <= replayedUpTo[walletIndex.get(update.transaction().getWalletId())];
+    }
+
+    //called under the lock; a slot row leaves the cursor where it is, the replay after a reconnect sends it again once it is sequenced.
+    //two commits of a wallet can reach the hub out of order, the cursor only moves forward
+    private SseEmitter.SseEventBuilder event(Update update) {
+        if (update.walletSeq() != null) {
+            int wallet = walletIndex.get(update.transaction().getWalletId());
+            cursor[wallet] = Math.max(cursor[wallet], update.walletSeq());
+        }
+        return SseEmitter.event()
+                         .id(cursorId())
+                         .name("transaction")
+                         .data(update.transaction(), MediaType.APPLICATION_JSON);
+    }
+
+    private String cursorId() {
+        StringJoiner id = new StringJoiner(",");
+        for (long walletSeq : cursor) {
+            id.add(Long.toString(walletSeq));
+        }
+        return id.toString();
+    }
+}
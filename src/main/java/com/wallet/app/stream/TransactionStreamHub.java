@@ -0,0 +1,255 @@
+package com.wallet.app.stream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.wallet.app.dto.TransactionHistoryItem;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.event.TransactionCommittedEvent;
+import com.wallet.app.exception.AdmissionRejectedException;
+import com.wallet.app.exception.WalletNotFoundException;
+import com.wallet.app.model.Transaction;
+import com.wallet.app.model.Wallet;
+import com.wallet.app.repository.TransactionRepository;
+import com.wallet.app.repository.WalletRepository;
+import com.wallet.app.stream.Subscription.Update;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes committed transactions to server-sent event subscribers instead of having them poll
+ * the balance endpoint.
+ *
+ * Subscribers are indexed by walletId, so a commit only touches the subscribers of its own
+ * wallet, and nothing at all when there are none. Each event id holds the walletSeq the client
+ * has reached in each of its wallets; a client reconnecting with Last-Event-ID (or ?after=) first
+ * gets every wallet's rows after its walletSeq from the primary, then the live stream. walletSeq
+ * is in commit order, so a row that was still committing when the client went away is not
+ * skipped. Hot wallet slot rows are sent live as they commit but only replayed once compaction
+ * has sequenced them, so a reconnect can see such a row a second time, with the same transactionId.
+ */
+@Component
+public class TransactionStreamHub
+{
+    private final Map<String, Set<Subscription>> byWallet = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final ExecutorService sender;
+    private final int bufferSize;
+    private final int maxWallets;
+    private final int maxSubscribers;
+    private final int maxReplay;
+    private final int replayPageSize;
+    private final long timeoutMillis;
+    private final long heartbeatNanos;
+
+    public TransactionStreamHub(WalletRepository walletRepository,
+                                TransactionRepository transactionRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${wallet.stream.buffer-size:256}") int bufferSize,
+                                @Value("${wallet.stream.max-wallets:100}") int maxWallets,
+                                @Value("${wallet.stream.max-subscribers:50000}") int maxSubscribers,
+                                @Value("${wallet.stream.max-replay:1000}") int maxReplay,
+                                @Value("${wallet.stream.sender-threads:8}") int senderThreads,
+                                @Value("${wallet.stream.timeout:30m}") Duration timeout,
+                                @Value("${wallet.stream.heartbeat-interval:PT30S}") Duration heartbeatInterval,
+                                @Value("${wallet.history.max-page-size:500}") int maxPageSize) {
+        if (bufferSize <= maxWallets) {
+            throw new IllegalStateException("wallet.stream.buffer-size must be larger than wallet.stream.max-wallets");
+        }
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.bufferSize = bufferSize;
+        this.maxWallets = maxWallets;
+        this.maxSubscribers = maxSubscribers;
+        this.maxReplay = maxReplay;
+        this.replayPageSize = Math.min(maxReplay + 1, maxPageSize);
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        AtomicInteger threads = new AtomicInteger();
+        //a slow socket blocks one of these, never the writer that committed
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "transaction-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("wallet.stream.subscribers", subscribers, AtomicInteger::get)
+             .description("connected transaction stream subscribers")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to the given wallets. With a cursor, one walletSeq per wallet in walletIds order,
+     * transactions after it are sent first; past max-replay rows a "truncated" event is sent and
+     * the stream ends, to be resumed from there. Without one the stream starts at each wallet's
+     * latest walletSeq.
+     */
+    public SseEmitter subscribe(List<String> walletIds, String after) {
+        List<String> wallets = new ArrayList<>(new LinkedHashSet<>(walletIds));
+        if (wallets.isEmpty() || wallets.size() > maxWallets) {
+            throw new IllegalArgumentException("Subscribe to between 1 and " + maxWallets + " wallets");
+        }
+        long[] start = after != null ? parseCursor(after, wallets.size()) : null;
+        //read from the primary, a lagging replica would 404 a wallet that was just created
+        long[] walletPks = new long[wallets.size()];
+        long[] latest = new long[wallets.size()];
+        for (int i = 0; i < wallets.size(); i++) {
+            Wallet wallet = walletRepository.findByWalletId(wallets.get(i))
+                                            .orElseThrow(() -> new WalletNotFoundException("Wallet Id not found!"));
+            walletPks[i] = wallet.getId();
+            latest[i] = wallet.getLedgerSeq();
+        }
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new AdmissionRejectedException("Too many stream subscribers, try again later", 5);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription[] holder = new Subscription[1];
+        Subscription subscription = new Subscription(emitter, wallets, start != null ? start : latest, bufferSize, sender,
+                () -> unregister(holder[0]));
+        holder[0] = subscription;
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(ex -> subscription.close());
+        //registered before the replay query, so nothing committed in between is lost
+        for (String walletId : wallets) {
+            byWallet.compute(walletId, (id, subscriptions) -> {
+                Set<Subscription> registered = subscriptions == null ? ConcurrentHashMap.newKeySet() : subscriptions;
+                registered.add(subscription);
+                return registered;
+            });
+        }
+        try {
+            if (start != null && !replay(subscription, walletPks, start)) {
+                //the client reconnects with the last replayed event id as Last-Event-ID and gets the next part
+                emitter.complete();
+                return emitter;
+            }
+        } catch (IOException ex) {
+            subscription.close();
+            throw new UncheckedIOException(ex);
+        } catch (RuntimeException ex) {
+            subscription.close();
+            throw ex;
+        }
+        subscription.replayDone();
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionCommitted(TransactionCommittedEvent event) {
+        Set<Subscription> subscriptions = byWallet.get(event.getWalletId());
+        if (subscriptions == null || subscriptions.isEmpty()) {
+            return;
+        }
+        for (Transaction transaction : event.getTransactions()) {
+            Update update = new Update(transaction.getWalletSeq(), TransactionResponse.builder()
+                                                                               .transactionId(transaction.getTransactionId())
+                                                                               .walletId(event.getWalletId())
+                                                                               .type(transaction.getType())
+                                                                               .amount(transaction.getAmount())
+                                                                               .balanceAfter(transaction.getBalanceAfter())
+                                                                               .slot(transaction.getSlot())
+                                                                               .build());
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(update);
+            }
+        }
+    }
+
+    //comments keep idle connections open through proxies and find the ones that are gone
+    @Scheduled(fixedDelayString = "${wallet.stream.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        Set<Subscription> seen = new HashSet<>();
+        for (Set<Subscription> subscriptions : byWallet.values()) {
+            for (Subscription subscription : subscriptions) {
+                if (seen.add(subscription)) {
+                    subscription.heartbeatIfIdle(heartbeatNanos);
+                }
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    //one wallet after the other, each in walletSeq order; false when cut short
+    //read outside ReadRouting, so from the primary: a lagging replica would leave a gap before the first live update
+    private boolean replay(Subscription subscription, long[] walletPks, long[] start) throws IOException {
+        int left = maxReplay;
+        for (int i = 0; i < walletPks.length; i++) {
+            long cursor = start[i];
+            while (true) {
+                List<TransactionHistoryItem> page = transactionRepository.findPage(walletPks[i], cursor, PageRequest.ofSize(replayPageSize));
+                for (TransactionHistoryItem item : page) {
+                    if (left-- == 0) {
+                        subscription.replayTruncated();
+                        return false;
+                    }
+                    subscription.replay(new Update(item.getWalletSeq(), new TransactionResponse(item.getTransactionId(),
+                            subscription.walletIds().get(i), item.getType(), item.getAmount(), item.getBalanceAfter(), item.getSlot())));
+                }
+                if (page.size() < replayPageSize) {
+                    break;
+                }
+                cursor = page.get(page.size() - 1).getWalletSeq();
+            }
+        }
+        return true;
+    }
+
+    private static long[] parseCursor(String after, int wallets) {
+        String[] parts = after.split(",", -1);
+        if (parts.length != wallets) {
+            throw new IllegalArgumentException("The cursor needs one walletSeq per wallet, in walletIds order");
+        }
+        long[] cursor = new long[wallets];
+        for (int i = 0; i < wallets; i++) {
+            try {
+                cursor[i] = Long.parseLong(parts[i].trim());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+        }
+        return cursor;
+    }
+
+    private void unregister(Subscription subscription) {
+        for (String walletId : subscription.walletIds()) {
+            byWallet.computeIfPresent(walletId, (id, subscriptions) -> {
+                subscriptions.remove(subscription);
+                return subscriptions.isEmpty() ? null : subscriptions;
+            });
+        }
+        subscribers.decrementAndGet();
+    }
+}
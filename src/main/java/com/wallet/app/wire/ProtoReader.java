@@ -0,0 +1,103 @@
+package com.wallet.app.wire;
+
+import java.nio.charset.StandardCharsets;
+
+//protobuf wire format decoder over a complete message; unknown fields are skipped so the schema can grow
+final class ProtoReader
+{
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    ProtoReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    private ProtoReader(byte[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    //next tag, or 0 at the end of the message
+    int readTag() {
+        if (position == limit) {
+            return 0;
+        }
+        int tag = (int) readVarint();
+        if (tag >>> 3 == 0) {
+            throw new IllegalArgumentException("Malformed binary message: field number 0");
+        }
+        return tag;
+    }
+
+    static int fieldOf(int tag) {
+        return tag >>> 3;
+    }
+
+    int readInt32() {
+        return (int) readVarint();
+    }
+
+    boolean readBool() {
+        return readVarint() != 0;
+    }
+
+    long readInt64() {
+        return readVarint();
+    }
+
+    String readString() {
+        int length = readLength();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    ProtoReader readMessage() {
+        int length = readLength();
+        ProtoReader message = new ProtoReader(buffer, position, position + length);
+        position += length;
+        return message;
+    }
+
+    void skip(int tag) {
+        switch (tag & 0x7) {
+            case ProtoWriter.VARINT -> readVarint();
+            case 1 -> advance(8);
+            case ProtoWriter.LENGTH_DELIMITED -> advance(readLength());
+            case 5 -> advance(4);
+            default -> throw new IllegalArgumentException("Malformed binary message: wire type " + (tag & 0x7));
+        }
+    }
+
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) {
+                throw new IllegalArgumentException("Malformed binary message: truncated varint");
+            }
+            byte b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed binary message: varint too long");
+    }
+
+    private int readLength() {
+        long length = readVarint();
+        if (length < 0 || length > limit - position) {
+            throw new IllegalArgumentException("Malformed binary message: length " + length + " past the end");
+        }
+        return (int) length;
+    }
+
+    private void advance(int bytes) {
+        if (bytes > limit - position) {
+            throw new IllegalArgumentException("Malformed binary message: field past the end");
+        }
+        position += bytes;
+    }
+}
@@ -0,0 +1,167 @@
+package com.wallet.app.wire;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+//protobuf wire format encoder into a growable array, proto3 style: zero, empty and null fields are left out
+final class ProtoWriter
+{
+    static final int VARINT = 0;
+    static final int LENGTH_DELIMITED = 2;
+
+    private byte[] buffer;
+    private int position;
+
+    ProtoWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    void writeInt32(int field, int value) {
+        if (value != 0) {
+            writeTag(field, VARINT);
+            //negative int32 values are sign extended to ten bytes, as protobuf does
+            writeVarint(value);
+        }
+    }
+
+    //proto3 optional field, written whenever it is set, zero included
+    void writeOptionalInt32(int field, Integer value) {
+        if (value != null) {
+            writeTag(field, VARINT);
+            writeVarint(value);
+        }
+    }
+
+    void writeBool(int field, boolean value) {
+        if (value) {
+            writeTag(field, VARINT);
+            writeVarint(1);
+        }
+    }
+
+    void writeInt64(int field, long value) {
+        if (value != 0) {
+            writeTag(field, VARINT);
+            writeVarint(value);
+        }
+    }
+
+    void writeString(int field, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        writeTag(field, LENGTH_DELIMITED);
+        int length = value.length();
+        if (isAscii(value, length)) {
+            writeVarint(length);
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                buffer[position++] = (byte) value.charAt(i);
+            }
+        } else {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    void writeMessage(int field, ProtoWriter message) {
+        if (message != null) {
+            writeTag(field, LENGTH_DELIMITED);
+            writeVarint(message.position);
+            writeRaw(message.buffer, 0, message.position);
+        }
+    }
+
+    void writeRaw(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    byte[] toByteArray() {
+        return buffer.length == position ? buffer : Arrays.copyOf(buffer, position);
+    }
+
+    int size() {
+        return position;
+    }
+
+    //encoded sizes, matching what the write methods produce
+    static int int32Size(int field, int value) {
+        return value == 0 ? 0 : varintSize(field << 3) + varintSize(value);
+    }
+
+    static int int64Size(int field, long value) {
+        return value == 0 ? 0 : varintSize(field << 3) + varintSize(value);
+    }
+
+    static int stringSize(int field, String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        int length = utf8Length(value);
+        return varintSize(field << 3) + varintSize(length) + length;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    //what getBytes(UTF_8) produces, a lone surrogate becomes a single '?'
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        writeVarint(bytes.length);
+        writeRaw(bytes, 0, bytes.length);
+    }
+
+    private void writeTag(int field, int wireType) {
+        writeVarint((field << 3) | wireType);
+    }
+
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensure(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+
+    private static boolean isAscii(String value, int length) {
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,376 @@
+package com.wallet.app.wire;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.wallet.app.dto.BalanceResponse;
+import com.wallet.app.dto.BatchItemResult;
+import com.wallet.app.dto.BatchTransactionItem;
+import com.wallet.app.dto.BatchTransactionRequest;
+import com.wallet.app.dto.BatchTransactionResponse;
+import com.wallet.app.dto.ErrorResponse;
+import com.wallet.app.dto.Status;
+import com.wallet.app.dto.TransactionRequest;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.TransferRequest;
+import com.wallet.app.dto.TransferResponse;
+import com.wallet.app.dto.WalletRequest;
+import com.wallet.app.dto.WalletResponse;
+import com.wallet.app.model.TransactionType;
+
+/**
+ * Encodes the wallet dtos as protobuf messages, field numbers as in src/main/proto/wallet.proto,
+ * so clients can generate their side from the schema.
+ *
+ * The status and reason of an error body are encoded once per status and reused; the message can
+ * carry request data, so it is written per response together with the timestamp, straight into an
+ * array of the exact size.
+ */
+public final class WalletBinaryCodec
+{
+    //http status codes run from 100 to 599
+    private static final AtomicReferenceArray<ErrorPrefix> ERROR_PREFIXES = new AtomicReferenceArray<>(600);
+
+    private WalletBinaryCodec() {
+    }
+
+    public static byte[] encode(Object value) {
+        if (value instanceof TransactionResponse response) {
+            return transactionResponse(response).toByteArray();
+        }
+        if (value instanceof ErrorResponse error) {
+            return encodeError(error);
+        }
+        ProtoWriter out = new ProtoWriter(128);
+        if (value instanceof TransactionRequest request) {
+            out.writeInt32(1, typeNumber(request.getType()));
+            out.writeInt32(2, request.getAmount());
+        } else if (value instanceof TransferRequest request) {
+            out.writeString(1, request.getToWalletId());
+            out.writeInt32(2, request.getAmount());
+        } else if (value instanceof TransferResponse response) {
+            out.writeString(1, response.getFromWalletId());
+            out.writeString(2, response.getToWalletId());
+            out.writeInt32(3, response.getAmount());
+            out.writeMessage(4, response.getDebit() == null ? null : transactionResponse(response.getDebit()));
+            out.writeMessage(5, response.getCredit() == null ? null : transactionResponse(response.getCredit()));
+        } else if (value instanceof WalletRequest request) {
+            out.writeString(1, request.getWalletId());
+            out.writeString(2, request.getOwnerName());
+            out.writeInt32(3, request.getBalance());
+        } else if (value instanceof WalletResponse response) {
+            out.writeString(1, response.getWalletId());
+            out.writeString(2, response.getOwnerName());
+            out.writeInt32(3, response.getBalance());
+            out.writeInt32(4, response.getStatus() == null ? 0 : response.getStatus().ordinal() + 1);
+        } else if (value instanceof BalanceResponse response) {
+            out.writeString(1, response.getWalletId());
+            out.writeInt32(2, response.getBalance());
+        } else if (value instanceof BatchTransactionRequest request) {
+            //every element is written, an item with only default fields is still an item
+            for (BatchTransactionItem item : listOf(request.getItems())) {
+                ProtoWriter element = new ProtoWriter(32);
+                element.writeString(1, item.getWalletId());
+                element.writeInt32(2, typeNumber(item.getType()));
+                element.writeInt32(3, item.getAmount());
+                out.writeMessage(1, element);
+            }
+        } else if (value instanceof BatchTransactionResponse response) {
+            out.writeInt32(1, response.getSucceeded());
+            out.writeInt32(2, response.getFailed());
+            for (BatchItemResult result : listOf(response.getResults())) {
+                ProtoWriter element = new ProtoWriter(80);
+                element.writeInt32(1, result.getIndex());
+                element.writeBool(2, result.isSuccess());
+                element.writeMessage(3, result.getTransaction() == null ? null : transactionResponse(result.getTransaction()));
+                element.writeString(4, result.getError());
+                out.writeMessage(3, element);
+            }
+        } else {
+            throw new IllegalArgumentException("No binary encoding for " + value.getClass().getSimpleName());
+        }
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T decode(Class<T> type, byte[] bytes) {
+        ProtoReader in = new ProtoReader(bytes);
+        Object value;
+        if (type == TransactionRequest.class) {
+            value = transactionRequest(in);
+        } else if (type == TransactionResponse.class) {
+            value = transactionResponse(in);
+        } else if (type == TransferRequest.class) {
+            value = transferRequest(in);
+        } else if (type == TransferResponse.class) {
+            value = transferResponse(in);
+        } else if (type == WalletRequest.class) {
+            value = walletRequest(in);
+        } else if (type == WalletResponse.class) {
+            value = walletResponse(in);
+        } else if (type == BalanceResponse.class) {
+            value = balanceResponse(in);
+        } else if (type == BatchTransactionRequest.class) {
+            value = batchRequest(in);
+        } else if (type == BatchTransactionResponse.class) {
+            value = batchResponse(in);
+        } else if (type == ErrorResponse.class) {
+            value = errorResponse(in);
+        } else {
+            throw new IllegalArgumentException("No binary encoding for " + type.getSimpleName());
+        }
+        return (T) value;
+    }
+
+    public static boolean supports(Class<?> type) {
+        return type == TransactionRequest.class || type == TransactionResponse.class
+            || type == TransferRequest.class || type == TransferResponse.class
+            || type == WalletRequest.class || type == WalletResponse.class
+            || type == BalanceResponse.class
+            || type == BatchTransactionRequest.class || type == BatchTransactionResponse.class
+            || type == ErrorResponse.class;
+    }
+
+    private static ProtoWriter transactionResponse(TransactionResponse response) {
+        ProtoWriter out = new ProtoWriter(64);
+        out.writeString(1, response.getTransactionId());
+        out.writeString(2, response.getWalletId());
+        out.writeInt32(3, typeNumber(response.getType()));
+        out.writeInt32(4, response.getAmount());
+        out.writeInt32(5, response.getBalanceAfter());
+        out.writeOptionalInt32(6, response.getSlot());
+        return out;
+    }
+
+    private static byte[] encodeError(ErrorResponse error) {
+        byte[] prefix = errorPrefix(error.getStatus(), error.getError());
+        String message = error.getMessage();
+        ProtoWriter out = new ProtoWriter(prefix.length
+                + ProtoWriter.stringSize(3, message)
+                + ProtoWriter.int64Size(4, error.getTimestampMillis()));
+        out.writeRaw(prefix, 0, prefix.length);
+        out.writeString(3, message);
+        out.writeInt64(4, error.getTimestampMillis());
+        //the writer was sized exactly, so this hands back its buffer without a copy
+        return out.toByteArray();
+    }
+
+    private static byte[] errorPrefix(int status, String reason) {
+        boolean cacheable = status >= 0 && status < ERROR_PREFIXES.length();
+        ErrorPrefix cached = cacheable ? ERROR_PREFIXES.get(status) : null;
+        if (cached != null && Objects.equals(cached.reason(), reason)) {
+            return cached.bytes();
+        }
+        ProtoWriter out = new ProtoWriter(ProtoWriter.int32Size(1, status) + ProtoWriter.stringSize(2, reason));
+        out.writeInt32(1, status);
+        out.writeString(2, reason);
+        byte[] prefix = out.toByteArray();
+        //the reason is the status' own phrase, a body with some other reason is encoded but not cached
+        if (cacheable && cached == null) {
+            ERROR_PREFIXES.compareAndSet(status, null, new ErrorPrefix(reason, prefix));
+        }
+        return prefix;
+    }
+
+    private static TransactionRequest transactionRequest(ProtoReader in) {
+        TransactionType type = null;
+        int amount = 0;
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> type = transactionType(in.readInt32());
+                case 2 -> amount = in.readInt32();
+                default -> in.skip(tag);
+            }
+        }
+        return new TransactionRequest(type, amount);
+    }
+
+    private static TransactionResponse transactionResponse(ProtoReader in) {
+        TransactionResponse response = new TransactionResponse();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> response.setTransactionId(in.readString());
+                case 2 -> response.setWalletId(in.readString());
+                case 3 -> response.setType(transactionType(in.readInt32()));
+                case 4 -> response.setAmount(in.readInt32());
+                case 5 -> response.setBalanceAfter(in.readInt32());
+                case 6 -> response.setSlot(in.readInt32());
+                default -> in.skip(tag);
+            }
+        }
+        return response;
+    }
+
+    private static TransferRequest transferRequest(ProtoReader in) {
+        TransferRequest request = new TransferRequest();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> request.setToWalletId(in.readString());
+                case 2 -> request.setAmount(in.readInt32());
+                default -> in.skip(tag);
+            }
+        }
+        return request;
+    }
+
+    private static TransferResponse transferResponse(ProtoReader in) {
+        TransferResponse response = new TransferResponse();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> response.setFromWalletId(in.readString());
+                case 2 -> response.setToWalletId(in.readString());
+                case 3 -> response.setAmount(in.readInt32());
+                case 4 -> response.setDebit(transactionResponse(in.readMessage()));
+                case 5 -> response.setCredit(transactionResponse(in.readMessage()));
+                default -> in.skip(tag);
+            }
+        }
+        return response;
+    }
+
+    private static WalletRequest walletRequest(ProtoReader in) {
+        WalletRequest request = new WalletRequest();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> request.setWalletId(in.readString());
+                case 2 -> request.setOwnerName(in.readString());
+                case 3 -> request.setBalance(in.readInt32());
+                default -> in.skip(tag);
+            }
+        }
+        return request;
+    }
+
+    private static WalletResponse walletResponse(ProtoReader in) {
+        WalletResponse.WalletResponseBuilder response = WalletResponse.builder();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> response.walletId(in.readString());
+                case 2 -> response.ownerName(in.readString());
+                case 3 -> response.balance(in.readInt32());
+                case 4 -> response.status(status(in.readInt32()));
+                default -> in.skip(tag);
+            }
+        }
+        return response.build();
+    }
+
+    private static BalanceResponse balanceResponse(ProtoReader in) {
+        BalanceResponse response = new BalanceResponse();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> response.setWalletId(in.readString());
+                case 2 -> response.setBalance(in.readInt32());
+                default -> in.skip(tag);
+            }
+        }
+        return response;
+    }
+
+    private static BatchTransactionRequest batchRequest(ProtoReader in) {
+        List<BatchTransactionItem> items = new ArrayList<>();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            if (ProtoReader.fieldOf(tag) == 1) {
+                items.add(batchItem(in.readMessage()));
+            } else {
+                in.skip(tag);
+            }
+        }
+        return new BatchTransactionRequest(items);
+    }
+
+    private static BatchTransactionItem batchItem(ProtoReader in) {
+        BatchTransactionItem item = new BatchTransactionItem();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> item.setWalletId(in.readString());
+                case 2 -> item.setType(transactionType(in.readInt32()));
+                case 3 -> item.setAmount(in.readInt32());
+                default -> in.skip(tag);
+            }
+        }
+        return item;
+    }
+
+    private static BatchTransactionResponse batchResponse(ProtoReader in) {
+        BatchTransactionResponse response = new BatchTransactionResponse(0, 0, new ArrayList<>());
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> response.setSucceeded(in.readInt32());
+                case 2 -> response.setFailed(in.readInt32());
+                case 3 -> response.getResults().add(batchItemResult(in.readMessage()));
+                default -> in.skip(tag);
+            }
+        }
+        return response;
+    }
+
+    private static BatchItemResult batchItemResult(ProtoReader in) {
+        BatchItemResult result = new BatchItemResult();
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> result.setIndex(in.readInt32());
+                case 2 -> result.setSuccess(in.readBool());
+                case 3 -> result.setTransaction(transactionResponse(in.readMessage()));
+                case 4 -> result.setError(in.readString());
+                default -> in.skip(tag);
+            }
+        }
+        return result;
+    }
+
+    private static ErrorResponse errorResponse(ProtoReader in) {
+        long timestampMillis = 0;
+        int status = 0;
+        String error = null;
+        String message = null;
+        for (int tag; (tag = in.readTag()) != 0; ) {
+            switch (ProtoReader.fieldOf(tag)) {
+                case 1 -> status = in.readInt32();
+                case 2 -> error = in.readString();
+                case 3 -> message = in.readString();
+                case 4 -> timestampMillis = in.readInt64();
+                default -> in.skip(tag);
+            }
+        }
+        return new ErrorResponse(timestampMillis, status, error, message);
+    }
+
+    private static <T> List<T> listOf(List<T> values) {
+        return values == null ? List.of() : values;
+    }
+
+    //0 is "unset" in proto3, the enum values start at 1
+    private static int typeNumber(TransactionType type) {
+        if (type == null) {
+            return 0;
+        }
+        return switch (type) {
+            case DEPOSIT -> 1;
+            case WITHDRAW -> 2;
+            case TRANSFER_OUT -> 3;
+            case TRANSFER_IN -> 4;
+        };
+    }
+
+    private static TransactionType transactionType(int number) {
+        return switch (number) {
+            case 0 -> null;
+            case 1 -> TransactionType.DEPOSIT;
+            case 2 -> TransactionType.WITHDRAW;
+            case 3 -> TransactionType.TRANSFER_OUT;
+            case 4 -> TransactionType.TRANSFER_IN;
+            default -> throw new IllegalArgumentException("Unknown transaction type " + number);
+        };
+    }
+
+    private static Status status(int number) {
+        Status[] values = Status.values();
+        return number <= 0 || number > values.length ? null : values[number - 1];
+    }
+
+    private record ErrorPrefix(String reason, byte[] bytes) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.wallet.app.wire;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.wallet.app.dto.BatchTransactionRequest;
+
+//application/x-protobuf bodies for the wallet dtos, chosen when a client sends or accepts that type
+public class WalletBinaryHttpMessageConverter extends AbstractHttpMessageConverter<Object>
+{
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType("application/x-protobuf");
+
+    //the messages are a few dozen bytes, anything near this is not a wallet request
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    //a batch of wallet.batch.max-items items with long wallet ids
+    private static final int MAX_BATCH_BODY_BYTES = 4 * 1024 * 1024;
+
+    public WalletBinaryHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return WalletBinaryCodec.supports(clazz);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        InputStream body = inputMessage.getBody();
+        int maxBytes = clazz == BatchTransactionRequest.class ? MAX_BATCH_BODY_BYTES : MAX_BODY_BYTES;
+        byte[] bytes = body.readNBytes(maxBytes + 1);
+        if (bytes.length > maxBytes) {
+            throw new HttpMessageNotReadableException("Binary body larger than " + maxBytes + " bytes", inputMessage);
+        }
+        try {
+            return WalletBinaryCodec.decode(clazz, bytes);
+        } catch (IllegalArgumentException ex) {
+            throw new HttpMessageNotReadableException(ex.getMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = WalletBinaryCodec.encode(value);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
@@ -0,0 +1,20 @@
+-- Commit-ordered position of each transaction within its wallet. Ids come from a pooled sequence,
+-- so a row can commit after another one with a higher id; reconciliation needs the order the rows
+-- were applied in. Every write that holds the wallet row lock bumps wallets.ledger_seq and stores
+-- it in wallet_seq. Hot wallet slot rows are inserted with a null wallet_seq and get the next one
+-- from the compactor, which holds the wallet lock.
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS ledger_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS wallet_seq BIGINT;
+
+-- existing rows keep their id order and new rows continue above it; rewrites every row once
+UPDATE transactions SET wallet_seq = id WHERE wallet_seq IS NULL;
+UPDATE wallets w SET ledger_seq = t.last_seq
+FROM (SELECT wallet_id, max(wallet_seq) AS last_seq FROM transactions GROUP BY wallet_id) t
+WHERE t.wallet_id = w.id;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_wallet_id_wallet_seq ON transactions (wallet_id, wallet_seq);
+-- the compactor's lookup of slot rows that are still waiting for their wallet_seq
+CREATE INDEX IF NOT EXISTS idx_transactions_unsequenced ON transactions (wallet_id) WHERE wallet_seq IS NULL;
+
+-- snapshots were taken at a transaction id, which the backfill above turned into the same wallet_seq
+ALTER TABLE balance_snapshots RENAME COLUMN last_transaction_id TO last_wallet_seq;
@@ -0,0 +1,51 @@
+-- V8 left transactions with one partition ending at the month it ran in. Until
+-- TransactionPartitionService is enabled nothing creates the next one, and every insert after
+-- that month would fail. The coming months get partitions now, and a DEFAULT partition takes
+-- whatever no monthly partition covers; the service moves those rows out when it creates
+-- their month.
+DO $$
+DECLARE
+    month DATE := date_trunc('month', now() AT TIME ZONE 'UTC')::DATE;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid
+               WHERE c.relname = 'transactions') THEN
+        FOR ahead IN 0..3 LOOP
+            BEGIN
+                EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                               'transactions_p' || to_char(month, 'YYYYMM'),
+                               month::TIMESTAMP AT TIME ZONE 'UTC', (month + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC');
+            EXCEPTION WHEN invalid_object_definition THEN
+                -- overlaps transactions_legacy, which still covers this month
+                NULL;
+            END;
+            month := (month + INTERVAL '1 month')::DATE;
+        END LOOP;
+        CREATE TABLE IF NOT EXISTS transactions_default PARTITION OF transactions DEFAULT;
+    END IF;
+END $$;
+
+-- A unique constraint on a partitioned table has to include the partition key, so
+-- uk_transactions_transaction_id only holds per month. Every transaction_id is also kept here by
+-- a trigger in the writing transaction, which makes a duplicate fail across months the same way
+-- the old constraint did. A deleted row frees its id, which is also what lets a row move between
+-- partitions (an UPDATE of created_at runs as a delete plus an insert). Detaching or dropping a
+-- partition fires no row triggers, so archived ids stay taken. The price is one more index
+-- insert per transaction row.
+CREATE TABLE IF NOT EXISTS transaction_ids (
+    transaction_id VARCHAR(255) PRIMARY KEY
+);
+INSERT INTO transaction_ids (transaction_id) SELECT transaction_id FROM transactions ON CONFLICT DO NOTHING;
+
+CREATE OR REPLACE FUNCTION transactions_track_transaction_id() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO transaction_ids (transaction_id) VALUES (NEW.transaction_id);
+    ELSE
+        DELETE FROM transaction_ids WHERE transaction_id = OLD.transaction_id;
+    END IF;
+    RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS transactions_unique_transaction_id ON transactions;
+CREATE TRIGGER transactions_unique_transaction_id AFTER INSERT OR DELETE ON transactions
+    FOR EACH ROW EXECUTE FUNCTION transactions_track_transaction_id();
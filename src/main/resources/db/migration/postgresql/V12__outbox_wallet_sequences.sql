@@ -0,0 +1,20 @@
+-- Per-wallet order of outbox events. V9 relied on the wallet row lock to order a wallet's outbox
+-- ids, but hot wallet slot writes do not take it, so two of them could commit in the opposite order
+-- of their ids. OutboxWriter now bumps the wallet's row here just before the commit and keeps it
+-- locked until then: the wallet's outbox rows get their ids, and event_seq (1, 2, 3, ... per
+-- wallet, no gaps), in the order they commit, whichever write path they came from.
+CREATE TABLE IF NOT EXISTS outbox_wallet_sequences (
+    wallet_id VARCHAR(255) PRIMARY KEY,
+    last_seq  BIGINT NOT NULL
+);
+
+-- null only on rows written by a node that was not upgraded yet
+ALTER TABLE transaction_outbox ADD COLUMN IF NOT EXISTS event_seq BIGINT;
+
+-- rows still waiting for the relay keep their id order
+UPDATE transaction_outbox o SET event_seq = r.seq
+FROM (SELECT id, row_number() OVER (PARTITION BY wallet_id ORDER BY id) AS seq FROM transaction_outbox) r
+WHERE r.id = o.id AND o.event_seq IS NULL;
+INSERT INTO outbox_wallet_sequences (wallet_id, last_seq)
+SELECT wallet_id, max(event_seq) FROM transaction_outbox GROUP BY wallet_id
+ON CONFLICT (wallet_id) DO NOTHING;
@@ -0,0 +1,21 @@
+-- V11's transaction_ids table kept every transaction_id ever written in one global index, and
+-- nothing took ids out when a partition was detached or dropped, so it grew without bound and
+-- cost an extra index insert per row. It goes away again: transaction ids are unique by how
+-- they are generated (time-ordered, with a node id per instance), and each partition gets a
+-- unique index on transaction_id of its own, which leaves with the partition.
+DROP TRIGGER IF EXISTS transactions_unique_transaction_id ON transactions;
+DROP FUNCTION IF EXISTS transactions_track_transaction_id();
+DROP TABLE IF EXISTS transaction_ids;
+
+-- transactions_legacy still has the unique constraint from V1; TransactionPartitionService adds
+-- the index to every partition it creates from here on
+DO $$
+DECLARE
+    part TEXT;
+BEGIN
+    FOR part IN SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass('transactions') AND c.relname <> 'transactions_legacy' LOOP
+        EXECUTE format('CREATE UNIQUE INDEX IF NOT EXISTS %I ON %I (transaction_id)',
+                       'uk_' || part || '_transaction_id', part);
+    END LOOP;
+END $$;
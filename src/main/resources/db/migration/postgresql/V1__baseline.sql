@@ -0,0 +1,23 @@
+-- Schema as Hibernate created it (ddl-auto=update) before the numbered migrations; V2 onwards
+-- build on it. An existing database without a flyway_schema_history table is baselined at
+-- spring.flyway.baseline-version instead, so this only runs against an empty schema.
+-- Constraint names are the PostgreSQL defaults, V8 uses the uk_/fk_ names on the partitioned table.
+CREATE TABLE IF NOT EXISTS wallets (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    balance   INTEGER      NOT NULL,
+    owner     VARCHAR(255) NOT NULL,
+    wallet_id VARCHAR(255) NOT NULL,
+    CONSTRAINT wallets_wallet_id_key UNIQUE (wallet_id)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    amount         INTEGER      NOT NULL,
+    balance_after  INTEGER      NOT NULL,
+    transaction_id VARCHAR(255) NOT NULL,
+    type           VARCHAR(255) NOT NULL,
+    wallet_id      BIGINT       NOT NULL,
+    CONSTRAINT transactions_transaction_id_key UNIQUE (transaction_id),
+    CONSTRAINT transactions_type_check CHECK (type IN ('DEPOSIT', 'WITHDRAW')),
+    CONSTRAINT transactions_wallet_id_fkey FOREIGN KEY (wallet_id) REFERENCES wallets (id)
+);
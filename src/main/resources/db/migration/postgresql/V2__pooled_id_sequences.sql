@@ -0,0 +1,11 @@
+-- Wallet and transaction ids move from IDENTITY columns to pooled sequences (increment 50),
+-- which lets Hibernate batch inserts. Databases created before this change need the
+-- sequences moved past the existing ids once; new databases get them from the schema.
+CREATE SEQUENCE IF NOT EXISTS wallets_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transactions_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('wallets_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM wallets), 1));
+SELECT setval('transactions_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM transactions), 1));
+
+ALTER TABLE wallets ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,2 @@
+-- Keyset pagination of a wallet's history seeks on (wallet_id, id).
+CREATE INDEX IF NOT EXISTS idx_transactions_wallet_id_id ON transactions (wallet_id, id);
@@ -0,0 +1,7 @@
+-- Last verified point of each wallet's ledger; reconciliation only replays newer transactions.
+CREATE TABLE IF NOT EXISTS balance_snapshots (
+    wallet_pk           BIGINT PRIMARY KEY REFERENCES wallets (id),
+    last_transaction_id BIGINT NOT NULL,
+    balance             BIGINT NOT NULL,
+    taken_at            TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Idempotency-Key of a deposit/withdraw and the response it produced; expired rows are purged by the app.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(128) PRIMARY KEY,
+    fingerprint     VARCHAR(255) NOT NULL,
+    response        VARCHAR(2000),
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
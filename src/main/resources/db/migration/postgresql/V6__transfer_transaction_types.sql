@@ -0,0 +1,3 @@
+-- Hibernate generated a check constraint listing the enum values when it created the table;
+-- TRANSFER_OUT/TRANSFER_IN rows would violate it. The application owns the set of types.
+ALTER TABLE transactions DROP CONSTRAINT IF EXISTS transactions_type_check;
@@ -0,0 +1,15 @@
+-- Sub-balances of hot wallets: a wallet's balance is wallets.balance plus its wallet_slots rows.
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS slot_count INTEGER NOT NULL DEFAULT 0;
+-- slot a deposit/withdrawal was applied to, null when it went to the wallet row
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS slot INTEGER;
+
+CREATE SEQUENCE IF NOT EXISTS wallet_slots_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS wallet_slots (
+    id        BIGINT PRIMARY KEY,
+    wallet_pk BIGINT  NOT NULL,
+    slot      INTEGER NOT NULL,
+    balance   INTEGER NOT NULL,
+    CONSTRAINT uk_wallet_slots_wallet_slot UNIQUE (wallet_pk, slot)
+);
+-- the compactor looks hot wallets up by slot_count
+CREATE INDEX IF NOT EXISTS idx_wallets_hot ON wallets (id) WHERE slot_count > 0;
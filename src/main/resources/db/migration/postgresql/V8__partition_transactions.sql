@@ -0,0 +1,40 @@
+-- transactions becomes a table partitioned by month on created_at. The existing table is
+-- attached as one partition covering everything up to the end of the current month, new
+-- months get their own partitions from TransactionPartitionService (wallet.partitioning.enabled).
+-- Primary key and unique constraints of a partitioned table have to include created_at, so
+-- transaction_id is unique per partition; the id generators keep it unique overall.
+DO $$
+DECLARE
+    bound DATE := (date_trunc('month', now()) + INTERVAL '1 month')::DATE;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid
+                   WHERE c.relname = 'transactions') THEN
+        ALTER TABLE transactions ADD COLUMN IF NOT EXISTS created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now();
+        ALTER TABLE transactions RENAME TO transactions_legacy;
+        ALTER INDEX IF EXISTS idx_transactions_wallet_id_id RENAME TO idx_transactions_legacy_wallet_id_id;
+        -- the primary key keeps its name through the table rename and would clash with the new one
+        ALTER TABLE transactions_legacy RENAME CONSTRAINT transactions_pkey TO transactions_legacy_pkey;
+
+        CREATE TABLE transactions (LIKE transactions_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (created_at);
+        ALTER TABLE transactions ADD CONSTRAINT transactions_pkey PRIMARY KEY (id, created_at);
+        ALTER TABLE transactions ADD CONSTRAINT uk_transactions_transaction_id UNIQUE (transaction_id, created_at);
+        ALTER TABLE transactions ADD CONSTRAINT fk_transactions_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id);
+        CREATE INDEX idx_transactions_wallet_id_id ON transactions (wallet_id, id);
+
+        -- the check lets ATTACH skip its validation scan
+        EXECUTE format('ALTER TABLE transactions_legacy ADD CONSTRAINT transactions_legacy_range CHECK (created_at < %L)', bound);
+        EXECUTE format('ALTER TABLE transactions ATTACH PARTITION transactions_legacy FOR VALUES FROM (MINVALUE) TO (%L)', bound);
+    END IF;
+END $$;
+
+-- what is left of detached partitions: one row per wallet and day
+CREATE TABLE IF NOT EXISTS transaction_daily_rollups (
+    wallet_pk         BIGINT  NOT NULL REFERENCES wallets (id),
+    day               DATE    NOT NULL,
+    transaction_count INTEGER NOT NULL,
+    credited          BIGINT  NOT NULL,
+    debited           BIGINT  NOT NULL,
+    -- balanceAfter of the day's last row, null when the day touched hot wallet slots
+    closing_balance   INTEGER,
+    PRIMARY KEY (wallet_pk, day)
+);
@@ -0,0 +1,25 @@
+-- Transactional outbox (wallet.outbox.enabled): a row per transactions row, inserted by OutboxWriter
+-- in the same database transaction and deleted by OutboxRelay once the sink has it. ids are taken
+-- at insert time while the wallet row is locked, so each wallet's rows are in the order applied.
+CREATE TABLE IF NOT EXISTS transaction_outbox (
+    id             BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    bucket         INTEGER      NOT NULL,
+    wallet_id      VARCHAR(255) NOT NULL,
+    transaction_pk BIGINT       NOT NULL,
+    transaction_id VARCHAR(255) NOT NULL,
+    type           VARCHAR(32)  NOT NULL,
+    amount         INTEGER      NOT NULL,
+    balance_after  INTEGER      NOT NULL,
+    -- hot wallet slot, balance_after is then the slot's balance
+    slot           INTEGER,
+    created_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now()
+);
+-- the relay reads the oldest rows of the buckets it claimed
+CREATE INDEX IF NOT EXISTS idx_transaction_outbox_bucket_id ON transaction_outbox (bucket, id);
+
+-- one row per bucket, locked FOR UPDATE SKIP LOCKED by the relay working on it;
+-- rows are added by the relay for wallet.outbox.buckets
+CREATE TABLE IF NOT EXISTS outbox_buckets (
+    bucket     INTEGER PRIMARY KEY,
+    relayed_at TIMESTAMP(6) WITH TIME ZONE
+);
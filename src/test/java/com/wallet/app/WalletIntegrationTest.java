@@ -0,0 +1,29 @@
+package com.wallet.app;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.wallet.app.dto.WalletRequest;
+import com.wallet.app.service.UserService;
+
+//full context on the H2 test database; subclasses add their own properties with @TestPropertySource
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+public abstract class WalletIntegrationTest {
+
+    @Autowired
+    protected UserService userService;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    protected void createWallet(String walletId, int balance) {
+        WalletRequest request = new WalletRequest();
+        request.setWalletId(walletId);
+        request.setOwnerName("Nitin");
+        request.setBalance(balance);
+        userService.create(request);
+    }
+}
@@ -0,0 +1,134 @@
+package com.wallet.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.wallet.app.config.AdaptiveConcurrencyLimiter.Admission;
+import com.wallet.app.exception.AdmissionRejectedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AdmissionControlInterceptorTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void floodedWalletIsShedWhileOtherWalletsPass() throws Exception {
+        AdmissionControlInterceptor interceptor = interceptor(1, 2, new AdaptiveConcurrencyLimiter(10, 1, 10, Duration.ofSeconds(1), 10));
+
+        admit(interceptor, "hot");
+        admit(interceptor, "hot");
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> interceptor.preHandle(walletRequest("hot"), response, null));
+        assertTrue(rejected.getRetryAfterSeconds() >= 1);
+
+        admit(interceptor, "cold");
+        assertEquals(1, meterRegistry.get("wallet.admission.rejected").tag("reason", "wallet_rate").counter().count());
+    }
+
+    @Test
+    void requestThatCannotMeetItsDeadlineIsRejectedUpFront() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 10, Duration.ofSeconds(1), 10);
+        limiter.acquire(0);
+        limiter.release(0, TimeUnit.MILLISECONDS.toNanos(300));
+        AdmissionControlInterceptor interceptor = interceptor(100, 100, limiter);
+
+        MockHttpServletRequest request = walletRequest("w1");
+        request.addHeader(AdmissionControlInterceptor.DEADLINE_HEADER, "100");
+        assertThrows(AdmissionRejectedException.class, () -> interceptor.preHandle(request, response, null));
+
+        MockHttpServletRequest patient = walletRequest("w1");
+        patient.addHeader(AdmissionControlInterceptor.DEADLINE_HEADER, "1000");
+        interceptor.preHandle(patient, response, null);
+    }
+
+    @Test
+    void limiterBacksOffOnSlowRequestsAndQueuesBounded() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, Duration.ofMillis(50), 0);
+
+        assertEquals(Admission.ADMITTED, limiter.acquire(0));
+        assertEquals(Admission.ADMITTED, limiter.acquire(0));
+        //full, and no queue to wait in
+        assertEquals(Admission.QUEUE_FULL, limiter.acquire(TimeUnit.MILLISECONDS.toNanos(10)));
+
+        limiter.release(0, TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(1, limiter.limit());
+        //a fast request while saturated grows it back
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(300), TimeUnit.MILLISECONDS.toNanos(305));
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    void limiterCutsOncePerRoundTrip() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 1, 100, Duration.ofMillis(50), 0);
+        long ms = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire(0);
+        }
+
+        //a whole wave admitted together finishes slow: one cut, not fifty
+        for (int i = 0; i < 50; i++) {
+            limiter.release(0, 200 * ms + i);
+        }
+        assertEquals(90, limiter.limit());
+
+        //a request admitted after that cut and still slow cuts again
+        limiter.acquire(0);
+        limiter.release(201 * ms, 400 * ms);
+        assertEquals(81, limiter.limit());
+    }
+
+    @Test
+    void requestTurnedAwayByTheLimiterKeepsItsTokens() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, Duration.ofSeconds(1), 0);
+        AdmissionControlInterceptor interceptor = interceptor(1, 1, limiter);
+        limiter.acquire(0);
+
+        //no free slot, no queue: rejected three times, each time without spending the only token
+        for (int i = 0; i < 3; i++) {
+            assertThrows(AdmissionRejectedException.class, () -> interceptor.preHandle(walletRequest("w1"), response, null));
+        }
+        assertEquals(3, meterRegistry.get("wallet.admission.rejected").tag("reason", "queue_full").counter().count());
+
+        limiter.release(0, 1);
+        admit(interceptor, "w1");
+    }
+
+    @Test
+    void tokenBucketRefillsAtItsRate() {
+        long start = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(10, 1, start);
+
+        assertEquals(0, bucket.tryTake(start));
+        long wait = bucket.tryTake(start);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+        assertEquals(0, bucket.tryTake(start + wait));
+    }
+
+    private AdmissionControlInterceptor interceptor(double walletRate, int walletBurst, AdaptiveConcurrencyLimiter limiter) {
+        return new AdmissionControlInterceptor(walletRate, walletBurst, 10_000, 10_000, limiter, Duration.ofMillis(10), meterRegistry);
+    }
+
+    private void admit(AdmissionControlInterceptor interceptor, String walletId) throws Exception {
+        MockHttpServletRequest request = walletRequest(walletId);
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+    }
+
+    private static MockHttpServletRequest walletRequest(String walletId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/wallets/" + walletId + "/deposit");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("walletId", walletId));
+        return request;
+    }
+}
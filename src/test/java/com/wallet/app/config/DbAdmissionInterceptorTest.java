@@ -0,0 +1,49 @@
+package com.wallet.app.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.wallet.app.exception.DbAdmissionTimeoutException;
+
+import jakarta.servlet.DispatcherType;
+
+public class DbAdmissionInterceptorTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void rejectsOnceAllPermitsAreHeldAndReleasesOnCompletion() throws Exception {
+        DbAdmissionInterceptor interceptor = new DbAdmissionInterceptor(1, Duration.ofMillis(10));
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        MockHttpServletRequest second = new MockHttpServletRequest();
+
+        interceptor.preHandle(first, response, null);
+        assertThrows(DbAdmissionTimeoutException.class, () -> interceptor.preHandle(second, response, null));
+
+        interceptor.afterCompletion(first, response, null, null);
+        //a second completion callback must not hand out an extra permit
+        interceptor.afterCompletion(first, response, null, null);
+        assertEquals(1, interceptor.availablePermits());
+    }
+
+    @Test
+    void asyncRequestGivesItsPermitBackWhenTheHandlerReturns() throws Exception {
+        DbAdmissionInterceptor interceptor = new DbAdmissionInterceptor(1, Duration.ofMillis(10));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        assertEquals(1, interceptor.availablePermits());
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        assertEquals(1, interceptor.availablePermits());
+    }
+}
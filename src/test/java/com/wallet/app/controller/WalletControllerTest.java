@@ -1,6 +1,7 @@
 package com.wallet.app.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -10,17 +11,38 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.app.dto.BalanceResponse;
+import com.wallet.app.dto.BatchItemResult;
+import com.wallet.app.dto.ErrorResponse;
+import com.wallet.app.dto.BatchTransactionItem;
+import com.wallet.app.dto.BatchTransactionRequest;
+import com.wallet.app.dto.BatchTransactionResponse;
+import com.wallet.app.dto.TransactionHistoryItem;
+import com.wallet.app.dto.TransactionPageResponse;
 import com.wallet.app.dto.TransactionRequest;
 import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.TransferRequest;
+import com.wallet.app.dto.TransferResponse;
 import com.wallet.app.dto.WalletRequest;
 import com.wallet.app.dto.WalletResponse;
+import com.wallet.app.exception.WalletNotFoundException;
+import com.wallet.app.metrics.WalletMetrics;
 import com.wallet.app.model.TransactionType;
+import com.wallet.app.service.IdempotencyService;
+import com.wallet.app.service.TransactionHistoryService;
 import com.wallet.app.service.UserService;
+import com.wallet.app.service.WalletImportService;
+import com.wallet.app.stream.TransactionStreamHub;
+import com.wallet.app.wire.WalletBinaryCodec;
+import com.wallet.app.wire.WalletBinaryHttpMessageConverter;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @WebMvcTest(WalletController.class)
 public class WalletControllerTest {
@@ -35,6 +57,21 @@ public class WalletControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private TransactionHistoryService historyService;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @MockitoBean
+    private WalletMetrics walletMetrics;
+
+    @MockitoBean
+    private WalletImportService importService;
+
+    @MockitoBean
+    private TransactionStreamHub streamHub;
+
     @Test
     void createWallet() throws Exception{
 
@@ -71,12 +108,24 @@ public class WalletControllerTest {
                      .andExpect(status().isOk())
                        .andExpect(content().string("500"));
     }
+
+    @Test
+    void getBalanceOverBinaryWireFormat() throws Exception
+    {
+        Mockito.when(userService.getBalance("snitin6528")).thenReturn(500);
+        byte[] body=mockMvc.perform(get("/api/v1/wallets/{walletId}/balance", "snitin6528")
+                        .accept(WalletBinaryHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WalletBinaryHttpMessageConverter.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(new BalanceResponse("snitin6528", 500), WalletBinaryCodec.decode(BalanceResponse.class, body));
+    }
     @Test
     void deposit() throws Exception{
            
         String walletId="snitin6528";
         TransactionRequest request=new TransactionRequest(TransactionType.DEPOSIT, 500);
-        TransactionResponse mockResponse=new TransactionResponse("UTR001", walletId, TransactionType.DEPOSIT, 500, 500);
+        TransactionResponse mockResponse=new TransactionResponse("UTR001", walletId, TransactionType.DEPOSIT, 500, 500, null);
         Mockito.when(userService.deposit(walletId, 500)).thenReturn(mockResponse);
          mockMvc.perform(post("/api/v1/wallets/{walletId}/deposit", walletId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -108,5 +157,140 @@ public class WalletControllerTest {
                 
     }
 
+    @Test
+    void transfer() throws Exception
+    {
+        TransferRequest request=new TransferRequest("receiver", 200);
+        TransferResponse mockResponse=TransferResponse.builder()
+                .fromWalletId("snitin6528")
+                .toWalletId("receiver")
+                .amount(200)
+                .debit(new TransactionResponse("UTR001", "snitin6528", TransactionType.TRANSFER_OUT, 200, 300))
+                .credit(new TransactionResponse("UTR002", "receiver", TransactionType.TRANSFER_IN, 200, 200))
+                .build();
+        Mockito.when(userService.transfer("snitin6528", "receiver", 200)).thenReturn(mockResponse);
+        mockMvc.perform(post("/api/v1/wallets/{walletId}/transfer", "snitin6528")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.debit.type").value("TRANSFER_OUT"))
+                .andExpect(jsonPath("$.debit.balanceAfter").value(300))
+                .andExpect(jsonPath("$.credit.walletId").value("receiver"));
+    }
+
+    @Test
+    void depositWithIdempotencyKey() throws Exception
+    {
+        String walletId="snitin6528";
+        TransactionRequest request=new TransactionRequest(TransactionType.DEPOSIT, 500);
+        TransactionResponse mockResponse=new TransactionResponse("UTR001", walletId, TransactionType.DEPOSIT, 500, 500, null);
+        Mockito.when(idempotencyService.execute(eq("retry-1"), eq("deposit:snitin6528:500"), eq(TransactionResponse.class), any())).thenReturn(mockResponse);
+         mockMvc.perform(post("/api/v1/wallets/{walletId}/deposit", walletId)
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionId").value("UTR001"));
+        Mockito.verify(userService, Mockito.never()).deposit(walletId, 500);
+    }
     
+    @Test
+    void depositOverBinaryWireFormat() throws Exception
+    {
+        String walletId="snitin6528";
+        TransactionResponse mockResponse=new TransactionResponse("UTR001", walletId, TransactionType.DEPOSIT, 500, 500, null);
+        Mockito.when(userService.deposit(walletId, 500)).thenReturn(mockResponse);
+        byte[] body=mockMvc.perform(post("/api/v1/wallets/{walletId}/deposit", walletId)
+                        .contentType(WalletBinaryHttpMessageConverter.MEDIA_TYPE)
+                        .accept(WalletBinaryHttpMessageConverter.MEDIA_TYPE)
+                        .content(WalletBinaryCodec.encode(new TransactionRequest(TransactionType.DEPOSIT, 500))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WalletBinaryHttpMessageConverter.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(mockResponse, WalletBinaryCodec.decode(TransactionResponse.class, body));
+    }
+
+    @Test
+    void errorOverBinaryWireFormat() throws Exception
+    {
+        Mockito.when(userService.withdraw("unknown", 100)).thenThrow(new WalletNotFoundException("Wallet Id not found!"));
+        byte[] body=mockMvc.perform(post("/api/v1/wallets/{walletId}/withdraw", "unknown")
+                        .contentType(WalletBinaryHttpMessageConverter.MEDIA_TYPE)
+                        .accept(WalletBinaryHttpMessageConverter.MEDIA_TYPE)
+                        .content(WalletBinaryCodec.encode(new TransactionRequest(TransactionType.WITHDRAW, 100))))
+                .andExpect(status().isNotFound())
+                .andReturn().getResponse().getContentAsByteArray();
+        ErrorResponse error=WalletBinaryCodec.decode(ErrorResponse.class, body);
+        assertEquals(404, error.getStatus());
+        assertEquals("Wallet Id not found!", error.getMessage());
+    }
+
+    @Test
+    void errorStaysJsonByDefault() throws Exception
+    {
+        Mockito.when(userService.getBalance("unknown")).thenThrow(new WalletNotFoundException("Wallet Id not found!"));
+        mockMvc.perform(get("/api/v1/wallets/{walletId}/balance", "unknown"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Not Found"))
+                .andExpect(jsonPath("$.timestamp").exists());
+    }
+
+    @Test
+    void batchTransactions() throws Exception
+    {
+        BatchTransactionRequest request=new BatchTransactionRequest(List.of(
+                new BatchTransactionItem("snitin6528", TransactionType.DEPOSIT, 500),
+                new BatchTransactionItem("unknown", TransactionType.WITHDRAW, 100)));
+        BatchTransactionResponse mockResponse=BatchTransactionResponse.of(List.of(
+                BatchItemResult.ok(0, new TransactionResponse("UTR001", "snitin6528", TransactionType.DEPOSIT, 500, 500, null)),
+                BatchItemResult.failed(1, "Wallet Id not found!")));
+        Mockito.when(userService.applyBatch(any(BatchTransactionRequest.class))).thenReturn(mockResponse);
+        mockMvc.perform(post("/api/v1/wallets/transactions:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].transaction.balanceAfter").value(500))
+                .andExpect(jsonPath("$.results[1].error").value("Wallet Id not found!"));
+    }
+
+    @Test
+    void batchTransactionsOverBinaryWireFormat() throws Exception
+    {
+        BatchTransactionRequest request=new BatchTransactionRequest(List.of(
+                new BatchTransactionItem("snitin6528", TransactionType.DEPOSIT, 500),
+                new BatchTransactionItem("unknown", TransactionType.WITHDRAW, 100)));
+        BatchTransactionResponse mockResponse=BatchTransactionResponse.of(List.of(
+                BatchItemResult.ok(0, new TransactionResponse("UTR001", "snitin6528", TransactionType.DEPOSIT, 500, 500, null)),
+                BatchItemResult.failed(1, "Wallet Id not found!")));
+        Mockito.when(userService.applyBatch(request)).thenReturn(mockResponse);
+        byte[] body=mockMvc.perform(post("/api/v1/wallets/transactions:batch")
+                        .contentType(WalletBinaryHttpMessageConverter.MEDIA_TYPE)
+                        .accept(WalletBinaryHttpMessageConverter.MEDIA_TYPE)
+                        .content(WalletBinaryCodec.encode(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WalletBinaryHttpMessageConverter.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(mockResponse, WalletBinaryCodec.decode(BatchTransactionResponse.class, body));
+    }
+
+    @Test
+    void getTransactions() throws Exception
+    {
+        String walletId="snitin6528";
+        TransactionPageResponse mockResponse=new TransactionPageResponse(walletId, List.of(
+                new TransactionHistoryItem(311L, 11L, "UTR001", TransactionType.DEPOSIT, 500, 500, null),
+                new TransactionHistoryItem(312L, 12L, "UTR002", TransactionType.WITHDRAW, 100, 400, null)), 12L);
+        Mockito.when(historyService.getTransactions(walletId, 10L, 2)).thenReturn(mockResponse);
+        mockMvc.perform(get("/api/v1/wallets/{walletId}/transactions", walletId)
+                        .param("after", "10")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].transactionId").value("UTR001"))
+                .andExpect(jsonPath("$.items[1].balanceAfter").value(400))
+                .andExpect(jsonPath("$.nextCursor").value(12));
+    }
+
 }
@@ -0,0 +1,115 @@
+package com.wallet.app.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.wallet.app.WalletIntegrationTest;
+
+//the "replica" is a second pool on the same H2 database, enough to see where connections are routed
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicadb",
+        "wallet.replicas.enabled=true",
+        "wallet.replicas.urls=jdbc:h2:mem:replicadb",
+        "wallet.replicas.lag-query=select 0",
+        "wallet.replicas.max-lag=100ms",
+        "wallet.replicas.read-your-writes-window=300ms",
+        "wallet.replicas.lag-check-interval=PT1H"})
+public class ReadRoutingTest extends WalletIntegrationTest {
+
+    @TestConfiguration
+    static class ManualTickerConfig {
+        @Bean
+        ManualTicker manualTicker() {
+            return new ManualTicker();
+        }
+    }
+
+    //time of the read-your-writes window, moved by hand instead of sleeping through it
+    static class ManualTicker implements Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+    }
+
+    @Autowired
+    private ManualTicker ticker;
+
+    @Autowired
+    private ReadRouting readRouting;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = (ReplicaRoutingDataSource) ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+        replicaLagMonitor.check();
+    }
+
+    @Test
+    void quietWalletIsReadFromAReplica() {
+        createWallet("replica-quiet", 40);
+        ticker.advance(Duration.ofMillis(400));
+
+        assertEquals("replica-0", readRouting.read("replica-quiet", routing::determineCurrentLookupKey));
+        assertEquals("replica-0", readRouting.readStatement("replica-quiet", routing::determineCurrentLookupKey));
+        assertEquals(40, userService.getBalance("replica-quiet"));
+    }
+
+    @Test
+    void walletWrittenRecentlyIsReadFromThePrimary() {
+        createWallet("replica-ryw", 10);
+        userService.deposit("replica-ryw", 5);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, readRouting.read("replica-ryw", routing::determineCurrentLookupKey));
+        assertEquals(15, userService.getBalance("replica-ryw"));
+    }
+
+    @Test
+    void otherTransactionsStayOnThePrimary() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, readWrite.execute(status -> routing.determineCurrentLookupKey()));
+
+        //read-only alone is not enough, only reads that went through ReadRouting may lag
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, readOnly.execute(status -> routing.determineCurrentLookupKey()));
+    }
+
+    @Test
+    void replicaBehindMaxLagIsSkipped() {
+        replicaLagMonitor.record(0, 5_000);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, readRouting.read("replica-lagging", routing::determineCurrentLookupKey));
+    }
+}
@@ -0,0 +1,89 @@
+package com.wallet.app.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.wallet.app.model.TransactionType;
+
+public class LedgerJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void undrainedRecordsSurviveReopen() throws Exception {
+        Path file = dir.resolve("ledger.journal");
+        try (LedgerJournal journal = new LedgerJournal(file, 64 * 1024)) {
+            journal.awaitDurable(journal.append(TransactionType.DEPOSIT, "w1", "tx-1", 100, 100));
+            journal.awaitDurable(journal.append(TransactionType.WITHDRAW, "w1", "tx-2", 40, 60));
+            journal.awaitDurable(journal.append(TransactionType.DEPOSIT, "w2", "tx-3", 5, 5));
+            journal.markDrained(1);
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(file, 64 * 1024)) {
+            List<JournalRecord> records = journal.readUndrained(10);
+            assertEquals(2, records.size());
+            assertEquals("tx-2", records.get(0).getTransactionId());
+            assertEquals(TransactionType.WITHDRAW, records.get(0).getType());
+            assertEquals(60, records.get(0).getBalanceAfter());
+            assertEquals("w2", records.get(1).getWalletId());
+        }
+    }
+
+    @Test
+    void fullJournalWrapsOnceDrained() throws Exception {
+        int capacity = LedgerJournal.HEADER_SIZE + 2 * LedgerJournal.RECORD_SIZE;
+        try (LedgerJournal journal = new LedgerJournal(dir.resolve("small.journal"), capacity)) {
+            journal.append(TransactionType.DEPOSIT, "w1", "tx-1", 1, 1);
+            journal.append(TransactionType.DEPOSIT, "w1", "tx-2", 1, 2);
+            assertEquals(-1, journal.append(TransactionType.DEPOSIT, "w1", "tx-3", 1, 3));
+
+            journal.markDrained(journal.readUndrained(10).size());
+            assertTrue(journal.append(TransactionType.DEPOSIT, "w1", "tx-3", 1, 3) > 0);
+            assertEquals("tx-3", journal.readUndrained(10).get(0).getTransactionId());
+        }
+    }
+
+    @Test
+    void halfWrittenTransferIsDroppedOnReopen() throws Exception {
+        Path file = dir.resolve("transfer.journal");
+        try (LedgerJournal journal = new LedgerJournal(file, 64 * 1024)) {
+            journal.awaitDurable(journal.appendTransfer("w1", "tx-1", 60, "w2", "tx-2", 40, 40));
+            //simulates a crash after the out leg of a second transfer hit the disk
+            journal.awaitDurable(journal.append(TransactionType.TRANSFER_OUT, "w1", "tx-3", 10, 50));
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(file, 64 * 1024)) {
+            List<JournalRecord> records = journal.readUndrained(10);
+            assertEquals(2, records.size());
+            assertEquals(TransactionType.TRANSFER_OUT, records.get(0).getType());
+            assertEquals(TransactionType.TRANSFER_IN, records.get(1).getType());
+            assertEquals("w2", records.get(1).getWalletId());
+        }
+    }
+
+    @Test
+    void drainBatchNeverSplitsATransfer() throws Exception {
+        try (LedgerJournal journal = new LedgerJournal(dir.resolve("batch.journal"), 64 * 1024)) {
+            journal.append(TransactionType.DEPOSIT, "w1", "tx-1", 100, 100);
+            journal.appendTransfer("w1", "tx-2", 60, "w2", "tx-3", 40, 40);
+            journal.append(TransactionType.DEPOSIT, "w2", "tx-4", 1, 41);
+
+            //the max lands on the out leg, the in leg comes along
+            List<JournalRecord> first = journal.readUndrained(2);
+            assertEquals(3, first.size());
+            assertEquals(TransactionType.TRANSFER_IN, first.get(2).getType());
+            journal.markDrained(first.size());
+
+            List<JournalRecord> rest = journal.readUndrained(2);
+            assertEquals(1, rest.size());
+            assertEquals("tx-4", rest.get(0).getTransactionId());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.wallet.app.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.wallet.app.cache.BalanceCache;
+import com.wallet.app.exception.InsufficientBalanceException;
+import com.wallet.app.exception.WalletNotFoundException;
+import com.wallet.app.metrics.WalletMetrics.Operation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class WalletMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @SuppressWarnings("unchecked")
+    private final WalletMetrics metrics = new WalletMetrics(registry,
+            new BalanceCache(true, 10, Duration.ofSeconds(1), Mockito.mock(ObjectProvider.class)), 100);
+
+    @Test
+    void recordsEachCallUnderItsOutcome() {
+        metrics.stop(metrics.start(Operation.DEPOSIT, "w1"), null);
+        metrics.stop(metrics.start(Operation.WITHDRAW, "w1"), new InsufficientBalanceException("Insufficient balance in account!"));
+
+        assertEquals(1, registry.get("wallet.operation").tags("operation", "deposit", "outcome", "ok").timer().count());
+        assertEquals(1, registry.get("wallet.operation").tags("operation", "withdraw", "outcome", "insufficient_balance").timer().count());
+        assertEquals(0, registry.get("wallet.operation").tags("operation", "withdraw", "outcome", "ok").timer().count());
+    }
+
+    @Test
+    void tracksInFlightWritesPerWallet() {
+        //a wallet is counted once a write to it has gone through
+        metrics.stop(metrics.start(Operation.DEPOSIT, "hot"), null);
+        metrics.stop(metrics.start(Operation.DEPOSIT, "cold"), null);
+
+        WalletMetrics.Call first = metrics.start(Operation.DEPOSIT, "hot");
+        WalletMetrics.Call second = metrics.start(Operation.WITHDRAW, "hot");
+        WalletMetrics.Call other = metrics.start(Operation.TRANSFER, "cold");
+
+        assertEquals(Map.of("hot", 2, "cold", 1), metrics.hotWallets(10));
+        assertEquals(2.0, registry.get("wallet.requests.in_flight.hottest").gauge().value());
+        assertEquals(1.0, registry.get("wallet.requests.contended_wallets").gauge().value());
+
+        metrics.stop(first, null);
+        metrics.stop(second, null);
+        metrics.stop(other, null);
+        assertTrue(metrics.hotWallets(10).isEmpty());
+        assertEquals(0.0, registry.get("wallet.requests.in_flight").gauge().value());
+    }
+
+    @Test
+    void readsAndUnknownWalletsAreNotTrackedPerWallet() {
+        metrics.stop(metrics.start(Operation.DEPOSIT, "known"), null);
+
+        WalletMetrics.Call read = metrics.start(Operation.GET_BALANCE, "known");
+        WalletMetrics.Call missing = metrics.start(Operation.DEPOSIT, "missing");
+        metrics.stop(missing, new WalletNotFoundException("Wallet Id not found!"));
+
+        assertTrue(metrics.hotWallets(10).isEmpty());
+        assertEquals(1.0, registry.get("wallet.requests.in_flight").gauge().value());
+        metrics.stop(read, null);
+
+        //only the wallet with a successful write has an entry
+        WalletMetrics.Call write = metrics.start(Operation.DEPOSIT, "missing");
+        assertTrue(metrics.hotWallets(10).isEmpty());
+        metrics.stop(write, new WalletNotFoundException("Wallet Id not found!"));
+    }
+
+    @Test
+    void concurrentCallsOnOneWalletBalanceOut() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        metrics.stop(metrics.start(Operation.DEPOSIT, "busy"), null);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(metrics.hotWallets(10).isEmpty());
+        assertEquals(0.0, registry.get("wallet.requests.in_flight.hottest").gauge().value());
+        assertEquals(8000, registry.get("wallet.operation").tags("operation", "deposit", "outcome", "ok").timer().count());
+    }
+}
@@ -0,0 +1,93 @@
+package com.wallet.app.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.app.model.TransactionType;
+
+public class NdjsonSegmentSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void batchesAreAppendedAsLinesAndSegmentsCloseAtTheSizeLimit() throws Exception {
+        try (NdjsonSegmentSink sink = new NdjsonSegmentSink(dir, "node-1", 1, Duration.ofHours(1), objectMapper)) {
+            sink.publish(List.of(event(1, "w1"), event(2, "w2")));
+            sink.publish(List.of(event(3, "w1")));
+        }
+
+        List<Path> segments = segments(NdjsonSegmentSink.CLOSED_SUFFIX);
+        assertEquals(2, segments.size());
+        List<String> first = Files.readAllLines(segments.get(0));
+        assertEquals(2, first.size());
+        JsonNode line = objectMapper.readTree(first.get(1));
+        assertEquals(2, line.get("outboxId").asLong());
+        assertEquals("w2", line.get("walletId").asText());
+        assertEquals("DEPOSIT", line.get("type").asText());
+        assertEquals(3, objectMapper.readTree(Files.readAllLines(segments.get(1)).get(0)).get("outboxId").asLong());
+        assertTrue(segments(NdjsonSegmentSink.OPEN_SUFFIX).isEmpty());
+    }
+
+    @Test
+    void openSegmentIsCutToItsLastCompleteLineOnStartup() throws Exception {
+        Path open = dir.resolve("node-1-00000000000000000007-1" + NdjsonSegmentSink.OPEN_SUFFIX);
+        Files.writeString(open, "{\"outboxId\":7}\n{\"outboxId\":8}\n{\"outbox", StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW);
+        //another node's segment is left alone
+        Path other = dir.resolve("node-2-00000000000000000009-1" + NdjsonSegmentSink.OPEN_SUFFIX);
+        Files.writeString(other, "{\"outboxId\":9}\n{\"outbox", StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW);
+
+        new NdjsonSegmentSink(dir, "node-1", 1024, Duration.ofHours(1), objectMapper).close();
+
+        Path closed = dir.resolve("node-1-00000000000000000007-1" + NdjsonSegmentSink.CLOSED_SUFFIX);
+        assertEquals(List.of("{\"outboxId\":7}", "{\"outboxId\":8}"), Files.readAllLines(closed));
+        assertTrue(Files.exists(other));
+    }
+
+    @Test
+    void idleRelayClosesASegmentPastItsMaxAge() throws Exception {
+        try (NdjsonSegmentSink fresh = new NdjsonSegmentSink(dir.resolve("fresh"), "node-1", 1024, Duration.ofHours(1), objectMapper);
+             NdjsonSegmentSink expired = new NdjsonSegmentSink(dir, "node-1", 1024, Duration.ZERO, objectMapper)) {
+            fresh.publish(List.of(event(1, "w1")));
+            expired.publish(List.of(event(2, "w1")));
+            assertEquals(1, segments(NdjsonSegmentSink.OPEN_SUFFIX).size());
+
+            fresh.idle();
+            expired.idle();
+
+            //no publish in between, the quiet sink still hands its segment over
+            assertTrue(segments(NdjsonSegmentSink.OPEN_SUFFIX).isEmpty());
+            assertEquals(1, segments(NdjsonSegmentSink.CLOSED_SUFFIX).size());
+            try (Stream<Path> files = Files.list(dir.resolve("fresh"))) {
+                assertTrue(files.allMatch(path -> path.getFileName().toString().endsWith(NdjsonSegmentSink.OPEN_SUFFIX)));
+            }
+        }
+    }
+
+    private static OutboxEvent event(long outboxId, String walletId) {
+        return new OutboxEvent(outboxId, outboxId * 10, "tx-" + outboxId, walletId, outboxId, TransactionType.DEPOSIT, 5, 5, null,
+                Instant.parse("2026-10-01T00:00:00Z"));
+    }
+
+    private List<Path> segments(String suffix) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.wallet.app.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.wallet.app.dto.WalletRequest;
+import com.wallet.app.service.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+//relays built by the test around a sink it controls; the scheduled relay of the context is off
+@SpringBootTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none", "wallet.transaction-id.node-id=0",
+        "wallet.outbox.enabled=true", "wallet.outbox.buckets=4", "wallet.outbox.relay.enabled=false",
+        "wallet.outbox.ndjson.directory=build/outbox-test"})
+@Testcontainers(disabledWithoutDocker = true)
+public class OutboxRelayPostgresTest {
+
+    private static final int BUCKETS = 4;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final RecordingSink sink = new RecordingSink();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    //collects what it is given, or fails while failing is set
+    private static final class RecordingSink implements OutboxSink {
+        private final List<OutboxEvent> published = new ArrayList<>();
+        private boolean failing;
+        private int idle;
+
+        @Override
+        public void publish(List<OutboxEvent> events) throws IOException {
+            if (failing) {
+                throw new IOException("sink down");
+            }
+            published.addAll(events);
+        }
+
+        @Override
+        public void idle() {
+            idle++;
+        }
+    }
+
+    @BeforeEach
+    void emptyOutbox() {
+        jdbcTemplate.update("delete from transaction_outbox");
+    }
+
+    private OutboxRelay relay(int claimBuckets, int batchSize) {
+        return new OutboxRelay(dataSource, transactionManager, sink, meterRegistry, BUCKETS, claimBuckets, batchSize, 10);
+    }
+
+    @Test
+    void claimedRowsArePublishedInOrderAndDeleted() {
+        createWallet("relay-order", 100);
+        List<String> written = List.of(userService.deposit("relay-order", 1).getTransactionId(),
+                                       userService.deposit("relay-order", 2).getTransactionId(),
+                                       userService.withdraw("relay-order", 3).getTransactionId());
+
+        relay(BUCKETS, 2).relay();
+
+        assertEquals(written, sink.published.stream().map(OutboxEvent::transactionId).toList());
+        assertEquals(List.of(1L, 2L, 3L), sink.published.stream().map(OutboxEvent::eventSeq).toList());
+        assertEquals(0, outboxRows());
+        assertEquals(3.0, meterRegistry.counter("wallet.outbox.published").count());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from outbox_buckets where bucket = ? and relayed_at is not null",
+                Integer.class, OutboxWriter.bucketOf("relay-order", BUCKETS)));
+    }
+
+    @Test
+    void failedPublishKeepsTheRowsAndTheyAreDeliveredAgain() {
+        createWallet("relay-redeliver", 100);
+        userService.deposit("relay-redeliver", 1);
+        userService.deposit("relay-redeliver", 2);
+        OutboxRelay relay = relay(BUCKETS, 10);
+
+        sink.failing = true;
+        relay.relay();
+
+        assertEquals(2, outboxRows());
+        assertEquals(1.0, meterRegistry.counter("wallet.outbox.relay.failures").count());
+
+        sink.failing = false;
+        relay.relay();
+
+        assertEquals(List.of(1L, 2L), sink.published.stream().map(OutboxEvent::eventSeq).toList());
+        assertEquals(0, outboxRows());
+    }
+
+    @Test
+    void bucketLockedByAnotherRelayIsSkippedAndOnlyPublishedRowsAreDeleted() throws Exception {
+        OutboxRelay relay = relay(BUCKETS, 1);
+        //the first run adds the bucket rows
+        relay.relay();
+        String locked = walletInBucket("relay-locked", 0);
+        String free = walletInBucket("relay-free", 1);
+        createWallet(locked, 100);
+        createWallet(free, 100);
+        userService.deposit(locked, 1);
+        userService.deposit(free, 1);
+        userService.deposit(free, 2);
+
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            try (Statement statement = other.createStatement()) {
+                statement.execute("select bucket from outbox_buckets where bucket = 0 for update");
+            }
+            //one row per batch, the locked bucket is passed over instead of waited for
+            assertEquals(1, relay.relayBatch());
+            assertEquals(1, relay.relayBatch());
+            assertEquals(0, relay.relayBatch());
+            other.rollback();
+        }
+
+        assertEquals(List.of(free, free), sink.published.stream().map(OutboxEvent::walletId).toList());
+        assertEquals(1, outboxRows());
+        assertEquals(1, relay.relayBatch());
+        assertEquals(locked, sink.published.get(2).walletId());
+        assertEquals(0, outboxRows());
+    }
+
+    @Test
+    void runWithNothingToClaimTellsTheSinkItIsIdle() {
+        OutboxRelay relay = relay(BUCKETS, 10);
+
+        relay.relay();
+
+        assertTrue(sink.published.isEmpty());
+        assertEquals(1, sink.idle);
+    }
+
+    private void createWallet(String walletId, int balance) {
+        WalletRequest request = new WalletRequest();
+        request.setWalletId(walletId);
+        request.setOwnerName("Relay");
+        request.setBalance(balance);
+        userService.create(request);
+    }
+
+    private String walletInBucket(String prefix, int bucket) {
+        for (int i = 0; ; i++) {
+            if (OutboxWriter.bucketOf(prefix + "-" + i, BUCKETS) == bucket) {
+                return prefix + "-" + i;
+            }
+        }
+    }
+
+    private int outboxRows() {
+        return jdbcTemplate.queryForObject("select count(*) from transaction_outbox", Integer.class);
+    }
+}
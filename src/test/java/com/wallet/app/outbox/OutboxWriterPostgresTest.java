@@ -0,0 +1,196 @@
+package com.wallet.app.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.WalletRequest;
+import com.wallet.app.exception.InsufficientBalanceException;
+import com.wallet.app.service.HotWalletService;
+import com.wallet.app.service.UserService;
+
+//the outbox rows of every write path, schema from the flyway scripts (V9, V12); the relay is off so the rows stay
+@SpringBootTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none", "wallet.transaction-id.node-id=0",
+        "wallet.outbox.enabled=true", "wallet.outbox.relay.enabled=false",
+        "wallet.outbox.ndjson.directory=build/outbox-test"})
+@Testcontainers(disabledWithoutDocker = true)
+public class OutboxWriterPostgresTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final long WAIT_NANOS = 5_000_000_000L;
+
+    //the same checks against each write mode, a nested class per mode
+    abstract static class WritePath {
+
+        @Autowired
+        protected UserService userService;
+
+        @Autowired
+        protected JdbcTemplate jdbcTemplate;
+
+        abstract String prefix();
+
+        @Test
+        void committedWritesGetOutboxRowsInCommitOrder() throws Exception {
+            String walletId = prefix() + "-commit";
+            createWallet(walletId, 100);
+
+            List<String> written = List.of(userService.deposit(walletId, 10).getTransactionId(),
+                                           userService.withdraw(walletId, 5).getTransactionId(),
+                                           userService.deposit(walletId, 7).getTransactionId());
+
+            awaitOutboxRows(walletId, 3);
+            assertEquals(written, jdbcTemplate.queryForList(
+                    "select transaction_id from transaction_outbox where wallet_id = ? order by id", String.class, walletId));
+            assertEquals(List.of(1L, 2L, 3L), eventSeqs(walletId));
+            assertEquals(List.of(110, 105, 112), jdbcTemplate.queryForList(
+                    "select balance_after from transaction_outbox where wallet_id = ? order by id", Integer.class, walletId));
+            //transaction_pk points at the row the event is about
+            assertEquals(3, jdbcTemplate.queryForObject("select count(*) from transaction_outbox o join transactions t "
+                    + "on t.id = o.transaction_pk and t.transaction_id = o.transaction_id where o.wallet_id = ?", Integer.class, walletId));
+        }
+
+        @Test
+        void rejectedWriteLeavesNoOutboxRow() throws Exception {
+            String walletId = prefix() + "-rejected";
+            createWallet(walletId, 10);
+
+            assertThrows(InsufficientBalanceException.class, () -> userService.withdraw(walletId, 11));
+            userService.deposit(walletId, 1);
+
+            awaitOutboxRows(walletId, 1);
+            assertEquals(List.of(1L), eventSeqs(walletId));
+            assertEquals(1L, jdbcTemplate.queryForObject(
+                    "select last_seq from outbox_wallet_sequences where wallet_id = ?", Long.class, walletId));
+        }
+
+        protected void createWallet(String walletId, int balance) {
+            WalletRequest request = new WalletRequest();
+            request.setWalletId(walletId);
+            request.setOwnerName("Outbox");
+            request.setBalance(balance);
+            userService.create(request);
+        }
+
+        protected List<Long> eventSeqs(String walletId) {
+            return jdbcTemplate.queryForList("select event_seq from transaction_outbox where wallet_id = ? order by id", Long.class, walletId);
+        }
+
+        //the journal writes in the background, the other modes have their rows before the call returns
+        protected void awaitOutboxRows(String walletId, int count) throws InterruptedException {
+            long deadline = System.nanoTime() + WAIT_NANOS;
+            while (outboxRows(walletId) < count && System.nanoTime() - deadline < 0) {
+                Thread.sleep(10);
+            }
+            assertEquals(count, outboxRows(walletId));
+        }
+
+        private int outboxRows(String walletId) {
+            return jdbcTemplate.queryForObject("select count(*) from transaction_outbox where wallet_id = ?", Integer.class, walletId);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "wallet.write-mode=direct")
+    class Direct extends WritePath {
+
+        @Autowired
+        private HotWalletService hotWalletService;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        @Override
+        String prefix() {
+            return "outbox-direct";
+        }
+
+        @Test
+        void rolledBackTransactionLeavesNoOutboxRowAndNoSequence() {
+            createWallet("outbox-direct-rollback", 100);
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                userService.deposit("outbox-direct-rollback", 10);
+                status.setRollbackOnly();
+            });
+
+            assertEquals(0, jdbcTemplate.queryForObject(
+                    "select count(*) from transaction_outbox where wallet_id = 'outbox-direct-rollback'", Integer.class));
+            assertEquals(0, jdbcTemplate.queryForObject(
+                    "select count(*) from outbox_wallet_sequences where wallet_id = 'outbox-direct-rollback'", Integer.class));
+        }
+
+        @Test
+        void hotSlotWritesAreSequencedInCommitOrder() throws Exception {
+            createWallet("outbox-direct-hot", 1000);
+            hotWalletService.configure("outbox-direct-hot", 4);
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<TransactionResponse> responses = new ArrayList<>();
+            try {
+                List<Callable<TransactionResponse>> deposits = new ArrayList<>();
+                for (int i = 0; i < 40; i++) {
+                    deposits.add(() -> userService.deposit("outbox-direct-hot", 5));
+                }
+                for (Future<TransactionResponse> result : executor.invokeAll(deposits)) {
+                    responses.add(result.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            List<Long> expected = new ArrayList<>();
+            for (long seq = 1; seq <= responses.size(); seq++) {
+                expected.add(seq);
+            }
+            //outbox id order and eventSeq order agree, with no gaps, although the slot writes ran side by side
+            assertEquals(expected, eventSeqs("outbox-direct-hot"));
+            assertEquals(responses.size(), jdbcTemplate.queryForObject(
+                    "select count(*) from transaction_outbox where wallet_id = 'outbox-direct-hot' and slot is not null", Integer.class));
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "wallet.write-mode=sharded")
+    class Sharded extends WritePath {
+
+        @Override
+        String prefix() {
+            return "outbox-sharded";
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = {"wallet.write-mode=journal",
+            "wallet.journal.path=${java.io.tmpdir}/outbox-writer-test-${random.uuid}.journal"})
+    class Journal extends WritePath {
+
+        @Override
+        String prefix() {
+            return "outbox-journal";
+        }
+    }
+}
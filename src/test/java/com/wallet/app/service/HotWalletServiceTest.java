@@ -0,0 +1,155 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.wallet.app.WalletIntegrationTest;
+import com.wallet.app.dto.ReconciliationReport;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.exception.InsufficientBalanceException;
+
+public class HotWalletServiceTest extends WalletIntegrationTest {
+
+    @Autowired
+    private HotWalletService hotWalletService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Test
+    void depositsSpreadOverSlotsAndBalanceIsTheTotal() throws Exception {
+        createWallet("hot-deposits", 100);
+        hotWalletService.configure("hot-deposits", 4);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<TransactionResponse>> deposits = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                deposits.add(() -> userService.deposit("hot-deposits", 5));
+            }
+            for (Future<TransactionResponse> result : executor.invokeAll(deposits)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(300, userService.getBalance("hot-deposits"));
+        Integer slotRows = jdbcTemplate.queryForObject(
+                "select count(*) from transactions t join wallets w on w.id = t.wallet_id where w.wallet_id = ? and t.slot is not null",
+                Integer.class, "hot-deposits");
+        assertEquals(40, slotRows);
+    }
+
+    @Test
+    void slotWritesReportTheWalletTotalAsBalanceAfter() {
+        createWallet("hot-slot-balance", 1000);
+        hotWalletService.configure("hot-slot-balance", 4);
+
+        TransactionResponse deposit = userService.deposit("hot-slot-balance", 25);
+        TransactionResponse withdraw = userService.withdraw("hot-slot-balance", 5);
+
+        assertNotNull(deposit.getSlot());
+        assertEquals(1025, deposit.getBalanceAfter());
+        assertEquals(1020, withdraw.getBalanceAfter());
+        assertEquals(List.of(1025, 1020), jdbcTemplate.queryForList(
+                "select t.balance_after from transactions t join wallets w on w.id = t.wallet_id where w.wallet_id = ? order by t.id",
+                Integer.class, "hot-slot-balance"));
+        assertEquals(1020, userService.getBalance("hot-slot-balance"));
+    }
+
+    @Test
+    void withdrawLargerThanAnySlotGathersTheBalance() {
+        createWallet("hot-gather", 0);
+        hotWalletService.configure("hot-gather", 4);
+        for (int i = 0; i < 8; i++) {
+            userService.deposit("hot-gather", 10);
+        }
+
+        //no slot can hold 70 of the 80, so this has to pull every slot into the wallet row
+        TransactionResponse withdraw = userService.withdraw("hot-gather", 70);
+
+        assertNull(withdraw.getSlot());
+        assertEquals(10, withdraw.getBalanceAfter());
+        assertEquals(10, userService.getBalance("hot-gather"));
+        assertThrows(InsufficientBalanceException.class, () -> userService.withdraw("hot-gather", 11));
+    }
+
+    @Test
+    void transferFromHotWalletUsesItsSlots() {
+        createWallet("hot-transfer-from", 0);
+        createWallet("hot-transfer-to", 0);
+        hotWalletService.configure("hot-transfer-from", 2);
+        userService.deposit("hot-transfer-from", 30);
+        userService.deposit("hot-transfer-from", 30);
+
+        userService.transfer("hot-transfer-from", "hot-transfer-to", 50);
+
+        assertEquals(10, userService.getBalance("hot-transfer-from"));
+        assertEquals(50, userService.getBalance("hot-transfer-to"));
+    }
+
+    @Test
+    void compactionAndUnmarkingKeepTheTotal() {
+        createWallet("hot-compact", 10);
+        hotWalletService.configure("hot-compact", 3);
+        userService.deposit("hot-compact", 20);
+        userService.deposit("hot-compact", 20);
+
+        hotWalletService.compact();
+        assertEquals(50, userService.getBalance("hot-compact"));
+        Integer unsequenced = jdbcTemplate.queryForObject(
+                "select count(*) from transactions t join wallets w on w.id = t.wallet_id where w.wallet_id = ? and t.wallet_seq is null",
+                Integer.class, "hot-compact");
+        assertEquals(0, unsequenced);
+        //one walletSeq per slot row, following on from the wallet's own writes
+        assertEquals(List.of(1L, 2L), jdbcTemplate.queryForList(
+                "select t.wallet_seq from transactions t join wallets w on w.id = t.wallet_id where w.wallet_id = ? order by t.wallet_seq",
+                Long.class, "hot-compact"));
+
+        hotWalletService.configure("hot-compact", 0);
+        Integer slots = jdbcTemplate.queryForObject(
+                "select count(*) from wallet_slots s join wallets w on w.id = s.wallet_pk where w.wallet_id = ?",
+                Integer.class, "hot-compact");
+        assertEquals(0, slots);
+        assertEquals(45, userService.withdraw("hot-compact", 5).getBalanceAfter());
+    }
+
+    @Test
+    void reconciliationFollowsHotWalletTotals() {
+        createWallet("hot-reconcile", 10);
+        userService.deposit("hot-reconcile", 5);
+        hotWalletService.configure("hot-reconcile", 4);
+        userService.deposit("hot-reconcile", 7);
+        userService.deposit("hot-reconcile", 9);
+        userService.withdraw("hot-reconcile", 20);
+
+        ReconciliationReport report = reconciliationService.run();
+        assertTrue(report.getMismatches().stream().noneMatch(m -> m.getWalletId().equals("hot-reconcile")));
+
+        jdbcTemplate.update("update wallet_slots set balance = balance + 1 where slot = 0 and wallet_pk = "
+                + "(select id from wallets where wallet_id = ?)", "hot-reconcile");
+        report = reconciliationService.run();
+        assertTrue(report.getMismatches().stream().anyMatch(m -> m.getWalletId().equals("hot-reconcile")));
+    }
+
+    @Test
+    void slotCountIsValidated() {
+        createWallet("hot-invalid", 0);
+        assertThrows(IllegalArgumentException.class, () -> hotWalletService.configure("hot-invalid", 65));
+        assertThrows(IllegalArgumentException.class, () -> hotWalletService.configure("hot-invalid", -1));
+    }
+}
@@ -0,0 +1,121 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.wallet.app.WalletIntegrationTest;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.exception.InsufficientBalanceException;
+import com.wallet.app.repository.IdempotencyKeyRepository;
+
+public class IdempotencyServiceTest extends WalletIntegrationTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void retryReturnsTheFirstResponseWithoutMovingMoneyAgain() {
+        createWallet("idempotent-wallet", 0);
+
+        TransactionResponse first = idempotencyService.execute("key-1", "deposit:idempotent-wallet:100", TransactionResponse.class,
+                () -> userService.deposit("idempotent-wallet", 100));
+        TransactionResponse retry = idempotencyService.execute("key-1", "deposit:idempotent-wallet:100", TransactionResponse.class,
+                () -> userService.deposit("idempotent-wallet", 100));
+
+        assertEquals(first.getTransactionId(), retry.getTransactionId());
+        assertEquals(100, userService.getBalance("idempotent-wallet"));
+        assertEquals(1, countTransactions("idempotent-wallet"));
+    }
+
+    @Test
+    void storedResponseIsReplayedWhenTheCacheHasNoEntry() {
+        createWallet("idempotent-db-wallet", 0);
+        //a second node, or this one after a restart, only has the table to go on
+        IdempotencyService coldInstance = new IdempotencyService(
+                idempotencyKeyRepository, transactionManager, objectMapper, Duration.ofHours(1), 100, "direct");
+
+        TransactionResponse first = idempotencyService.execute("key-2", "deposit:idempotent-db-wallet:40", TransactionResponse.class,
+                () -> userService.deposit("idempotent-db-wallet", 40));
+        TransactionResponse retry = coldInstance.execute("key-2", "deposit:idempotent-db-wallet:40", TransactionResponse.class,
+                () -> userService.deposit("idempotent-db-wallet", 40));
+
+        assertEquals(first.getTransactionId(), retry.getTransactionId());
+        assertEquals(40, retry.getBalanceAfter());
+        assertEquals(1, countTransactions("idempotent-db-wallet"));
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        createWallet("idempotent-other-wallet", 0);
+        idempotencyService.execute("key-3", "deposit:idempotent-other-wallet:10", TransactionResponse.class,
+                () -> userService.deposit("idempotent-other-wallet", 10));
+
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute("key-3",
+                "deposit:idempotent-other-wallet:20", TransactionResponse.class, () -> userService.deposit("idempotent-other-wallet", 20)));
+    }
+
+    @Test
+    void failedRequestDoesNotConsumeTheKey() {
+        createWallet("idempotent-empty-wallet", 0);
+
+        assertThrows(InsufficientBalanceException.class, () -> idempotencyService.execute("key-4",
+                "withdraw:idempotent-empty-wallet:10", TransactionResponse.class, () -> userService.withdraw("idempotent-empty-wallet", 10)));
+        userService.deposit("idempotent-empty-wallet", 10);
+        TransactionResponse retry = idempotencyService.execute("key-4", "withdraw:idempotent-empty-wallet:10", TransactionResponse.class,
+                () -> userService.withdraw("idempotent-empty-wallet", 10));
+
+        assertEquals(0, retry.getBalanceAfter());
+    }
+
+    @Test
+    void writeIsRolledBackWhenTheKeyCannotBeStored() {
+        createWallet("idempotent-rollback-wallet", 0);
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("key-5",
+                "deposit:idempotent-rollback-wallet:10", TransactionResponse.class, () -> {
+                    userService.deposit("idempotent-rollback-wallet", 10);
+                    throw new IllegalStateException("response could not be stored");
+                }));
+
+        assertEquals(0, userService.getBalance("idempotent-rollback-wallet"));
+        assertEquals(0, countTransactions("idempotent-rollback-wallet"));
+        assertFalse(idempotencyKeyRepository.existsById("key-5"));
+    }
+
+    @Test
+    void keysAreRejectedInJournalMode() {
+        IdempotencyService journalInstance = new IdempotencyService(
+                idempotencyKeyRepository, transactionManager, objectMapper, Duration.ofHours(1), 100, "journal");
+
+        assertThrows(IllegalArgumentException.class, () -> journalInstance.execute("key-6", "deposit:any:10",
+                TransactionResponse.class, () -> {
+                    throw new AssertionError("the write must not run");
+                }));
+        assertFalse(idempotencyKeyRepository.existsById("key-6"));
+    }
+
+    private int countTransactions(String walletId) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from transactions t join wallets w on w.id = t.wallet_id where w.wallet_id = ?",
+                Integer.class, walletId);
+    }
+
+}
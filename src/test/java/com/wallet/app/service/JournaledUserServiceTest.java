@@ -0,0 +1,65 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import com.wallet.app.WalletIntegrationTest;
+import com.wallet.app.exception.InsufficientBalanceException;
+
+@TestPropertySource(properties = {"wallet.write-mode=journal", "spring.datasource.url=jdbc:h2:mem:journaldb",
+        "wallet.journal.path=${java.io.tmpdir}/journaled-user-service-test-${random.uuid}.journal"})
+public class JournaledUserServiceTest extends WalletIntegrationTest {
+
+    private static final long WAIT_NANOS = 5_000_000_000L;
+
+    @Test
+    void readsDoNotKeepWalletsInMemory() {
+        createWallet("journal-read", 40);
+
+        assertEquals(40, userService.getBalance("journal-read"));
+        assertFalse(journaled().isTracked("journal-read"));
+    }
+
+    @Test
+    void drainedWalletIsDroppedAndReadFreshFromTheDatabase() throws Exception {
+        createWallet("journal-drained", 100);
+        //fills the balance cache of the direct path
+        assertEquals(100, userService.getBalance("journal-drained"));
+
+        userService.deposit("journal-drained", 25);
+        assertEquals(125, userService.getBalance("journal-drained"));
+
+        awaitUntracked("journal-drained");
+        //the drain invalidated the cached 100
+        assertEquals(125, userService.getBalance("journal-drained"));
+        assertEquals(125, jdbcTemplate.queryForObject("select balance from wallets where wallet_id = 'journal-drained'", Integer.class));
+    }
+
+    @Test
+    void walletTouchedOnlyByARejectedWithdrawalIsDropped() throws Exception {
+        createWallet("journal-rejected", 5);
+
+        assertThrows(InsufficientBalanceException.class, () -> userService.withdraw("journal-rejected", 6));
+
+        awaitUntracked("journal-rejected");
+        assertEquals(5, userService.getBalance("journal-rejected"));
+    }
+
+    //the drainer runs every drain-interval-ms
+    private void awaitUntracked(String walletId) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT_NANOS;
+        while (journaled().isTracked(walletId) && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+        assertFalse(journaled().isTracked(walletId));
+    }
+
+    private JournaledUserService journaled() {
+        return assertInstanceOf(JournaledUserService.class, userService);
+    }
+}
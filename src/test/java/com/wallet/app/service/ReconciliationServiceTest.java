@@ -0,0 +1,98 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.wallet.app.WalletIntegrationTest;
+import com.wallet.app.dto.ReconciliationReport;
+import com.wallet.app.dto.WalletMismatch;
+
+public class ReconciliationServiceTest extends WalletIntegrationTest {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Test
+    void consistentWalletIsSnapshottedAndNotReported() {
+        createWallet("reconcile-ok", 10);
+        userService.deposit("reconcile-ok", 5);
+        userService.withdraw("reconcile-ok", 3);
+
+        ReconciliationReport report = reconciliationService.run();
+
+        assertTrue(mismatchesOf(report, "reconcile-ok").isEmpty());
+        Long snapshotBalance = jdbcTemplate.queryForObject(
+                "select s.balance from balance_snapshots s join wallets w on w.id = s.wallet_pk where w.wallet_id = ?",
+                Long.class, "reconcile-ok");
+        assertEquals(12L, snapshotBalance);
+
+        //the next run starts after the snapshot and still follows new rows
+        userService.deposit("reconcile-ok", 8);
+        assertTrue(mismatchesOf(reconciliationService.run(), "reconcile-ok").isEmpty());
+    }
+
+    @Test
+    void balanceThatDriftedFromTheLedgerIsReported() {
+        createWallet("reconcile-drift", 0);
+        userService.deposit("reconcile-drift", 50);
+        userService.withdraw("reconcile-drift", 20);
+        jdbcTemplate.update("update wallets set balance = 100 where wallet_id = ?", "reconcile-drift");
+
+        List<WalletMismatch> mismatches = mismatchesOf(reconciliationService.run(), "reconcile-drift");
+
+        assertEquals(1, mismatches.size());
+        assertEquals(30, mismatches.get(0).getExpected());
+        assertEquals(100, mismatches.get(0).getActual());
+    }
+
+    @Test
+    void brokenBalanceAfterChainIsReported() {
+        createWallet("reconcile-chain", 0);
+        userService.deposit("reconcile-chain", 10);
+        userService.deposit("reconcile-chain", 10);
+        userService.deposit("reconcile-chain", 10);
+        jdbcTemplate.update("update transactions set balance_after = 25 where id = "
+                + "(select max(t.id) from transactions t join wallets w on w.id = t.wallet_id where w.wallet_id = ?)",
+                "reconcile-chain");
+
+        List<WalletMismatch> mismatches = mismatchesOf(reconciliationService.run(), "reconcile-chain");
+
+        assertEquals(2, mismatches.size());
+        assertEquals(30, mismatches.get(0).getExpected());
+        assertEquals(25, mismatches.get(0).getActual());
+    }
+
+    @Test
+    void rowsAreReplayedAndResumedInCommitOrderNotIdOrder() {
+        createWallet("reconcile-late", 0);
+        userService.deposit("reconcile-late", 10);
+        userService.deposit("reconcile-late", 5);
+        //the first deposit got its id from a later pooled block than the second one
+        jdbcTemplate.update("update transactions set id = id + 1000000 where wallet_seq = 1 and wallet_id = "
+                + "(select id from wallets where wallet_id = ?)", "reconcile-late");
+
+        assertTrue(mismatchesOf(reconciliationService.run(), "reconcile-late").isEmpty());
+
+        //committed after the snapshot with an id below everything it covered
+        userService.deposit("reconcile-late", 7);
+        jdbcTemplate.update("update transactions set id = -id where wallet_seq = 3 and wallet_id = "
+                + "(select id from wallets where wallet_id = ?)", "reconcile-late");
+
+        assertTrue(mismatchesOf(reconciliationService.run(), "reconcile-late").isEmpty());
+        Long snapshotBalance = jdbcTemplate.queryForObject(
+                "select s.balance from balance_snapshots s join wallets w on w.id = s.wallet_pk where w.wallet_id = ?",
+                Long.class, "reconcile-late");
+        assertEquals(22L, snapshotBalance);
+    }
+
+    private static List<WalletMismatch> mismatchesOf(ReconciliationReport report, String walletId) {
+        return report.getMismatches().stream()
+                     .filter(mismatch -> walletId.equals(mismatch.getWalletId()))
+                     .toList();
+    }
+}
@@ -0,0 +1,142 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.wallet.app.WalletIntegrationTest;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.exception.InsufficientBalanceException;
+import com.wallet.app.exception.WalletShardUnavailableException;
+import com.wallet.app.repository.TransactionRepository;
+import com.wallet.app.repository.WalletRepository;
+
+@TestPropertySource(properties = {"wallet.write-mode=sharded", "spring.datasource.url=jdbc:h2:mem:shardeddb"})
+public class ShardedUserServiceTest extends WalletIntegrationTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private UserServiceImpl delegate;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void shardedModeIsActive() {
+        assertInstanceOf(ShardedUserService.class, userService);
+    }
+
+    @Test
+    void groupedOperationsGetTheirOwnBalanceAfter() throws Exception {
+        createWallet("shard-hot", 0);
+        int threads = 8;
+        int perThread = 25;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Set<Integer> balances = new HashSet<>();
+        try {
+            List<Callable<List<Integer>>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(() -> {
+                    List<Integer> seen = new ArrayList<>();
+                    for (int j = 0; j < perThread; j++) {
+                        seen.add(userService.deposit("shard-hot", 1).getBalanceAfter());
+                    }
+                    return seen;
+                });
+            }
+            for (Future<List<Integer>> future : pool.invokeAll(tasks)) {
+                for (Integer balance : future.get()) {
+                    assertTrue(balances.add(balance), "balanceAfter handed out twice: " + balance);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(threads * perThread, userService.getBalance("shard-hot"));
+        assertEquals(threads * perThread, balances.size());
+    }
+
+    @Test
+    void insufficientWithdrawOnlyFailsItsOwnCaller() {
+        createWallet("shard-withdraw", 100);
+
+        TransactionResponse first = userService.withdraw("shard-withdraw", 70);
+        assertEquals(30, first.getBalanceAfter());
+        assertThrows(InsufficientBalanceException.class, () -> userService.withdraw("shard-withdraw", 70));
+        assertEquals(30, userService.getBalance("shard-withdraw"));
+    }
+
+    @Test
+    void idempotentWriteCommitsWithItsKey() {
+        createWallet("shard-idempotent", 0);
+
+        TransactionResponse first = idempotencyService.execute("shard-key-1", "deposit:shard-idempotent:25", TransactionResponse.class,
+                () -> userService.deposit("shard-idempotent", 25));
+        TransactionResponse retry = idempotencyService.execute("shard-key-1", "deposit:shard-idempotent:25", TransactionResponse.class,
+                () -> userService.deposit("shard-idempotent", 25));
+
+        assertEquals(first.getTransactionId(), retry.getTransactionId());
+        assertEquals(25, userService.getBalance("shard-idempotent"));
+    }
+
+    @Test
+    void idempotentWriteIsRolledBackWithItsKey() {
+        createWallet("shard-idempotent-rollback", 0);
+
+        //the shard would have committed the deposit on its own before the key was stored
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("shard-key-2",
+                "deposit:shard-idempotent-rollback:10", TransactionResponse.class, () -> {
+                    userService.deposit("shard-idempotent-rollback", 10);
+                    throw new IllegalStateException("response could not be stored");
+                }));
+
+        assertEquals(0, userService.getBalance("shard-idempotent-rollback"));
+    }
+
+    @Test
+    void writesAfterShutdownAreTurnedAwayInsteadOfHanging() throws Exception {
+        createWallet("shard-stopped", 10);
+        //a service of its own, the context's one stays up for the other tests
+        ShardedUserService service = new ShardedUserService(delegate, walletRepository, transactionRepository, transactionManager,
+                transactionIdGenerator, eventPublisher, 1, 300, 16, Duration.ofSeconds(5));
+        assertEquals(11, service.deposit("shard-stopped", 1).getBalanceAfter());
+
+        service.shutdown();
+
+        assertThrows(WalletShardUnavailableException.class, () -> service.deposit("shard-stopped", 1));
+        assertEquals(11, userService.getBalance("shard-stopped"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class TimeOrderedTransactionIdGeneratorTest {
+
+    @Test
+    void idsAreFixedWidthAndSortInAllocationOrder() {
+        TimeOrderedTransactionIdGenerator generator = new TimeOrderedTransactionIdGenerator(7);
+        String previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            String next = generator.nextId();
+            assertEquals(13, next.length());
+            assertTrue(next.compareTo(previous) > 0, next + " should sort after " + previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        TimeOrderedTransactionIdGenerator generator = new TimeOrderedTransactionIdGenerator(1);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(8 * 20_000, ids.size());
+    }
+
+    @Test
+    void nodeIdMustFitInTenBits() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedTransactionIdGenerator(1024));
+    }
+
+    @Test
+    void missingNodeIdFailsInsteadOfBeingGuessed() {
+        //-1 is what the property resolves to when it is not set
+        assertThrows(IllegalStateException.class, () -> new TimeOrderedTransactionIdGenerator(-1));
+    }
+}
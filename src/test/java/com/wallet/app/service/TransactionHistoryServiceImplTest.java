@@ -0,0 +1,106 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.wallet.app.WalletIntegrationTest;
+import com.wallet.app.dto.ExportFormat;
+import com.wallet.app.dto.TransactionPageResponse;
+import com.wallet.app.dto.WalletRequest;
+
+public class TransactionHistoryServiceImplTest extends WalletIntegrationTest {
+
+    @Autowired
+    private TransactionHistoryService historyService;
+
+    @Autowired
+    private HotWalletService hotWalletService;
+
+    @Test
+    void pagesFollowTheCursorUntilTheEnd() {
+        WalletRequest request = new WalletRequest();
+        request.setWalletId("history-wallet");
+        request.setOwnerName("Nitin");
+        userService.create(request);
+        for (int i = 1; i <= 5; i++) {
+            userService.deposit("history-wallet", i);
+        }
+
+        TransactionPageResponse first = historyService.getTransactions("history-wallet", 0, 2);
+        assertEquals(2, first.getItems().size());
+        assertEquals(1, first.getItems().get(0).getAmount());
+
+        TransactionPageResponse second = historyService.getTransactions("history-wallet", first.getNextCursor(), 2);
+        assertEquals(3, second.getItems().get(0).getAmount());
+
+        TransactionPageResponse last = historyService.getTransactions("history-wallet", second.getNextCursor(), 2);
+        assertEquals(1, last.getItems().size());
+        assertEquals(15, last.getItems().get(0).getBalanceAfter());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void rowCommittedWithALowerIdIsNotSkippedByTheCursor() {
+        WalletRequest request = new WalletRequest();
+        request.setWalletId("history-late");
+        request.setOwnerName("Nitin");
+        userService.create(request);
+        userService.deposit("history-late", 1);
+        userService.deposit("history-late", 2);
+
+        TransactionPageResponse first = historyService.getTransactions("history-late", 0, 2);
+        //another node's pooled id block, lower than every id already paged past
+        userService.deposit("history-late", 3);
+        jdbcTemplate.update("update transactions set id = -id where wallet_seq = 3 and wallet_id = "
+                + "(select id from wallets where wallet_id = ?)", "history-late");
+
+        TransactionPageResponse second = historyService.getTransactions("history-late", first.getNextCursor(), 2);
+        assertEquals(1, second.getItems().size());
+        assertEquals(3, second.getItems().get(0).getAmount());
+    }
+
+    @Test
+    void hotWalletSlotRowsArePagedOnceSequenced() {
+        createWallet("history-hot", 0);
+        hotWalletService.configure("history-hot", 2);
+        for (int i = 1; i <= 3; i++) {
+            userService.deposit("history-hot", i);
+        }
+        assertTrue(historyService.getTransactions("history-hot", 0, 10).getItems().isEmpty());
+
+        hotWalletService.compact();
+
+        TransactionPageResponse first = historyService.getTransactions("history-hot", 0, 2);
+        TransactionPageResponse second = historyService.getTransactions("history-hot", first.getNextCursor(), 2);
+        assertEquals(2, first.getItems().size());
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void csvExportStreamsEveryRow() throws Exception {
+        WalletRequest request = new WalletRequest();
+        request.setWalletId("export-wallet");
+        request.setOwnerName("Nitin");
+        request.setBalance(10);
+        userService.create(request);
+        userService.deposit("export-wallet", 5);
+        userService.withdraw("export-wallet", 3);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        historyService.openExport("export-wallet", 0, ExportFormat.CSV).writeTo(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(3, lines.length);
+        assertEquals("id,walletSeq,transactionId,type,amount,balanceAfter", lines[0]);
+        assertEquals("DEPOSIT,5,15", lines[1].substring(lines[1].indexOf("DEPOSIT")));
+        assertEquals("WITHDRAW,3,12", lines[2].substring(lines[2].indexOf("WITHDRAW")));
+    }
+}
@@ -0,0 +1,159 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.wallet.app.dto.PartitionMaintenanceReport;
+import com.wallet.app.dto.WalletRequest;
+
+//schema from the flyway scripts, so V8, V11 and V13 are what is tested; skipped where there is no docker
+@SpringBootTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none",
+        "wallet.transaction-id.node-id=0"})
+@Testcontainers(disabledWithoutDocker = true)
+public class TransactionPartitionPostgresTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final YearMonth current = YearMonth.now(ZoneOffset.UTC);
+
+    private TransactionPartitionService service(int premakeMonths, int retainMonths) {
+        return new TransactionPartitionService(dataSource, transactionManager, premakeMonths, retainMonths, "detach");
+    }
+
+    private void createWallet(String walletId, int balance) {
+        WalletRequest request = new WalletRequest();
+        request.setWalletId(walletId);
+        request.setOwnerName("Nitin");
+        request.setBalance(balance);
+        userService.create(request);
+    }
+
+    //moves every row of the wallet to the first day of the month, across partitions
+    private void backdate(String walletId, YearMonth month) {
+        jdbcTemplate.update("update transactions set created_at = ? where wallet_id = (select id from wallets where wallet_id = ?)",
+                Timestamp.from(month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC)), walletId);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+                + "where i.inhparent = 'transactions'::regclass", String.class);
+    }
+
+    private long rowsIn(String table, String walletId) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where wallet_id = (select id from wallets where wallet_id = ?)",
+                Long.class, walletId);
+    }
+
+    @Test
+    void comingMonthsAndTheDefaultPartitionExistWithoutTheService() {
+        assertTrue(partitions().containsAll(List.of(TransactionPartitionService.partitionName(current.plusMonths(3)), "transactions_default")));
+
+        createWallet("partition-far", 0);
+        userService.deposit("partition-far", 5);
+        backdate("partition-far", current.plusMonths(30));
+
+        assertEquals(1, rowsIn("transactions_default", "partition-far"));
+    }
+
+    @Test
+    void creatingAMonthMovesItsRowsOutOfTheDefaultPartition() {
+        createWallet("partition-moved", 0);
+        userService.deposit("partition-moved", 5);
+        userService.deposit("partition-moved", 6);
+        backdate("partition-moved", current.plusMonths(24));
+
+        List<String> created = service(0, 6).createPartitions(current.plusMonths(24));
+
+        String partition = TransactionPartitionService.partitionName(current.plusMonths(24));
+        assertEquals(List.of(partition), created);
+        assertEquals(2, rowsIn(partition, "partition-moved"));
+        assertEquals(0, rowsIn("transactions_default", "partition-moved"));
+        assertEquals(11, userService.getBalance("partition-moved"));
+    }
+
+    @Test
+    void oldPartitionIsRolledUpAndDetachedOnceReconciled() {
+        createWallet("partition-old", 0);
+        userService.deposit("partition-old", 5);
+        userService.withdraw("partition-old", 2);
+        backdate("partition-old", current.plusMonths(1));
+        String partition = TransactionPartitionService.partitionName(current.plusMonths(1));
+        TransactionPartitionService service = service(0, 1);
+
+        PartitionMaintenanceReport waiting = service.archivePartitions(current.plusMonths(2));
+        assertTrue(waiting.getNotReconciled().contains(partition));
+        assertTrue(partitions().contains(partition));
+
+        reconciliationService.run();
+        PartitionMaintenanceReport archived = service.archivePartitions(current.plusMonths(2));
+
+        assertTrue(archived.getDetached().contains(partition));
+        assertFalse(partitions().contains(partition));
+        assertEquals(2, rowsIn(partition, "partition-old"));
+        assertEquals(2, jdbcTemplate.queryForObject("select transaction_count from transaction_daily_rollups r "
+                + "join wallets w on w.id = r.wallet_pk where w.wallet_id = ?", Integer.class, "partition-old"));
+    }
+
+    @Test
+    void transactionIdIsUniqueWithinItsPartition() {
+        createWallet("partition-unique", 0);
+        userService.deposit("partition-unique", 5);
+        String transactionId = jdbcTemplate.queryForObject("select t.transaction_id from transactions t join wallets w on w.id = t.wallet_id "
+                + "where w.wallet_id = ?", String.class, "partition-unique");
+
+        //same id, same month, another created_at: the parent's (transaction_id, created_at) key alone would let it in
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "insert into transactions (id, wallet_id, transaction_id, type, amount, balance_after, wallet_seq) "
+              + "select nextval('transactions_seq'), id, ?, 'DEPOSIT', 1, 6, 2 from wallets where wallet_id = ?",
+                transactionId, "partition-unique"));
+        //no global table of ids any more
+        assertFalse(jdbcTemplate.queryForObject("select to_regclass('transaction_ids') is not null", Boolean.class));
+    }
+
+    @Test
+    void createdPartitionGetsItsOwnTransactionIdIndex() {
+        String partition = TransactionPartitionService.partitionName(current.plusMonths(36));
+
+        service(0, 6).createPartitions(current.plusMonths(36));
+
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from pg_indexes where tablename = ? and indexname = ?",
+                Integer.class, partition, "uk_" + partition + "_transaction_id"));
+    }
+}
@@ -0,0 +1,26 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.Test;
+
+//the partition DDL itself needs PostgreSQL; names and bounds are checked here
+public class TransactionPartitionServiceTest {
+
+    @Test
+    void partitionNamesRoundTrip() {
+        assertEquals("transactions_p202612", TransactionPartitionService.partitionName(YearMonth.of(2026, 12)));
+        assertEquals(YearMonth.of(2026, 12), TransactionPartitionService.monthOf("transactions_p202612"));
+        assertNull(TransactionPartitionService.monthOf("transactions_legacy"));
+    }
+
+    @Test
+    void partitionCoversOneUtcMonth() {
+        assertEquals("create table if not exists transactions_p202612 partition of transactions "
+                   + "for values from ('2026-12-01 00:00:00+00') to ('2027-01-01 00:00:00+00')",
+                TransactionPartitionService.createPartitionSql(YearMonth.of(2026, 12)));
+    }
+}
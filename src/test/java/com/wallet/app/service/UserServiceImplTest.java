@@ -0,0 +1,184 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.wallet.app.WalletIntegrationTest;
+import com.wallet.app.cache.BalanceCache;
+import com.wallet.app.dto.BatchTransactionItem;
+import com.wallet.app.dto.BatchTransactionRequest;
+import com.wallet.app.dto.BatchTransactionResponse;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.TransferResponse;
+import com.wallet.app.exception.InsufficientBalanceException;
+import com.wallet.app.exception.WalletAlreadyExistsException;
+import com.wallet.app.exception.WalletNotFoundException;
+import com.wallet.app.model.TransactionType;
+
+public class UserServiceImplTest extends WalletIntegrationTest {
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Test
+    void depositAndWithdrawReturnBalanceAfter() {
+        createWallet("svc-basic", 100);
+
+        TransactionResponse deposit = userService.deposit("svc-basic", 50);
+        assertEquals(150, deposit.getBalanceAfter());
+
+        TransactionResponse withdraw = userService.withdraw("svc-basic", 120);
+        assertEquals(30, withdraw.getBalanceAfter());
+        assertEquals(30, userService.getBalance("svc-basic"));
+    }
+
+    @Test
+    void withdrawMoreThanBalanceIsRejected() {
+        createWallet("svc-insufficient", 10);
+
+        assertThrows(InsufficientBalanceException.class, () -> userService.withdraw("svc-insufficient", 11));
+        assertEquals(10, userService.getBalance("svc-insufficient"));
+    }
+
+    @Test
+    void duplicateWalletIdIsRejectedByTheUniqueConstraint() {
+        createWallet("svc-duplicate", 10);
+
+        assertThrows(WalletAlreadyExistsException.class, () -> createWallet("svc-duplicate", 20));
+        assertEquals(10, userService.getBalance("svc-duplicate"));
+    }
+
+    @Test
+    void unknownWalletIsRejected() {
+        assertThrows(WalletNotFoundException.class, () -> userService.deposit("svc-missing", 10));
+        assertThrows(WalletNotFoundException.class, () -> userService.withdraw("svc-missing", 10));
+    }
+
+    @Test
+    void concurrentDepositsAreNotLost() throws Exception {
+        createWallet("svc-hot", 0);
+        int threads = 8;
+        int perThread = 25;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(() -> {
+                    for (int j = 0; j < perThread; j++) {
+                        userService.deposit("svc-hot", 10);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(threads * perThread * 10, userService.getBalance("svc-hot"));
+    }
+
+    @Test
+    void batchAppliesItemsInOrderAndReportsFailuresPerItem() {
+        createWallet("batch-a", 100);
+        createWallet("batch-b", 0);
+
+        BatchTransactionResponse response = userService.applyBatch(new BatchTransactionRequest(List.of(
+                new BatchTransactionItem("batch-a", TransactionType.WITHDRAW, 60),
+                new BatchTransactionItem("batch-b", TransactionType.DEPOSIT, 10),
+                new BatchTransactionItem("batch-a", TransactionType.WITHDRAW, 60),
+                new BatchTransactionItem("batch-missing", TransactionType.DEPOSIT, 10),
+                new BatchTransactionItem("batch-a", TransactionType.DEPOSIT, 5))));
+
+        assertEquals(3, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertEquals(40, response.getResults().get(0).getTransaction().getBalanceAfter());
+        assertTrue(response.getResults().get(1).isSuccess());
+        assertFalse(response.getResults().get(2).isSuccess());
+        assertFalse(response.getResults().get(3).isSuccess());
+        assertEquals(45, response.getResults().get(4).getTransaction().getBalanceAfter());
+        assertEquals(45, userService.getBalance("batch-a"));
+        assertEquals(10, userService.getBalance("batch-b"));
+    }
+
+    @Test
+    void cachedBalanceIsEvictedByWrites() {
+        createWallet("cache-wallet", 100);
+        assertEquals(100, userService.getBalance("cache-wallet"));
+        long hits = balanceCache.stats().hitCount();
+        assertEquals(100, userService.getBalance("cache-wallet"));
+        assertEquals(hits + 1, balanceCache.stats().hitCount());
+
+        userService.deposit("cache-wallet", 5);
+        assertEquals(105, userService.getBalance("cache-wallet"));
+        userService.withdraw("cache-wallet", 10);
+        assertEquals(95, userService.getBalance("cache-wallet"));
+    }
+
+    @Test
+    void transferMovesMoneyAtomically() {
+        createWallet("transfer-a", 100);
+        createWallet("transfer-b", 10);
+
+        TransferResponse transfer = userService.transfer("transfer-a", "transfer-b", 60);
+        assertEquals(TransactionType.TRANSFER_OUT, transfer.getDebit().getType());
+        assertEquals(40, transfer.getDebit().getBalanceAfter());
+        assertEquals(70, transfer.getCredit().getBalanceAfter());
+
+        assertThrows(InsufficientBalanceException.class, () -> userService.transfer("transfer-a", "transfer-b", 41));
+        assertThrows(WalletNotFoundException.class, () -> userService.transfer("transfer-a", "missing", 1));
+        assertThrows(IllegalArgumentException.class, () -> userService.transfer("transfer-a", "transfer-a", 1));
+        assertEquals(40, userService.getBalance("transfer-a"));
+        assertEquals(70, userService.getBalance("transfer-b"));
+    }
+
+    @Test
+    void oppositeTransfersDoNotDeadlock() throws Exception {
+        createWallet("ping", 1000);
+        createWallet("pong", 1000);
+        int threads = 8;
+        int perThread = 25;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                boolean forward = i % 2 == 0;
+                tasks.add(() -> {
+                    for (int j = 0; j < perThread; j++) {
+                        if (forward) {
+                            userService.transfer("ping", "pong", 3);
+                        } else {
+                            userService.transfer("pong", "ping", 3);
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        //as many transfers went each way, so both wallets end where they started
+        assertEquals(1000, userService.getBalance("ping"));
+        assertEquals(1000, userService.getBalance("pong"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.app.dto.ExportFormat;
+
+//the COPY path only runs on PostgreSQL; skipped where there is no docker
+@SpringBootTest(properties = {"spring.jpa.hibernate.ddl-auto=create-drop", "wallet.import.chunk-size=2",
+        "wallet.transaction-id.node-id=0"})
+@Testcontainers(disabledWithoutDocker = true)
+public class WalletImportPostgresTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private WalletImportService importService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void copyImportsQuotedValuesAndSkipsExistingWallets() throws Exception {
+        String body = "walletId,ownerName,balance\n"
+                    + "pg-import-1,\"Kumar, Nitin\",30\n"
+                    + "pg-import-2,\"say \"\"hi\"\"\",5\n"
+                    + "pg-import-1,Nitin,1\n"
+                    + "pg-import-3,Nitin,7\n";
+        run(body);
+
+        ByteArrayOutputStream out = run("walletId,ownerName,balance\npg-import-3,Nitin,9\npg-import-4,Nitin,11\n");
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        JsonNode rejected = objectMapper.readTree(lines[0]);
+        JsonNode summary = objectMapper.readTree(lines[1]);
+
+        assertEquals("pg-import-3", rejected.get("walletId").asText());
+        assertEquals(1, summary.get("imported").asLong());
+        assertEquals("Kumar, Nitin", jdbcTemplate.queryForObject("select owner from wallets where wallet_id = ?", String.class, "pg-import-1"));
+        assertEquals("say \"hi\"", jdbcTemplate.queryForObject("select owner from wallets where wallet_id = ?", String.class, "pg-import-2"));
+        assertEquals(30, userService.getBalance("pg-import-1"));
+        assertEquals(7, userService.getBalance("pg-import-3"));
+        assertEquals(11, userService.getBalance("pg-import-4"));
+    }
+
+    private ByteArrayOutputStream run(String csv) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importWallets(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ExportFormat.CSV, out);
+        return out;
+    }
+}
@@ -0,0 +1,130 @@
+package com.wallet.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.app.WalletIntegrationTest;
+import com.wallet.app.dto.ExportFormat;
+import com.wallet.app.dto.WalletRequest;
+
+@TestPropertySource(properties = "wallet.import.chunk-size=2")
+public class WalletImportServiceTest extends WalletIntegrationTest {
+
+    @Autowired
+    private WalletImportService importService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<JsonNode> run(String body, ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importWallets(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    @Test
+    void ndjsonImportCreatesWalletsAndReportsBadRows() throws Exception {
+        WalletRequest existing = new WalletRequest();
+        existing.setWalletId("import-existing");
+        existing.setOwnerName("Nitin");
+        existing.setBalance(1);
+        userService.create(existing);
+
+        String body = """
+                {"walletId":"import-a","ownerName":"Nitin","balance":100}
+                {"walletId":"import-b","ownerName":"Nitin","balance":0}
+                not json
+                {"walletId":"import-a","ownerName":"Nitin","balance":5}
+                {"walletId":"import-existing","ownerName":"Nitin","balance":5}
+                {"walletId":"","ownerName":"Nitin","balance":5}
+                {"walletId":"import-c","ownerName":"Nitin","balance":-1}
+                {"walletId":"import-d","ownerName":"Nitin","balance":7}
+                """;
+
+        List<JsonNode> lines = run(body, ExportFormat.NDJSON);
+
+        JsonNode summary = lines.get(lines.size() - 1);
+        assertEquals(3, summary.get("imported").asLong());
+        assertEquals(5, summary.get("failed").asLong());
+        List<Long> rejectedLines = lines.subList(0, lines.size() - 1).stream().map(node -> node.get("line").asLong()).sorted().toList();
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), rejectedLines);
+        assertEquals(100, userService.getBalance("import-a"));
+        assertEquals(7, userService.getBalance("import-d"));
+        assertEquals(1, userService.getBalance("import-existing"));
+    }
+
+    @Test
+    void csvImportUsesHeaderColumns() throws Exception {
+        String body = "balance,walletId,ownerName\n"
+                    + "30,import-csv-1,Nitin\n"
+                    + "abc,import-csv-2,Nitin\n"
+                    + "40,import-csv-3,Nitin\n";
+
+        List<JsonNode> lines = run(body, ExportFormat.CSV);
+
+        assertEquals(2, lines.size());
+        assertEquals(3, lines.get(0).get("line").asLong());
+        assertEquals(2, lines.get(1).get("imported").asLong());
+        assertEquals(30, userService.getBalance("import-csv-1"));
+        assertEquals(40, userService.getBalance("import-csv-3"));
+    }
+
+    @Test
+    void csvQuotedFieldsMayHoldCommasAndQuotes() throws Exception {
+        String body = "balance,walletId,\"ownerName\"\n"
+                    + "30,import-quoted-1,\"Kumar, Nitin\"\n"
+                    + "5, \"import-quoted-2\" ,\"say \"\"hi\"\"\"\n"
+                    + "7,import-quoted-3,\"not closed\n"
+                    + "8,import\"quoted-4,Nitin\n";
+
+        List<JsonNode> lines = run(body, ExportFormat.CSV);
+
+        assertEquals(List.of(4L, 5L), List.of(lines.get(0).get("line").asLong(), lines.get(1).get("line").asLong()));
+        assertEquals(2, lines.get(2).get("imported").asLong());
+        assertEquals("Kumar, Nitin", jdbcTemplate.queryForObject("select owner from wallets where wallet_id = ?", String.class, "import-quoted-1"));
+        assertEquals("say \"hi\"", jdbcTemplate.queryForObject("select owner from wallets where wallet_id = ?", String.class, "import-quoted-2"));
+    }
+
+    @Test
+    void ownerNameHasItsOwnLimit() {
+        assertNull(WalletImportService.validate(new WalletImportService.Row(1, "w".repeat(255), "o".repeat(255), 0)));
+        assertEquals("ownerName is longer than 255 characters",
+                WalletImportService.validate(new WalletImportService.Row(1, "w", "o".repeat(256), 0)));
+        assertEquals("walletId is longer than 255 characters",
+                WalletImportService.validate(new WalletImportService.Row(1, "w".repeat(256), "o", 0)));
+    }
+
+    @Test
+    void copyInputQuotesEveryText() {
+        String input = WalletImportService.copyInput(List.of(
+                new WalletImportService.Row(3, "w,1", "Kumar \"N\"", 10),
+                new WalletImportService.Row(4, "w2", "line\nbreak", 0)));
+
+        assertEquals("3,\"w,1\",10,\"Kumar \"\"N\"\"\"\n4,\"w2\",0,\"line\nbreak\"\n", input);
+    }
+
+    @Test
+    void csvWithoutRequiredColumnsIsRejected() throws Exception {
+        List<JsonNode> lines = run("id,name\n1,x\n", ExportFormat.CSV);
+
+        assertTrue(lines.get(0).get("error").asText().contains("header"));
+        assertEquals(0, lines.get(1).get("imported").asLong());
+    }
+}
@@ -0,0 +1,115 @@
+package com.wallet.app.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.model.TransactionType;
+import com.wallet.app.stream.Subscription.Update;
+
+public class SubscriptionTest {
+
+    //collects the first line of every event instead of writing to a response
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder.build().iterator().next().getData().toString().trim());
+        }
+    }
+
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final List<Runnable> pendingSends = new ArrayList<>();
+
+    @Test
+    void slowConsumerGetsTheNewestUpdatePerWalletAndTheMissedCount() {
+        Subscription subscription = new Subscription(emitter, List.of("a", "b"), new long[] {0, 0}, 3, pendingSends::add, () -> { });
+        subscription.replayDone();
+
+        subscription.offer(update(1, "a"));
+        subscription.offer(update(2, "a"));
+        subscription.offer(update(3, "a"));
+        subscription.offer(update(4, "a"));
+        subscription.offer(update(1, "b"));
+        subscription.offer(update(5, "a"));
+        //one sender task no matter how many updates were queued
+        assertEquals(1, pendingSends.size());
+        pendingSends.get(0).run();
+
+        //the id is the walletSeq reached in a and in b
+        assertEquals(List.of("event:coalesced\ndata:", "id:4,0\nevent:transaction\ndata:", "id:4,1\nevent:transaction\ndata:",
+                "id:5,1\nevent:transaction\ndata:"), emitter.events);
+    }
+
+    @Test
+    void liveUpdateAlreadyReplayedOrBehindTheCursorIsSentOnce() throws Exception {
+        Subscription subscription = new Subscription(emitter, List.of("a"), new long[] {3}, 8, Runnable::run, () -> { });
+
+        subscription.offer(update(5, "a"));
+        subscription.replay(update(4, "a"));
+        subscription.replay(update(5, "a"));
+        subscription.replayDone();
+        subscription.offer(update(3, "a"));
+        subscription.offer(update(5, "a"));
+        subscription.offer(update(6, "a"));
+
+        assertEquals(List.of("id:4\nevent:transaction\ndata:", "id:5\nevent:transaction\ndata:", "id:6\nevent:transaction\ndata:"),
+                emitter.events);
+    }
+
+    @Test
+    void replayedSlotRowIsNotSentAgainByItsLiveUpdate() throws Exception {
+        Subscription subscription = new Subscription(emitter, List.of("a"), new long[] {0}, 8, Runnable::run, () -> { });
+
+        //committed on a slot, then sequenced by compaction before the replay read it
+        subscription.offer(slotUpdate(null, "a"));
+        subscription.replay(slotUpdate(1L, "a"));
+        subscription.replayDone();
+
+        assertEquals(List.of("id:1\nevent:transaction\ndata:"), emitter.events);
+    }
+
+    @Test
+    void cursorOnlyMovesForwardAndSlotRowsLeaveItWhereItIs() {
+        Subscription subscription = new Subscription(emitter, List.of("a"), new long[] {4}, 8, Runnable::run, () -> { });
+        subscription.replayDone();
+
+        //two commits of the wallet whose after-commit callbacks ran the other way round
+        subscription.offer(update(6, "a"));
+        subscription.offer(update(5, "a"));
+        subscription.offer(slotUpdate(null, "a"));
+
+        assertEquals(List.of("id:6\nevent:transaction\ndata:", "id:6\nevent:transaction\ndata:", "id:6\nevent:transaction\ndata:"),
+                emitter.events);
+    }
+
+    @Test
+    void closedSubscriptionIsUnregisteredOnce() {
+        int[] closed = new int[1];
+        Subscription subscription = new Subscription(emitter, List.of("a"), new long[] {0}, 8, Runnable::run, () -> closed[0]++);
+        subscription.replayDone();
+
+        subscription.close();
+        subscription.close();
+        subscription.offer(update(1, "a"));
+
+        assertEquals(1, closed[0]);
+        assertTrue(emitter.events.isEmpty());
+    }
+
+    private static Update update(long walletSeq, String walletId) {
+        return new Update(walletSeq, new TransactionResponse("T" + walletId + walletSeq, walletId, TransactionType.DEPOSIT, 10,
+                (int) walletSeq * 10));
+    }
+
+    private static Update slotUpdate(Long walletSeq, String walletId) {
+        return new Update(walletSeq, new TransactionResponse("S" + walletId, walletId, TransactionType.DEPOSIT, 10, 100, 2));
+    }
+}
@@ -0,0 +1,133 @@
+package com.wallet.app.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.wallet.app.WalletIntegrationTest;
+import com.wallet.app.dto.TransactionResponse;
+
+//subscribes through the controller and writes through the service, the events are read from the response as they are sent
+public class TransactionStreamHubTest extends WalletIntegrationTest {
+
+    private static final long WAIT_NANOS = 5_000_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionStreamHub hub;
+
+    @Test
+    void committedTransactionsArePushedToTheirWalletsSubscribers() throws Exception {
+        createWallet("stream-live", 100);
+        createWallet("stream-other", 100);
+        MvcResult result = subscribe("/api/v1/wallets/stream?walletIds=stream-live");
+
+        TransactionResponse first = userService.deposit("stream-live", 10);
+        userService.deposit("stream-other", 10);
+        TransactionResponse second = userService.withdraw("stream-live", 30);
+
+        List<String> events = awaitTransactions(result, 2);
+        assertTrue(events.get(0).contains(first.getTransactionId()));
+        assertTrue(events.get(1).contains(second.getTransactionId()));
+        assertTrue(events.get(1).contains("\"balanceAfter\":80"));
+        assertTrue(events.stream().noneMatch(event -> event.contains("stream-other")));
+    }
+
+    @Test
+    void reconnectReplaysFromTheCursorAndThenGoesLive() throws Exception {
+        createWallet("stream-replay", 100);
+        userService.deposit("stream-replay", 1);
+        Long cursor = jdbcTemplate.queryForObject(
+                "select max(t.wallet_seq) from transactions t join wallets w on w.id = t.wallet_id where w.wallet_id = 'stream-replay'", Long.class);
+        TransactionResponse missed = userService.deposit("stream-replay", 2);
+
+        MvcResult result = subscribe("/api/v1/wallets/stream?walletIds=stream-replay&after=" + cursor);
+        TransactionResponse live = userService.deposit("stream-replay", 3);
+
+        List<String> events = awaitTransactions(result, 2);
+        assertTrue(events.get(0).contains(missed.getTransactionId()));
+        assertTrue(events.get(1).contains(live.getTransactionId()));
+        assertTrue(events.get(0).startsWith("id:" + (cursor + 1) + "\n"));
+        assertTrue(events.get(1).startsWith("id:" + (cursor + 2) + "\n"));
+    }
+
+    @Test
+    void cursorHoldsAWalletSeqPerWalletAndReplaysEachWalletFromItsOwn() throws Exception {
+        createWallet("stream-multi-a", 100);
+        createWallet("stream-multi-b", 100);
+        long a = walletSeq("stream-multi-a");
+        long b = walletSeq("stream-multi-b");
+        TransactionResponse missedA = userService.deposit("stream-multi-a", 1);
+        TransactionResponse missedB = userService.deposit("stream-multi-b", 2);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/wallets/stream?walletIds=stream-multi-a,stream-multi-b")
+                                                   .header("Last-Event-ID", a + "," + b))
+                                  .andExpect(request().asyncStarted()).andReturn();
+
+        List<String> events = awaitTransactions(result, 2);
+        assertTrue(events.get(0).contains(missedA.getTransactionId()));
+        assertTrue(events.get(0).startsWith("id:" + (a + 1) + "," + b + "\n"));
+        assertTrue(events.get(1).contains(missedB.getTransactionId()));
+        assertTrue(events.get(1).startsWith("id:" + (a + 1) + "," + (b + 1) + "\n"));
+    }
+
+    @Test
+    void cursorWithoutAWalletSeqPerWalletIsRejected() throws Exception {
+        createWallet("stream-bad-cursor", 100);
+        int before = hub.subscriberCount();
+
+        mockMvc.perform(get("/api/v1/wallets/stream?walletIds=stream-bad-cursor&after=1,2")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/wallets/stream?walletIds=stream-bad-cursor&after=x")).andExpect(status().isBadRequest());
+
+        assertEquals(before, hub.subscriberCount());
+    }
+
+    @Test
+    void unknownWalletIsRejectedWithOrWithoutACursor() throws Exception {
+        int before = hub.subscriberCount();
+
+        mockMvc.perform(get("/api/v1/wallets/stream?walletIds=stream-missing")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/wallets/stream?walletIds=stream-missing&after=0")).andExpect(status().isNotFound());
+
+        assertEquals(before, hub.subscriberCount());
+    }
+
+    private long walletSeq(String walletId) {
+        return jdbcTemplate.queryForObject("select ledger_seq from wallets where wallet_id = ?", Long.class, walletId);
+    }
+
+    private MvcResult subscribe(String uri) throws Exception {
+        return mockMvc.perform(get(uri)).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    //the sender thread writes into the mock response, wait until it has written the expected events
+    private static List<String> awaitTransactions(MvcResult result, int count) throws Exception {
+        long deadline = System.nanoTime() + WAIT_NANOS;
+        while (true) {
+            List<String> events = new ArrayList<>();
+            for (String event : result.getResponse().getContentAsString().split("\n\n")) {
+                if (event.contains("event:transaction")) {
+                    events.add(event);
+                }
+            }
+            if (events.size() >= count || System.nanoTime() - deadline > 0) {
+                assertEquals(count, events.size(), result.getResponse().getContentAsString());
+                return events;
+            }
+            Thread.sleep(10);
+        }
+    }
+}
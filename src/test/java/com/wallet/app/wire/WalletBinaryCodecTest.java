@@ -0,0 +1,117 @@
+package com.wallet.app.wire;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.wallet.app.dto.BalanceResponse;
+import com.wallet.app.dto.BatchItemResult;
+import com.wallet.app.dto.BatchTransactionItem;
+import com.wallet.app.dto.BatchTransactionRequest;
+import com.wallet.app.dto.BatchTransactionResponse;
+import com.wallet.app.dto.ErrorResponse;
+import com.wallet.app.dto.Status;
+import com.wallet.app.dto.TransactionRequest;
+import com.wallet.app.dto.TransactionResponse;
+import com.wallet.app.dto.TransferResponse;
+import com.wallet.app.dto.WalletResponse;
+import com.wallet.app.model.TransactionType;
+
+public class WalletBinaryCodecTest {
+
+    @Test
+    void depositRequestIsFiveBytes() {
+        byte[] bytes = WalletBinaryCodec.encode(new TransactionRequest(TransactionType.DEPOSIT, 500));
+
+        //field 1 varint 1, field 2 varint 500 (0xF4 0x03)
+        assertArrayEquals(new byte[] {0x08, 0x01, 0x10, (byte) 0xF4, 0x03}, bytes);
+        assertEquals(new TransactionRequest(TransactionType.DEPOSIT, 500), WalletBinaryCodec.decode(TransactionRequest.class, bytes));
+    }
+
+    @Test
+    void responsesRoundTrip() {
+        TransferResponse transfer = TransferResponse.builder()
+                .fromWalletId("snitin6528")
+                .toWalletId("receiver")
+                .amount(200)
+                .debit(new TransactionResponse("UTR001", "snitin6528", TransactionType.TRANSFER_OUT, 200, -5))
+                .credit(new TransactionResponse("UTR002", "receiver", TransactionType.TRANSFER_IN, 200, 200))
+                .build();
+        assertEquals(transfer, WalletBinaryCodec.decode(TransferResponse.class, WalletBinaryCodec.encode(transfer)));
+
+        //slot 0 is a value, not an unset field
+        TransactionResponse slotWrite = new TransactionResponse("UTR003", "hot", TransactionType.DEPOSIT, 10, 10, 0);
+        assertEquals(slotWrite, WalletBinaryCodec.decode(TransactionResponse.class, WalletBinaryCodec.encode(slotWrite)));
+
+        WalletResponse wallet = WalletResponse.builder().walletId("w1").ownerName("Zoë").balance(0).status(Status.ACTIVE).build();
+        assertEquals(wallet, WalletBinaryCodec.decode(WalletResponse.class, WalletBinaryCodec.encode(wallet)));
+    }
+
+    @Test
+    void balanceAndBatchMessagesRoundTrip() {
+        BalanceResponse balance = new BalanceResponse("w1", 500);
+        assertEquals(balance, WalletBinaryCodec.decode(BalanceResponse.class, WalletBinaryCodec.encode(balance)));
+
+        //the last item has only default fields and still counts
+        BatchTransactionRequest request = new BatchTransactionRequest(List.of(
+                new BatchTransactionItem("w1", TransactionType.DEPOSIT, 500),
+                new BatchTransactionItem("w2", TransactionType.WITHDRAW, 100),
+                new BatchTransactionItem(null, null, 0)));
+        assertEquals(request, WalletBinaryCodec.decode(BatchTransactionRequest.class, WalletBinaryCodec.encode(request)));
+
+        BatchTransactionResponse response = BatchTransactionResponse.of(List.of(
+                BatchItemResult.ok(0, new TransactionResponse("UTR001", "w1", TransactionType.DEPOSIT, 500, 500)),
+                BatchItemResult.failed(1, "Wallet Id not found!")));
+        assertEquals(response, WalletBinaryCodec.decode(BatchTransactionResponse.class, WalletBinaryCodec.encode(response)));
+    }
+
+    @Test
+    void unknownFieldsAreSkippedAndMissingOnesStayUnset() {
+        //field 9 string "x", then field 2 = 7
+        byte[] bytes = {0x4A, 0x01, 'x', 0x10, 0x07};
+
+        TransactionRequest request = WalletBinaryCodec.decode(TransactionRequest.class, bytes);
+
+        assertNull(request.getType());
+        assertEquals(7, request.getAmount());
+    }
+
+    @Test
+    void truncatedMessageIsRejected() {
+        byte[] bytes = {0x0A, 0x05, 'a', 'b'};
+
+        assertThrows(IllegalArgumentException.class, () -> WalletBinaryCodec.decode(TransactionResponse.class, bytes));
+    }
+
+    @Test
+    void errorBodiesDifferOnlyInTheirTimestamp() {
+        byte[] first = WalletBinaryCodec.encode(new ErrorResponse(1_000L, 404, "Not Found", "Wallet Id not found!"));
+        byte[] second = WalletBinaryCodec.encode(new ErrorResponse(2_000L, 404, "Not Found", "Wallet Id not found!"));
+
+        ErrorResponse decoded = WalletBinaryCodec.decode(ErrorResponse.class, second);
+        assertEquals(404, decoded.getStatus());
+        assertEquals("Not Found", decoded.getError());
+        assertEquals("Wallet Id not found!", decoded.getMessage());
+        assertEquals(2_000L, decoded.getTimestampMillis());
+        assertEquals(first.length, second.length);
+        assertTrue(first.length < 50);
+    }
+
+    @Test
+    void errorMessagesAreWrittenPerResponse() {
+        byte[] first = WalletBinaryCodec.encode(new ErrorResponse(1_000L, 400, "Bad Request", "Unknown wallet a-1"));
+        byte[] second = WalletBinaryCodec.encode(new ErrorResponse(1_000L, 400, "Bad Request", "Unknown wallet Zo\u00eb-\uD83D\uDE00"));
+        byte[] otherReason = WalletBinaryCodec.encode(new ErrorResponse(1_000L, 400, "Rejected", "Unknown wallet a-1"));
+
+        assertEquals("Unknown wallet a-1", WalletBinaryCodec.decode(ErrorResponse.class, first).getMessage());
+        assertEquals("Unknown wallet Zo\u00eb-\uD83D\uDE00", WalletBinaryCodec.decode(ErrorResponse.class, second).getMessage());
+        assertEquals("Rejected", WalletBinaryCodec.decode(ErrorResponse.class, otherReason).getError());
+        assertEquals("Bad Request", WalletBinaryCodec.decode(ErrorResponse.class, first).getError());
+    }
+}
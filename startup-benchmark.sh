@@ -0,0 +1,140 @@
+#!/bin/bash
+
+# Startup benchmark
+# Boots the application in each startup mode against the PostgreSQL container from compose.yaml
+# and reports time to "Started", time until /actuator/health answers, the latency of the first
+# requests (create, deposit) next to a warm deposit, and the resident memory after them.
+#
+#   jvm      default profile, eager beans, Hibernate reads the database metadata while booting
+#   fast     fast-startup profile: migrated schema, no ddl, lazy beans off the request path
+#   cds      fast + AppCDS archive recorded from a training run
+#   aot-cds  cds with the Spring AOT context, needs a jar built with ./gradlew bootJar -Paot
+#   native   the GraalVM executable from ./gradlew nativeCompile -Paot, when it exists
+#
+# The schema is brought up to date once with the migrate profile before the runs.
+
+JAR=${JAR:-$(ls build/libs/*-SNAPSHOT.jar 2>/dev/null | grep -v plain | head -1)}
+NATIVE=${NATIVE:-build/native/nativeCompile/app}
+PORT=${PORT:-8080}
+# a single instance at a time, any node id will do
+export WALLET_TRANSACTION_ID_NODE_ID=${WALLET_TRANSACTION_ID_NODE_ID:-0}
+RUNS=${RUNS:-3}
+BASE_URL="http://localhost:$PORT/api/v1/wallets"
+HEALTH_URL="http://localhost:$PORT/actuator/health"
+RESULTS=/tmp/startup-benchmark
+EXTRACTED=$RESULTS/application
+mkdir -p "$RESULTS"
+
+if [ -z "$JAR" ]; then
+    echo "No jar found, build one with ./gradlew bootJar (-Paot for the aot-cds mode)"
+    exit 1
+fi
+
+echo "=========================================="
+echo "Startup Benchmark"
+echo "=========================================="
+echo "Jar: $JAR"
+echo "Runs per mode: $RUNS"
+echo "=========================================="
+echo ""
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+echo "Migrating schema..."
+if ! java -jar "$JAR" --spring.profiles.active=migrate > "$RESULTS/migrate.log" 2>&1; then
+    echo "Migration failed, see $RESULTS/migrate.log"
+    exit 1
+fi
+
+#class-data sharing needs the jar unpacked, the archive is recorded by a run that exits after refresh
+rm -rf "$EXTRACTED"
+java -Djarmode=tools -jar "$JAR" extract --destination "$EXTRACTED" > /dev/null
+java -XX:ArchiveClassesAtExit="$EXTRACTED/app.jsa" -Dspring.context.exit=onRefresh \
+     -jar "$EXTRACTED/app.jar" --spring.profiles.active=fast-startup > "$RESULTS/cds-training.log" 2>&1
+
+AOT_JAR=false
+if unzip -l "$JAR" 2>/dev/null | grep -q "__ApplicationContextInitializer"; then
+    AOT_JAR=true
+    java -XX:ArchiveClassesAtExit="$EXTRACTED/app-aot.jsa" -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+         -jar "$EXTRACTED/app.jar" --spring.profiles.active=fast-startup > "$RESULTS/cds-aot-training.log" 2>&1
+fi
+
+# run_mode <mode> <run> <command...>
+run_mode() {
+    local mode=$1
+    local run=$2
+    shift 2
+    local log="$RESULTS/$mode-$run.log"
+    local launched=$(now_ms)
+    "$@" --server.port="$PORT" --spring.jpa.show-sql=false > "$log" 2>&1 &
+    local pid=$!
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "$HEALTH_URL")" = "200" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$mode did not start, see $log"
+            return 1
+        fi
+        sleep 0.05
+    done
+    local ready=$(( $(now_ms) - launched ))
+    local started=$(grep -o "Started WalletAppApplication in [0-9.]* seconds" "$log" | awk '{print $4}')
+
+    local wallet="st_${mode}_${run}_$(date +%s)"
+    local create=$(curl -s -o /dev/null -w '%{time_total}' -X POST "$BASE_URL" -H "Content-Type: application/json" \
+         -d "{\"walletId\": \"$wallet\", \"ownerName\": \"Benchmark\", \"balance\": 0}")
+    local deposit=$(curl -s -o /dev/null -w '%{time_total}' -X POST "$BASE_URL/$wallet/deposit" \
+         -H "Content-Type: application/json" -d '{"type": "DEPOSIT", "amount": 1}')
+    local warm=$(curl -s -o /dev/null -w '%{time_total}' -X POST "$BASE_URL/$wallet/deposit" \
+         -H "Content-Type: application/json" -d '{"type": "DEPOSIT", "amount": 1}')
+    local rss=$(( $(ps -o rss= -p "$pid") / 1024 ))
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null
+    printf "%-8s %4s %10s %10s %12s %12s %12s %8s\n" "$mode" "$run" "${started:-?}" "$ready" \
+           "$(awk "BEGIN {print $create * 1000}")" "$(awk "BEGIN {print $deposit * 1000}")" \
+           "$(awk "BEGIN {print $warm * 1000}")" "$rss" | tee -a "$RESULTS/summary.txt"
+}
+
+: > "$RESULTS/summary.txt"
+printf "%-8s %4s %10s %10s %12s %12s %12s %8s\n" "mode" "run" "started s" "ready ms" \
+       "1st create" "1st deposit" "warm deposit" "rss mb"
+for run in $(seq 1 "$RUNS"); do
+    run_mode jvm "$run" java -jar "$JAR"
+    run_mode fast "$run" java -jar "$JAR" --spring.profiles.active=fast-startup
+    run_mode cds "$run" java -XX:SharedArchiveFile="$EXTRACTED/app.jsa" -jar "$EXTRACTED/app.jar" \
+             --spring.profiles.active=fast-startup
+    if [ "$AOT_JAR" = "true" ]; then
+        run_mode aot-cds "$run" java -XX:SharedArchiveFile="$EXTRACTED/app-aot.jsa" -Dspring.aot.enabled=true \
+                 -jar "$EXTRACTED/app.jar" --spring.profiles.active=fast-startup
+    fi
+    if [ -x "$NATIVE" ]; then
+        run_mode native "$run" "$NATIVE" --spring.profiles.active=fast-startup
+    fi
+done
+
+#median of every column per mode, as the markdown table kept under "Startup Results" in DOCKER_README.md
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+{
+    echo "| mode | runs | started s | ready ms | 1st create ms | 1st deposit ms | warm deposit ms | rss MB |"
+    echo "|------|------|-----------|----------|---------------|----------------|-----------------|--------|"
+    for mode in $(awk '!seen[$1]++ { print $1 }' "$RESULTS/summary.txt"); do
+        row="| $mode | $(awk -v m="$mode" '$1 == m' "$RESULTS/summary.txt" | wc -l | tr -d ' ') |"
+        for column in 3 4 5 6 7 8; do
+            row="$row $(awk -v m="$mode" -v c="$column" '$1 == m { print $c }' "$RESULTS/summary.txt" | median) |"
+        done
+        echo "$row"
+    done
+    echo ""
+    echo "$(java -version 2>&1 | head -1), $(nproc) cpus, $RUNS runs per mode, $(date -u +%Y-%m-%d)"
+} > "$RESULTS/summary.md"
+
+echo ""
+cat "$RESULTS/summary.md"
+echo ""
+echo "Request latencies are in ms and include curl's connection setup."
+[ "$AOT_JAR" = "true" ] || echo "aot-cds skipped: $JAR has no Spring AOT output (./gradlew bootJar -Paot)"
+[ -x "$NATIVE" ] || echo "native skipped: no $NATIVE (./gradlew nativeCompile -Paot)"
+echo "App logs, summary.txt (every run) and summary.md (medians) are in $RESULTS"
@@ -0,0 +1,57 @@
+#!/bin/bash
+
+# Transaction ID insert benchmark
+# Compares inserting random v4 UUIDs vs time-ordered 13 char ids into a table
+# with a unique index on the id column (same shape as transactions.transaction_id).
+# Runs against the PostgreSQL container from compose.yaml.
+
+CONTAINER=${CONTAINER:-wallet-postgres}
+ROWS=${ROWS:-10000000}
+CHUNK=${CHUNK:-1000000}
+
+echo "=========================================="
+echo "Transaction ID Insert Benchmark"
+echo "=========================================="
+echo "Rows per strategy: $ROWS (chunks of $CHUNK)"
+echo "=========================================="
+echo ""
+
+psql_exec() {
+    docker exec -i "$CONTAINER" psql -U postgres -d test_db -v ON_ERROR_STOP=1 "$@"
+}
+
+psql_exec -q <<'SQL'
+DROP TABLE IF EXISTS txid_bench_uuid;
+DROP TABLE IF EXISTS txid_bench_ordered;
+CREATE UNLOGGED TABLE txid_bench_uuid (id bigint PRIMARY KEY, transaction_id varchar(255) NOT NULL UNIQUE);
+CREATE UNLOGGED TABLE txid_bench_ordered (id bigint PRIMARY KEY, transaction_id varchar(255) NOT NULL UNIQUE);
+SQL
+
+run_strategy() {
+    local table=$1
+    local expression=$2
+    echo "--- $table ---"
+    local from=1
+    while [ "$from" -le "$ROWS" ]; do
+        local to=$((from + CHUNK - 1))
+        local start=$(date +%s%N)
+        psql_exec -q -c "INSERT INTO $table SELECT i, $expression FROM generate_series($from, $to) AS i;"
+        local end=$(date +%s%N)
+        local millis=$(( (end - start) / 1000000 ))
+        echo "rows $from-$to: ${millis} ms ($(( CHUNK * 1000 / (millis + 1) )) rows/s)"
+        from=$((to + 1))
+    done
+    psql_exec -t -c "SELECT 'index size: ' || pg_size_pretty(pg_relation_size('${table}_transaction_id_key'));"
+}
+
+run_strategy txid_bench_uuid "gen_random_uuid()::text"
+run_strategy txid_bench_ordered "lpad(upper(to_hex(i)), 13, '0')"
+
+psql_exec -q <<'SQL'
+DROP TABLE txid_bench_uuid;
+DROP TABLE txid_bench_ordered;
+SQL
+
+echo ""
+echo "Done. Random UUIDs should slow down as the index outgrows shared_buffers,"
+echo "time-ordered ids should stay flat with a smaller, denser index."
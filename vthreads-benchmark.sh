@@ -0,0 +1,96 @@
+#!/bin/bash
+
+# Platform threads vs virtual threads benchmark
+# Starts the jar twice against the PostgreSQL container from compose.yaml, once with the
+# default Tomcat thread pool and once with the "virtual" profile, and drives both with
+# the same ab runs. The jar must be built for Java 21: ./gradlew bootJar -PjavaVersion=21
+
+JAR=${JAR:-$(ls build/libs/*-SNAPSHOT.jar 2>/dev/null | grep -v plain | head -1)}
+PORT=${PORT:-8080}
+# a single instance at a time, any node id will do
+export WALLET_TRANSACTION_ID_NODE_ID=${WALLET_TRANSACTION_ID_NODE_ID:-0}
+POOL_SIZE=${POOL_SIZE:-20}
+CONCURRENCY=${CONCURRENCY:-200}
+REQUESTS=${REQUESTS:-20000}
+BASE_URL="http://localhost:$PORT/api/v1/wallets"
+RESULTS=/tmp/vthreads-benchmark
+mkdir -p "$RESULTS"
+
+if [ -z "$JAR" ]; then
+    echo "No jar found, build one with ./gradlew bootJar -PjavaVersion=21"
+    exit 1
+fi
+
+echo "=========================================="
+echo "Thread Model Benchmark"
+echo "=========================================="
+echo "Jar: $JAR"
+echo "Hikari pool size: $POOL_SIZE"
+echo "Concurrency: $CONCURRENCY, requests per run: $REQUESTS"
+echo "=========================================="
+echo ""
+
+cat > /tmp/vthreads-deposit.json << 'JSON'
+{
+  "type": "DEPOSIT",
+  "amount": 1
+}
+JSON
+
+run_mode() {
+    local mode=$1
+    local profiles=$2
+    echo "--- $mode ---"
+    java -jar "$JAR" --server.port="$PORT" \
+         --spring.profiles.active="$profiles" \
+         --spring.datasource.hikari.maximum-pool-size="$POOL_SIZE" \
+         --spring.jpa.show-sql=false > "$RESULTS/$mode-app.log" 2>&1 &
+    local pid=$!
+    until curl -s -o /dev/null "$BASE_URL/none/balance"; do sleep 1; done
+
+    #ab hits a single url, so every deposit contends on the same wallet row
+    local wallet="vt_${mode}_$(date +%s)"
+    curl -s -X POST "$BASE_URL" -H "Content-Type: application/json" \
+         -d "{\"walletId\": \"$wallet\", \"ownerName\": \"Benchmark\", \"balance\": 0}" > /dev/null
+
+    ab -q -n "$REQUESTS" -c "$CONCURRENCY" "$BASE_URL/$wallet/balance" > "$RESULTS/$mode-balance.txt"
+    ab -q -n "$REQUESTS" -c "$CONCURRENCY" -p /tmp/vthreads-deposit.json -T "application/json" \
+       "$BASE_URL/$wallet/deposit" > "$RESULTS/$mode-deposit.txt"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null
+}
+
+summary() {
+    local file=$1
+    local rps=$(grep "Requests per second" "$file" | awk '{print $4}')
+    local p50=$(grep "  50%" "$file" | awk '{print $2}')
+    local p99=$(grep "  99%" "$file" | awk '{print $2}')
+    local failed=$(grep "Failed requests" "$file" | awk '{print $3}')
+    local non2xx=$(grep "Non-2xx responses" "$file" | awk '{print $3}')
+    printf "%-10s %10s %8s %8s %8s\n" "$2" "$rps" "$p50" "$p99" "$((failed + ${non2xx:-0}))"
+    printf "| %s | %s | %s | %s | %s | %s |\n" "$3" "$2" "$rps" "$p50" "$p99" "$((failed + ${non2xx:-0}))" >> "$RESULTS/summary.md"
+}
+
+run_mode platform ""
+run_mode virtual "virtual"
+
+echo ""
+#the same numbers as a markdown table, ready to paste into a PR or the docs
+{
+    echo "Java $(java -version 2>&1 | head -1 | cut -d'"' -f2), pool $POOL_SIZE, concurrency $CONCURRENCY, $REQUESTS requests per run"
+    echo ""
+    echo "| endpoint | mode | req/s | p50 ms | p99 ms | errors |"
+    echo "|---|---|---|---|---|---|"
+} > "$RESULTS/summary.md"
+for endpoint in balance deposit; do
+    echo "=========================================="
+    echo "$endpoint"
+    echo "=========================================="
+    printf "%-10s %10s %8s %8s %8s\n" "mode" "req/s" "p50 ms" "p99 ms" "errors"
+    summary "$RESULTS/platform-$endpoint.txt" platform "$endpoint"
+    summary "$RESULTS/virtual-$endpoint.txt" virtual "$endpoint"
+    echo ""
+done
+echo "Markdown table: $RESULTS/summary.md"
+echo "Raw ab output and app logs are in $RESULTS"